@@ -0,0 +1,99 @@
+package com.homeprice.benchmarks;
+
+import com.homeprice.service.PredictionBlock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batch predict latency per request of {@code batchSize} listings: the scoring kernel alone
+ * ({@link PredictionBlock} blocks) and the full NDJSON parse, score and write path.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchPredictionBenchmark {
+
+    @Param({"100", "10000"})
+    public int batchSize;
+
+    @Param({"7"})
+    public int locations;
+
+    private ServiceFixture fixture;
+    private double[] squareFeet;
+    private int[] bhk;
+    private int[] bathrooms;
+    private int[] locationIndex;
+    private byte[] ndjson;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        fixture = new ServiceFixture(10_000, locations);
+        Random random = new Random(7L);
+        squareFeet = new double[batchSize];
+        bhk = new int[batchSize];
+        bathrooms = new int[batchSize];
+        locationIndex = new int[batchSize];
+        StringBuilder body = new StringBuilder(batchSize * 80);
+        for (int i = 0; i < batchSize; i++) {
+            squareFeet[i] = 400 + random.nextInt(3600);
+            bhk[i] = 1 + random.nextInt(5);
+            bathrooms[i] = Math.max(1, bhk[i] - random.nextInt(2));
+            locationIndex[i] = random.nextInt(locations);
+            body.append("{\"squareFeet\":").append((int) squareFeet[i])
+                    .append(",\"bhk\":").append(bhk[i])
+                    .append(",\"bathrooms\":").append(bathrooms[i])
+                    .append(",\"location\":\"").append(SyntheticData.location(locationIndex[i])).append("\"}\n");
+        }
+        ndjson = body.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public long scoreBlocks() {
+        PredictionBlock block = new PredictionBlock();
+        long checksum = 0;
+        for (int i = 0; i < batchSize; i++) {
+            block.add(squareFeet[i], bhk[i], bathrooms[i], locationIndex[i]);
+            if (block.isFull() || i == batchSize - 1) {
+                fixture.predictionService.predictBlock(block);
+                for (int r = 0; r < block.size(); r++) {
+                    checksum += block.getPriceInr(r);
+                }
+                block.clear();
+            }
+        }
+        return checksum;
+    }
+
+    @Benchmark
+    public long ndjsonRoundTrip() throws IOException {
+        return fixture.batchPredictionService.predict(new ByteArrayInputStream(ndjson),
+                OutputStream.nullOutputStream(), true);
+    }
+}
@@ -0,0 +1,30 @@
+package com.homeprice.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Entry point of benchmarks.jar: the JMH command line, but results are also written as JSON
+ * ({@code target/jmh-result.json} unless {@code -rf}/{@code -rff} are given) so runs can be
+ * archived and compared across releases.
+ */
+public final class BenchmarkMain {
+
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> jmhArgs = new ArrayList<>(Arrays.asList(args));
+        boolean listing = jmhArgs.stream().anyMatch(a -> a.equals("-h") || a.startsWith("-l"));
+        if (!listing && !jmhArgs.contains("-rf")) {
+            jmhArgs.add(0, "-rf");
+            jmhArgs.add(1, "json");
+        }
+        if (!listing && !jmhArgs.contains("-rff")) {
+            jmhArgs.add(0, "-rff");
+            jmhArgs.add(1, "target/jmh-result.json");
+        }
+        org.openjdk.jmh.Main.main(jmhArgs.toArray(new String[0]));
+    }
+}
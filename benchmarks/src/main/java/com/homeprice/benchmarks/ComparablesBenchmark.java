@@ -0,0 +1,132 @@
+package com.homeprice.benchmarks;
+
+import com.homeprice.model.domain.ComparableListing;
+import com.homeprice.model.domain.ComparablesIndex;
+import com.homeprice.model.domain.PropertyDataset;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One k-nearest-listings query for a random listing in a random location: {@code kdtree} searches the
+ * location's tree in {@link ComparablesIndex}; {@code scan} computes the same scaled distance to every
+ * listing of the dataset and keeps the k best. Setup checks both return the same distances.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ComparablesBenchmark {
+
+    @Param({"1000000", "10000000"})
+    public int rows;
+
+    @Param({"1", "50"})
+    public int locations;
+
+    @Param({"10"})
+    public int k;
+
+    @Param({"kdtree", "scan"})
+    public String mode;
+
+    private PropertyDataset dataset;
+    private ComparablesIndex index;
+    private double[] weights;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataset = SyntheticData.dataset(rows, locations, 42L);
+        index = ComparablesIndex.build(dataset, null, null);
+        weights = inverseVariances(dataset);
+        random = new Random(7L);
+        for (int q = 0; q < 20; q++) {
+            double sqft = 400 + random.nextInt(3600);
+            int bhk = 1 + random.nextInt(5);
+            int bath = 1 + random.nextInt(5);
+            int loc = random.nextInt(locations);
+            List<ComparableListing> found = index.nearest(sqft, bhk, bath, loc, k);
+            double[] expected = scan(sqft, bhk, bath, loc);
+            for (int i = 0; i < k; i++) {
+                if (Math.abs(found.get(i).getDistance() - expected[i]) > 1e-9) {
+                    throw new IllegalStateException("KD-tree and scan disagree at rank " + i);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public double nearest() {
+        double sqft = 400 + random.nextInt(3600);
+        int bhk = 1 + random.nextInt(5);
+        int bath = Math.max(1, bhk - random.nextInt(2));
+        int loc = random.nextInt(locations);
+        if (mode.equals("scan")) {
+            return scan(sqft, bhk, bath, loc)[k - 1];
+        }
+        return index.nearest(sqft, bhk, bath, loc, k).get(k - 1).getDistance();
+    }
+
+    /** Distances of the k nearest listings of the location, ascending. */
+    private double[] scan(double sqft, int bhk, int bath, int loc) {
+        double[] best = new double[k];
+        Arrays.fill(best, Double.POSITIVE_INFINITY);
+        for (int r = 0; r < dataset.size(); r++) {
+            if (dataset.getLocationIndex(r) != loc) {
+                continue;
+            }
+            double ds = sqft - (float) dataset.getSquareFeet(r);
+            double db = bhk - dataset.getBhk(r);
+            double dt = bath - dataset.getBathrooms(r);
+            double d = weights[0] * ds * ds + weights[1] * db * db + weights[2] * dt * dt;
+            if (d < best[k - 1]) {
+                int i = k - 1;
+                while (i > 0 && best[i - 1] > d) {
+                    best[i] = best[i - 1];
+                    i--;
+                }
+                best[i] = d;
+            }
+        }
+        for (int i = 0; i < k; i++) {
+            best[i] = Math.sqrt(best[i]);
+        }
+        return best;
+    }
+
+    private static double[] inverseVariances(PropertyDataset dataset) {
+        double[] sum = new double[3];
+        double[] sumSquares = new double[3];
+        int n = dataset.size();
+        for (int r = 0; r < n; r++) {
+            double[] v = {dataset.getSquareFeet(r), dataset.getBhk(r), dataset.getBathrooms(r)};
+            for (int d = 0; d < 3; d++) {
+                sum[d] += v[d];
+                sumSquares[d] += v[d] * v[d];
+            }
+        }
+        double[] weights = new double[3];
+        for (int d = 0; d < 3; d++) {
+            double mean = sum[d] / n;
+            weights[d] = 1 / (sumSquares[d] / n - mean * mean);
+        }
+        return weights;
+    }
+}
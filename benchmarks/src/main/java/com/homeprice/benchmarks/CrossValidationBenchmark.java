@@ -0,0 +1,99 @@
+package com.homeprice.benchmarks;
+
+import com.homeprice.model.ml.CholeskySolver;
+import com.homeprice.model.ml.CrossValidation;
+import com.homeprice.model.ml.DesignMatrix;
+import com.homeprice.model.ml.NormalEquations;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * k-fold x ridge-grid search: {@code refit} accumulates each fold's training statistics from the rows
+ * for every (fold, ridge) pair, as separate fits would; {@code cached} accumulates per-fold statistics
+ * once (on the pool when {@code threads > 0}; refit ignores threads) and scores the whole grid from them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CrossValidationBenchmark {
+
+    @Param({"100000"})
+    public int rows;
+
+    @Param({"5"})
+    public int columns;
+
+    @Param({"10"})
+    public int folds;
+
+    @Param({"50"})
+    public int ridges;
+
+    @Param({"refit", "cached"})
+    public String mode;
+
+    @Param({"0", "4"})
+    public int threads;
+
+    private DesignMatrix matrix;
+    private int[] foldOfRow;
+    private double[] grid;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        matrix = SyntheticData.designMatrix(rows, columns, 42L);
+        foldOfRow = new int[rows];
+        for (int r = 0; r < rows; r++) {
+            foldOfRow[r] = r % folds;
+        }
+        grid = CrossValidation.ridgeGrid(1e-3, 1e6, ridges - 1);
+        pool = threads > 0 ? new ForkJoinPool(threads) : null;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    @Benchmark
+    public double search() {
+        if (mode.equals("cached")) {
+            return CrossValidation.of(matrix, foldOfRow, folds, pool).search(grid).bestRidge();
+        }
+        double sum = 0;
+        double[] row = new double[columns];
+        for (double ridge : grid) {
+            for (int f = 0; f < folds; f++) {
+                NormalEquations train = new NormalEquations(columns);
+                for (int r = 0; r < rows; r++) {
+                    if (foldOfRow[r] != f) {
+                        matrix.copyRow(r, row);
+                        train.add(row, matrix.target(r));
+                    }
+                }
+                sum += new CholeskySolver(ridge).solve(train.gram(), train.xty(), columns)[0];
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,146 @@
+package com.homeprice.benchmarks;
+
+import com.homeprice.model.domain.PropertyDataset;
+import com.homeprice.service.CsvByteParser;
+import com.homeprice.service.DatasetLoader;
+import com.homeprice.service.LocationDictionary;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CSV parse throughput in rows/s and MB/s: the byte-level {@link CsvByteParser} over a
+ * memory-mapped file vs the previous BufferedReader + String-splitting parser, and the full
+ * {@link DatasetLoader#loadDataset()} path (parallel chunks merged into a columnar dataset), without
+ * and with the profiling and winsorizing stage.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CsvParseBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int rows;
+
+    @Param({"7"})
+    public int locations;
+
+    private Path file;
+    private long fileBytes;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Throughput {
+        public long rows;
+        public double megabytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            rows = 0;
+            megabytes = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = SyntheticData.writeCsv(rows, locations, 42L);
+        fileBytes = Files.size(file);
+    }
+
+    @Benchmark
+    public double byteParser(Throughput counters) throws IOException {
+        double[] checksum = new double[1];
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            counters.rows += new CsvByteParser(new LocationDictionary()).parse(channel,
+                    (sq, bhk, bath, loc, price) -> checksum[0] += price);
+        }
+        counters.megabytes += fileBytes / 1e6;
+        return checksum[0];
+    }
+
+    @Benchmark
+    public PropertyDataset datasetLoader(Throughput counters) throws IOException {
+        PropertyDataset dataset = new DatasetLoader(file.toString(), 0, false, "none", 0, 1).loadDataset();
+        counters.rows += dataset.size();
+        counters.megabytes += fileBytes / 1e6;
+        return dataset;
+    }
+
+    @Benchmark
+    public PropertyDataset profiledDatasetLoader(Throughput counters) throws IOException {
+        PropertyDataset dataset = new DatasetLoader(file.toString(), 0, true, "winsorize", 0.001, 0.999).loadDataset();
+        counters.rows += dataset.size();
+        counters.megabytes += fileBytes / 1e6;
+        return dataset;
+    }
+
+    @Benchmark
+    public double lineReader(Throughput counters) throws IOException {
+        double checksum = 0;
+        Map<String, Integer> locationToIndex = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            reader.readLine();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty()) continue;
+                String[] parts = splitLine(line);
+                double sq = Double.parseDouble(parts[0].trim());
+                int bhk = Integer.parseInt(parts[1].trim());
+                int bath = Integer.parseInt(parts[2].trim());
+                int loc = locationToIndex.computeIfAbsent(parts[3].trim(), k -> locationToIndex.size());
+                double price = Double.parseDouble(parts[4].trim());
+                checksum += price + sq + bhk + bath + loc;
+                counters.rows++;
+            }
+        }
+        counters.megabytes += fileBytes / 1e6;
+        return checksum;
+    }
+
+    /** The original DatasetLoader line splitter, kept here as the baseline. */
+    private static String[] splitLine(String line) {
+        List<String> result = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean inQuotes = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                inQuotes = !inQuotes;
+            } else if (c == ',' && !inQuotes) {
+                result.add(current.toString());
+                current = new StringBuilder();
+            } else {
+                current.append(c);
+            }
+        }
+        result.add(current.toString());
+        return result.toArray(new String[0]);
+    }
+}
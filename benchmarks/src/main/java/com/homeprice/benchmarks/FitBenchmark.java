@@ -0,0 +1,75 @@
+package com.homeprice.benchmarks;
+
+import com.homeprice.model.ml.CoordinateDescent;
+import com.homeprice.model.ml.LinearRegression;
+import com.homeprice.model.ml.NormalEquations;
+import com.homeprice.model.ml.OptimizerType;
+import com.homeprice.model.ml.SgdRegression;
+import com.homeprice.model.ml.SolverType;
+import com.homeprice.model.ml.SparseMatrix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end fit time (accumulate X'X and X'y, then solve) per solver on a synthetic design
+ * matrix of configurable height and width, next to the iterative optimizers: SGD (sequential,
+ * 20 epochs, no early stopping) and coordinate descent on X'X. 50M x 5 needs about 2.5 GB of heap.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FitBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int rows;
+
+    @Param({"5", "50"})
+    public int columns;
+
+    @Param({"gauss-jordan", "cholesky", "qr", "sgd", "coordinate-descent"})
+    public String solver;
+
+    private FlatDesignMatrix matrix;
+    private SparseMatrix rowsCsr;
+    private OptimizerType optimizer;
+    private SolverType solverType;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        matrix = SyntheticData.designMatrix(rows, columns, 42L);
+        optimizer = OptimizerType.fromName(solver.equals("sgd") || solver.equals("coordinate-descent") ? solver : null);
+        if (optimizer == OptimizerType.SGD) {
+            rowsCsr = SparseMatrix.of(matrix);
+        } else if (optimizer == OptimizerType.NORMAL_EQUATIONS) {
+            solverType = SolverType.fromName(solver);
+        }
+    }
+
+    @Benchmark
+    public double[] fit() {
+        return switch (optimizer) {
+            case SGD -> new SgdRegression(0.05, 0, 0, 256, 20, 1, 42L).fit(rowsCsr, null, null);
+            case COORDINATE_DESCENT -> new CoordinateDescent(0, 0, 10_000).solve(NormalEquations.of(matrix, null));
+            case NORMAL_EQUATIONS -> {
+                LinearRegression model = new LinearRegression(solverType.create(0.0));
+                model.fit(matrix);
+                yield model.getWeights();
+            }
+        };
+    }
+}
@@ -0,0 +1,39 @@
+package com.homeprice.benchmarks;
+
+import com.homeprice.model.ml.DesignMatrix;
+
+/**
+ * Row-major design matrix over one flat array, so wide and tall inputs avoid per-row objects.
+ */
+final class FlatDesignMatrix implements DesignMatrix {
+
+    private final double[] x;
+    private final double[] y;
+    private final int columns;
+
+    FlatDesignMatrix(double[] x, double[] y, int columns) {
+        this.x = x;
+        this.y = y;
+        this.columns = columns;
+    }
+
+    @Override
+    public int rows() {
+        return y.length;
+    }
+
+    @Override
+    public int columns() {
+        return columns;
+    }
+
+    @Override
+    public void copyRow(int row, double[] dest) {
+        System.arraycopy(x, row * columns, dest, 0, columns);
+    }
+
+    @Override
+    public double target(int row) {
+        return y[row];
+    }
+}
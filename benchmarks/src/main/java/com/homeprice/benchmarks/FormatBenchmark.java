@@ -0,0 +1,48 @@
+package com.homeprice.benchmarks;
+
+import com.homeprice.service.HomePriceMetrics;
+import com.homeprice.service.PredictionCache;
+import com.homeprice.service.PredictionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link PredictionService#formatPriceInr(long)} across thousands to hundreds of crores.
+ * The formatter does not touch the model, so the service is built without one.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FormatBenchmark {
+
+    private static final long[] PRICES = {
+            8_500L, 95_000L, 7_25_000L, 45_00_000L, 6_514_675L, 2_35_00_000L, 12_75_00_000L, 450_00_00_000L
+    };
+
+    private PredictionService service;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        service = new PredictionService(null, PredictionCache.disabled(), HomePriceMetrics.none());
+    }
+
+    @Benchmark
+    public String formatPriceInr() {
+        next = (next + 1) & 7;
+        return service.formatPriceInr(PRICES[next]);
+    }
+}
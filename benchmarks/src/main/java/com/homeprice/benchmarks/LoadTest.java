@@ -0,0 +1,218 @@
+package com.homeprice.benchmarks;
+
+import com.homeprice.HomePricePredictionApplication;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Closed-loop HTTP load test against the application booted in-process on a random port. Each of
+ * {@code concurrency} client threads sends one prediction at a time, for {@code warmup} seconds
+ * (discarded) and then {@code duration} seconds, and the sustained requests/s and latency
+ * percentiles are printed. Scenarios:
+ * <ul>
+ *     <li>{@code form}: POST /predict as the HTML form does, following any redirect to /result with
+ *     the session cookie (compare {@code --homeprice.ui.result-mode=flash}, {@code token} and {@code inline})</li>
+ *     <li>{@code api}: GET /api/v1/predict, one stateless JSON request per prediction (compare
+ *     {@code --homeprice.batching.enabled=true}, usually with {@code --homeprice.cache.enabled=false})</li>
+ *     <li>{@code home}: GET / (template render with the location list; compare {@code --spring.profiles.active=prod})</li>
+ * </ul>
+ * Options are key=value pairs; arguments starting with {@code --} are passed to the application:
+ * <pre>
+ * java -cp target/benchmarks.jar com.homeprice.benchmarks.LoadTest scenario=api concurrency=256
+ * java -cp target/benchmarks.jar com.homeprice.benchmarks.LoadTest scenario=api --spring.threads.virtual.enabled=true
+ * </pre>
+ * Each client is one user: after the run the live HTTP sessions and the heap retained since the start
+ * (after a full GC) are printed. The retained heap includes the clients' own connections, so only
+ * its difference between runs with the same concurrency reflects server-side state per user.
+ * Client and server share the machine, so compare runs made on the same host only.
+ */
+public final class LoadTest {
+
+    private static final String[] LOCATIONS = {"Mumbai", "Delhi", "Bangalore", "Hyderabad", "Chennai", "Pune", "Kolkata"};
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>(Map.of("scenario", "api", "concurrency", "256",
+                "duration", "20", "warmup", "5"));
+        List<String> appArgs = new ArrayList<>(List.of("--server.port=0", "--logging.level.com.homeprice=WARN"));
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (arg.startsWith("--")) {
+                appArgs.add(arg);
+            } else if (eq > 0 && options.containsKey(arg.substring(0, eq))) {
+                options.put(arg.substring(0, eq), arg.substring(eq + 1));
+            } else {
+                throw new IllegalArgumentException("Unknown option " + arg + "; expected one of " + options.keySet());
+            }
+        }
+        String scenario = options.get("scenario");
+        if (!scenario.equals("api") && !scenario.equals("form") && !scenario.equals("home")) {
+            throw new IllegalArgumentException("scenario must be api, form or home");
+        }
+        int concurrency = Integer.parseInt(options.get("concurrency"));
+        long warmupNanos = Long.parseLong(options.get("warmup")) * 1_000_000_000L;
+        long durationNanos = Long.parseLong(options.get("duration")) * 1_000_000_000L;
+
+        try (ConfigurableApplicationContext context = SpringApplication.run(HomePricePredictionApplication.class,
+                appArgs.toArray(new String[0]))) {
+            String port = context.getEnvironment().getProperty("local.server.port");
+            boolean virtual = Runtime.version().feature() >= 21
+                    && context.getEnvironment().getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+            URI base = URI.create("http://localhost:" + port);
+            long heapBefore = usedHeapAfterGc();
+
+            Client[] clients = new Client[concurrency];
+            Thread[] threads = new Thread[concurrency];
+            long start = System.nanoTime() + 1_000_000_000L;
+            long measureFrom = start + warmupNanos;
+            long end = measureFrom + durationNanos;
+            for (int t = 0; t < concurrency; t++) {
+                clients[t] = new Client(base, scenario, new Random(42L + t));
+                Client client = clients[t];
+                threads[t] = new Thread(() -> client.run(start, measureFrom, end), "load-" + t);
+                threads[t].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            report(scenario, concurrency, virtual, clients, durationNanos);
+
+            long retained = usedHeapAfterGc() - heapBefore;
+            MeterRegistry registry = context.getBean(MeterRegistry.class);
+            Gauge sessions = registry.find("tomcat.sessions.active.current").gauge();
+            System.out.printf("sessions: %.0f  heap retained (server and clients): %.1f MB (%.1f KB per user)%n",
+                    sessions != null ? sessions.value() : Double.NaN, retained / 1e6, retained / 1e3 / concurrency);
+            DistributionSummary coalesced = registry.find("homeprice.prediction.coalesced.size").summary();
+            if (coalesced != null && coalesced.count() > 0) {
+                System.out.printf("coalesced passes: %d  rows per pass: mean %.1f  max %.0f%n", coalesced.count(),
+                        coalesced.mean(), coalesced.max());
+            }
+        }
+    }
+
+    private static void report(String scenario, int concurrency, boolean virtual, Client[] clients, long durationNanos) {
+        int total = 0;
+        long errors = 0;
+        for (Client client : clients) {
+            total += client.count;
+            errors += client.errors;
+        }
+        long[] latencies = new long[total];
+        int offset = 0;
+        for (Client client : clients) {
+            System.arraycopy(client.latencies, 0, latencies, offset, client.count);
+            offset += client.count;
+        }
+        Arrays.sort(latencies);
+        System.out.printf("%nscenario=%s concurrency=%d server threads=%s (Java %d)%n", scenario, concurrency,
+                virtual ? "virtual" : "platform", Runtime.version().feature());
+        System.out.printf("requests: %d  errors: %d  throughput: %.0f req/s%n", total, errors,
+                total / (durationNanos / 1e9));
+        if (total > 0) {
+            System.out.printf("latency ms: p50 %.2f  p90 %.2f  p99 %.2f  max %.2f%n", percentile(latencies, 0.5),
+                    percentile(latencies, 0.9), percentile(latencies, 0.99), latencies[total - 1] / 1e6);
+        }
+    }
+
+    private static long usedHeapAfterGc() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)] / 1e6;
+    }
+
+    /** One client thread with its own connection and session cookie; records completed requests. */
+    private static final class Client {
+
+        private final URI base;
+        private final String scenario;
+        private final Random random;
+        private final HttpClient http;
+        private long[] latencies = new long[1024];
+        private int count;
+        private long errors;
+
+        Client(URI base, String scenario, Random random) {
+            this.base = base;
+            this.scenario = scenario;
+            this.random = random;
+            this.http = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .followRedirects(HttpClient.Redirect.NORMAL)
+                    .cookieHandler(new CookieManager())
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+        }
+
+        void run(long start, long measureFrom, long end) {
+            try {
+                Thread.sleep(Math.max(0, (start - System.nanoTime()) / 1_000_000));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            long now;
+            while ((now = System.nanoTime()) < end) {
+                boolean ok;
+                try {
+                    ok = http.send(nextRequest(), HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+                } catch (Exception e) {
+                    ok = false;
+                }
+                long done = System.nanoTime();
+                if (now < measureFrom) {
+                    continue;
+                }
+                if (!ok) {
+                    errors++;
+                } else {
+                    if (count == latencies.length) {
+                        latencies = Arrays.copyOf(latencies, count * 2);
+                    }
+                    latencies[count++] = done - now;
+                }
+            }
+        }
+
+        private HttpRequest nextRequest() {
+            if (scenario.equals("home")) {
+                return HttpRequest.newBuilder(base.resolve("/")).GET().build();
+            }
+            int squareFeet = 500 + 10 * random.nextInt(250);
+            int bhk = 1 + random.nextInt(4);
+            int bathrooms = Math.max(1, bhk - random.nextInt(2));
+            String location = URLEncoder.encode(LOCATIONS[random.nextInt(LOCATIONS.length)], StandardCharsets.UTF_8);
+            String query = "squareFeet=" + squareFeet + "&bhk=" + bhk + "&bathrooms=" + bathrooms + "&location=" + location;
+            if (scenario.equals("form")) {
+                return HttpRequest.newBuilder(base.resolve("/predict"))
+                        .header("Content-Type", "application/x-www-form-urlencoded")
+                        .POST(HttpRequest.BodyPublishers.ofString(query))
+                        .build();
+            }
+            return HttpRequest.newBuilder(base.resolve("/api/v1/predict?" + query)).GET().build();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.homeprice.benchmarks;
+
+import com.homeprice.model.ml.LinearRegression;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fit time of LinearRegression on an in-memory design matrix, sequential vs fork-join
+ * accumulation of X'X and X'y with a given number of threads (0 = sequential).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParallelFitBenchmark {
+
+    @Param({"1000000"})
+    public int rows;
+
+    @Param({"5", "50"})
+    public int columns;
+
+    @Param({"0", "1", "4", "8"})
+    public int threads;
+
+    private double[][] X;
+    private double[] y;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42L);
+        X = new double[rows][columns];
+        y = new double[rows];
+        for (int i = 0; i < rows; i++) {
+            X[i][0] = 1.0;
+            for (int j = 1; j < columns; j++) {
+                X[i][j] = random.nextGaussian();
+            }
+            y[i] = random.nextGaussian();
+        }
+        pool = threads > 0 ? new ForkJoinPool(threads) : null;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    @Benchmark
+    public LinearRegression fit() {
+        LinearRegression model = new LinearRegression();
+        if (pool != null) {
+            model.fit(X, y, pool);
+        } else {
+            model.fit(X, y);
+        }
+        return model;
+    }
+}
@@ -0,0 +1,75 @@
+package com.homeprice.benchmarks;
+
+import com.homeprice.model.ml.LinearRegression;
+import com.homeprice.model.ml.ScoringModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-row scoring: the original path (linear location search, fresh feature array per call)
+ * against {@link ScoringModel} (hash lookup, per-location coefficients). Run with {@code -prof gc}
+ * to compare allocation per call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PredictionBenchmark {
+
+    @Param({"7", "300"})
+    public int locations;
+
+    private LinearRegression model;
+    private ScoringModel scoringModel;
+    private List<String> locationOrder;
+    private String[] queries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        model = LinearRegression.withWeights(new double[]{250_000, 6_500, 150_000, 90_000, -40_000});
+        locationOrder = new ArrayList<>();
+        for (int i = 0; i < locations; i++) {
+            locationOrder.add(SyntheticData.location(i));
+        }
+        scoringModel = ScoringModel.of(model, locationOrder);
+        queries = new String[64];
+        for (int i = 0; i < queries.length; i++) {
+            // Distinct String instances, as if freshly decoded from a request
+            queries[i] = new String(SyntheticData.location((i * 7919) % locations).toCharArray());
+        }
+    }
+
+    private String nextLocation() {
+        next = (next + 1) & (queries.length - 1);
+        return queries[next];
+    }
+
+    @Benchmark
+    public long legacy() {
+        int idx = Math.max(0, locationOrder.indexOf(nextLocation()));
+        double[] features = {1.0, 1200.0, 2, 2, idx};
+        return Math.round(Math.max(0, model.predict(features)));
+    }
+
+    @Benchmark
+    public long scoringModel() {
+        return Math.round(Math.max(0, scoringModel.predict(1200.0, 2, 2, nextLocation())));
+    }
+}
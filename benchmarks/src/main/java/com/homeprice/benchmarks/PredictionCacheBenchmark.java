@@ -0,0 +1,106 @@
+package com.homeprice.benchmarks;
+
+import com.homeprice.model.domain.PricePrediction;
+import com.homeprice.service.HomePriceMetrics;
+import com.homeprice.service.PredictionCache;
+import com.homeprice.service.PredictionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single predictions (price and formatted price) for repetitive, Zipf-distributed inputs, with the
+ * prediction cache off ({@code policy=none}) or using LRU / W-TinyLFU (Caffeine) eviction. The hit
+ * rate of each trial is printed at the end; run with {@code -t 4} to include lock contention between threads.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PredictionCacheBenchmark {
+
+    private static final int QUERIES = 1 << 16;
+
+    @Param({"none", "lru", "tinylfu"})
+    public String policy;
+
+    @Param({"1000"})
+    public int maximumSize;
+
+    /** Distinct (square feet, bhk, bathrooms, location) combinations requests are drawn from. */
+    @Param({"100000"})
+    public int distinctInputs;
+
+    private ServiceFixture fixture;
+    private PredictionCache cache;
+    private PredictionService service;
+    private double[] squareFeet;
+    private int[] bhk;
+    private int[] bathrooms;
+    private String[] location;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        fixture = new ServiceFixture(10_000, 50);
+        cache = "none".equals(policy) ? PredictionCache.disabled() : new PredictionCache(true, maximumSize, policy);
+        service = new PredictionService(fixture.modelTrainer, cache, HomePriceMetrics.none());
+
+        // Zipf(1) over the distinct inputs: a few combinations dominate, as with web form traffic
+        double[] cdf = new double[distinctInputs];
+        double sum = 0;
+        for (int rank = 0; rank < distinctInputs; rank++) {
+            sum += 1.0 / (rank + 1);
+            cdf[rank] = sum;
+        }
+        Random random = new Random(42L);
+        squareFeet = new double[QUERIES];
+        bhk = new int[QUERIES];
+        bathrooms = new int[QUERIES];
+        location = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            int pos = Arrays.binarySearch(cdf, random.nextDouble() * sum);
+            int input = pos >= 0 ? pos : -pos - 1;
+            squareFeet[i] = 400 + input % 3600;
+            bhk[i] = 1 + (input / 3600) % 5;
+            bathrooms[i] = 1 + (input / 18000) % 5;
+            location[i] = SyntheticData.location((input * 31) % 50);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (cache.isEnabled()) {
+            System.out.printf("%n%s cache: hit rate %.3f, %d evictions%n", policy, cache.hitRate(),
+                    cache.evictionCount());
+        }
+        fixture.close();
+    }
+
+    @Benchmark
+    public PricePrediction predict(Cursor cursor) {
+        int i = cursor.next = (cursor.next + 1) & (QUERIES - 1);
+        return service.predict(squareFeet[i], bhk[i], bathrooms[i], location[i]);
+    }
+}
@@ -0,0 +1,42 @@
+package com.homeprice.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.homeprice.service.BatchPredictionService;
+import com.homeprice.service.DatasetLoader;
+import com.homeprice.service.HomePriceMetrics;
+import com.homeprice.service.IterativeTrainer;
+import com.homeprice.service.ModelSnapshotStore;
+import com.homeprice.service.ModelTrainer;
+import com.homeprice.service.PredictionCache;
+import com.homeprice.service.PredictionService;
+import com.homeprice.service.WhatIfSweepService;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * The prediction services wired by hand, trained on a synthetic CSV with default settings.
+ */
+final class ServiceFixture {
+
+    final ModelTrainer modelTrainer;
+    final PredictionService predictionService;
+    final BatchPredictionService batchPredictionService;
+    final WhatIfSweepService whatIfSweepService;
+
+    ServiceFixture(int rows, int locations) throws IOException {
+        Path csv = SyntheticData.writeCsv(rows, locations, 42L);
+        modelTrainer = new ModelTrainer(new DatasetLoader(csv.toString(), 0, false, "none", 0, 1), new ModelSnapshotStore(""),
+                IterativeTrainer.normalEquations(), HomePriceMetrics.none(), false, "cholesky", 0.0, false, 0, false, 30,
+                "ordinal", 1024, 0, 0.001, 1e6, 50, true);
+        modelTrainer.trainModel();
+        predictionService = new PredictionService(modelTrainer, new PredictionCache(true, 10_000, "tinylfu"),
+                HomePriceMetrics.none());
+        batchPredictionService = new BatchPredictionService(predictionService, new ObjectMapper(), HomePriceMetrics.none());
+        whatIfSweepService = new WhatIfSweepService(predictionService, HomePriceMetrics.none(), 100_000_000L);
+    }
+
+    void close() {
+        modelTrainer.shutdown();
+    }
+}
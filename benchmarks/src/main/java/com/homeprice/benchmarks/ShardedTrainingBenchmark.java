@@ -0,0 +1,70 @@
+package com.homeprice.benchmarks;
+
+import com.homeprice.service.DatasetLoader;
+import com.homeprice.service.HomePriceMetrics;
+import com.homeprice.service.IterativeTrainer;
+import com.homeprice.service.ModelBundle;
+import com.homeprice.service.ModelSnapshotStore;
+import com.homeprice.service.ModelTrainer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wall-clock of a full training run (load, split, fit, evaluate) with one global model vs one
+ * model per location, as the number of training threads and locations grows.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ShardedTrainingBenchmark {
+
+    @Param({"1000000"})
+    public int rows;
+
+    @Param({"7", "300"})
+    public int locations;
+
+    @Param({"false", "true"})
+    public boolean sharded;
+
+    @Param({"1", "4", "8"})
+    public int threads;
+
+    private ModelTrainer trainer;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Path csv = SyntheticData.writeCsv(rows, locations, 42L);
+        trainer = new ModelTrainer(new DatasetLoader(csv.toString(), threads, false, "none", 0, 1), new ModelSnapshotStore(""),
+                IterativeTrainer.normalEquations(), HomePriceMetrics.none(), false, "cholesky", 0.0, true, threads, sharded, 30,
+                "ordinal", 1024, 0, 0.001, 1e6, 50, false);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        trainer.shutdown();
+    }
+
+    @Benchmark
+    public ModelBundle train() throws IOException {
+        return trainer.train();
+    }
+}
@@ -0,0 +1,77 @@
+package com.homeprice.benchmarks;
+
+import com.homeprice.model.ml.NormalEquations;
+import com.homeprice.model.ml.Solver;
+import com.homeprice.model.ml.SolverType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Solve time of the normal equations (X'X) w = X'y per solver as the number of columns grows.
+ * Every solver, QR included, factors X'X, so this compares cost, not numerical stability: QR's
+ * column pivoting handles collinear columns, but its accuracy is bounded by cond(X'X) like Cholesky's.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SolverBenchmark {
+
+    @Param({"5", "50", "100", "200", "400"})
+    public int columns;
+
+    @Param({"gauss-jordan", "cholesky", "qr"})
+    public String solver;
+
+    private Solver impl;
+    private double[] gram;
+    private double[] xty;
+    private double[] a;
+    private double[] b;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        impl = SolverType.fromName(solver).create(0.0);
+        Random random = new Random(42L);
+        NormalEquations stats = new NormalEquations(columns);
+        double[] x = new double[columns];
+        for (int row = 0; row < 2 * columns + 100; row++) {
+            x[0] = 1.0;
+            for (int j = 1; j < columns; j++) {
+                x[j] = random.nextGaussian();
+            }
+            stats.add(x, random.nextGaussian());
+        }
+        gram = stats.gram();
+        xty = stats.xty();
+        a = new double[gram.length];
+        b = new double[xty.length];
+    }
+
+    @Setup(Level.Invocation)
+    public void reset() {
+        // Solvers work in place, so every invocation starts from a fresh copy
+        System.arraycopy(gram, 0, a, 0, gram.length);
+        System.arraycopy(xty, 0, b, 0, xty.length);
+    }
+
+    @Benchmark
+    public double[] solve() {
+        return impl.solve(a, b, columns);
+    }
+}
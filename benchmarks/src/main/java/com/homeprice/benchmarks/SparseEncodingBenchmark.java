@@ -0,0 +1,94 @@
+package com.homeprice.benchmarks;
+
+import com.homeprice.model.domain.PropertyDataset;
+import com.homeprice.model.domain.PropertyFeatureEncoder;
+import com.homeprice.model.ml.LinearRegression;
+import com.homeprice.model.ml.SolverType;
+import com.homeprice.model.ml.SparseMatrix;
+import com.homeprice.model.ml.SparseNormalEquations;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sparse location encodings: encode + X'X accumulation + conjugate-gradient solve, and CSR predict,
+ * for one-hot vs hashed locations as the number of locations grows. Cost should follow the
+ * number of nonzeros (at most 5 per row), not the number of locations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SparseEncodingBenchmark {
+
+    @Param({"1000000"})
+    public int rows;
+
+    @Param({"50", "5000"})
+    public int locations;
+
+    @Param({"one-hot", "hashed"})
+    public String encoding;
+
+    private PropertyDataset dataset;
+    private int[] allRows;
+    private PropertyFeatureEncoder encoder;
+    private SparseMatrix matrix;
+    private LinearRegression model;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42L);
+        dataset = new PropertyDataset(rows);
+        for (int i = 0; i < rows; i++) {
+            int sqft = 400 + random.nextInt(3600);
+            int bhk = 1 + random.nextInt(5);
+            int bath = Math.max(1, bhk - random.nextInt(2));
+            int loc = random.nextInt(locations);
+            dataset.add(sqft, bhk, bath, loc, sqft * (4000 + 500.0 * loc) + bhk * 250_000 + random.nextGaussian() * 500_000);
+        }
+        List<String> names = new ArrayList<>(locations);
+        for (int loc = 0; loc < locations; loc++) {
+            names.add(SyntheticData.location(loc));
+        }
+        allRows = new int[rows];
+        for (int i = 0; i < rows; i++) {
+            allRows[i] = i;
+        }
+        encoder = "hashed".equals(encoding)
+                ? PropertyFeatureEncoder.hashed(names, Math.max(16, locations / 4))
+                : PropertyFeatureEncoder.oneHot(locations);
+        matrix = encoder.encode(dataset, allRows);
+        model = fit();
+    }
+
+    @Benchmark
+    public LinearRegression fit() {
+        SparseNormalEquations stats = new SparseNormalEquations();
+        stats.addAll(encoder.encode(dataset, allRows));
+        LinearRegression fitted = new LinearRegression(SolverType.CHOLESKY.create(0.0));
+        fitted.fit(stats, encoder.columns(), 1e-6);
+        return fitted;
+    }
+
+    @Benchmark
+    public double[] predict() {
+        return model.predict(matrix);
+    }
+}
@@ -0,0 +1,93 @@
+package com.homeprice.benchmarks;
+
+import com.homeprice.model.domain.SweepGrid;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A what-if grid of {@code points} (1000 square-feet values x 4 BHK x 5 bathrooms x locations):
+ * {@code sweep} is {@code WhatIfSweepService} streaming the CSV to a null stream; {@code pointwise}
+ * scores each point with {@code PredictionService.predictPriceInr}, as one question per call would, and
+ * writes the same CSV through a buffered {@link Writer}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SweepBenchmark {
+
+    private static final int SQUARE_FEET_POINTS = 1000;
+    private static final int BHK = 4;
+    private static final int BATHROOMS = 5;
+
+    @Param({"100000", "1000000"})
+    public int points;
+
+    @Param({"sweep", "pointwise"})
+    public String mode;
+
+    private ServiceFixture fixture;
+    private SweepGrid grid;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        int locations = points / (SQUARE_FEET_POINTS * BHK * BATHROOMS);
+        fixture = new ServiceFixture(100_000, locations);
+        List<String> names = fixture.modelTrainer.getBundle().getScoringModel().getLocations();
+        grid = new SweepGrid(500, 500 + 5 * (SQUARE_FEET_POINTS - 1), 5, 1, BHK, 1, BATHROOMS, names);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public long sweep() throws IOException {
+        if (mode.equals("sweep")) {
+            return fixture.whatIfSweepService.sweep(grid, OutputStream.nullOutputStream());
+        }
+        Writer out = new BufferedWriter(new OutputStreamWriter(OutputStream.nullOutputStream(), StandardCharsets.UTF_8),
+                1 << 16);
+        out.write("location,square_feet,bhk,bathrooms,price_inr\n");
+        long count = 0;
+        for (String location : grid.getLocations()) {
+            for (int bhk = grid.getBhkMin(); bhk <= grid.getBhkMax(); bhk++) {
+                for (int bathrooms = grid.getBathroomsMin(); bathrooms <= grid.getBathroomsMax(); bathrooms++) {
+                    for (int i = 0; i < grid.squareFeetPoints(); i++) {
+                        double squareFeet = grid.squareFeet(i);
+                        long price = fixture.predictionService.predictPriceInr(squareFeet, bhk, bathrooms, location);
+                        out.append(location).append(',').append(Long.toString((long) squareFeet)).append(',')
+                                .append(Integer.toString(bhk)).append(',').append(Integer.toString(bathrooms))
+                                .append(',').append(Long.toString(price)).append('\n');
+                        count++;
+                    }
+                }
+            }
+        }
+        out.flush();
+        return count;
+    }
+}
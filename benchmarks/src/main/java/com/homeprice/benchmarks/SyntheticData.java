@@ -0,0 +1,108 @@
+package com.homeprice.benchmarks;
+
+import com.homeprice.model.domain.PropertyDataset;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic listings shaped like the real dataset, for benchmarks.
+ */
+final class SyntheticData {
+
+    static final String HEADER = "square_feet,bhk,bathrooms,location,price_inr";
+
+    private SyntheticData() {
+    }
+
+    static String location(int index) {
+        return "Location " + index;
+    }
+
+    /**
+     * CSV with the dataset's columns in the temp directory. Files are named after their
+     * parameters and reused across trials and runs, since multi-GB inputs take minutes to write.
+     */
+    static Path writeCsv(int rows, int locations, long seed) throws IOException {
+        Path file = Path.of(System.getProperty("java.io.tmpdir"),
+                "homeprice-bench-" + rows + "-" + locations + "-" + seed + ".csv");
+        if (Files.exists(file)) {
+            return file;
+        }
+        Path partial = Files.createTempFile(file.getParent(), "homeprice-bench-", ".partial");
+        Random random = new Random(seed);
+        try (BufferedWriter out = Files.newBufferedWriter(partial, StandardCharsets.UTF_8)) {
+            out.write(HEADER);
+            out.newLine();
+            StringBuilder line = new StringBuilder(64);
+            for (int i = 0; i < rows; i++) {
+                int sqft = 400 + random.nextInt(3600);
+                int bhk = 1 + random.nextInt(5);
+                int bath = Math.max(1, bhk - random.nextInt(2));
+                int loc = random.nextInt(locations);
+                long price = Math.round(sqft * (4000 + 500.0 * loc) + bhk * 250_000 + random.nextGaussian() * 500_000);
+                line.setLength(0);
+                line.append(sqft).append(',').append(bhk).append(',').append(bath).append(',')
+                        .append(location(loc)).append(',').append(Math.max(price, 100_000));
+                out.write(line.toString());
+                out.newLine();
+            }
+        }
+        return Files.move(partial, file, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * The same listings as {@link #writeCsv}, built in memory without parsing.
+     */
+    static PropertyDataset dataset(int rows, int locations, long seed) {
+        Random random = new Random(seed);
+        PropertyDataset dataset = new PropertyDataset(rows);
+        for (int i = 0; i < rows; i++) {
+            int sqft = 400 + random.nextInt(3600);
+            int bhk = 1 + random.nextInt(5);
+            int bath = Math.max(1, bhk - random.nextInt(2));
+            int loc = random.nextInt(locations);
+            long price = Math.round(sqft * (4000 + 500.0 * loc) + bhk * 250_000 + random.nextGaussian() * 500_000);
+            dataset.add(sqft, bhk, bath, loc, Math.max(price, 100_000));
+        }
+        List<String> names = new ArrayList<>(locations);
+        for (int l = 0; l < locations; l++) {
+            names.add(location(l));
+        }
+        dataset.setLocations(names);
+        return dataset;
+    }
+
+    /**
+     * Row-major design matrix of the given width: an intercept column followed by Gaussian
+     * features, with a linear target plus noise.
+     */
+    static FlatDesignMatrix designMatrix(int rows, int columns, long seed) {
+        Random random = new Random(seed);
+        double[] beta = new double[columns];
+        for (int j = 0; j < columns; j++) {
+            beta[j] = random.nextGaussian();
+        }
+        double[] x = new double[Math.multiplyExact(rows, columns)];
+        double[] y = new double[rows];
+        for (int i = 0; i < rows; i++) {
+            int base = i * columns;
+            x[base] = 1.0;
+            double target = beta[0];
+            for (int j = 1; j < columns; j++) {
+                double v = random.nextGaussian();
+                x[base + j] = v;
+                target += beta[j] * v;
+            }
+            y[i] = target + random.nextGaussian();
+        }
+        return new FlatDesignMatrix(x, y, columns);
+    }
+}
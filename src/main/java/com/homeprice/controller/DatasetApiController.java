@@ -0,0 +1,41 @@
+package com.homeprice.controller;
+
+import com.homeprice.model.domain.DatasetProfile;
+import com.homeprice.service.DatasetLoader;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.NoSuchElementException;
+
+/**
+ * JSON API describing the training data as last loaded.
+ */
+@RestController
+@RequestMapping("/api/v1/dataset")
+public class DatasetApiController {
+
+    private final DatasetLoader datasetLoader;
+
+    public DatasetApiController(DatasetLoader datasetLoader) {
+        this.datasetLoader = datasetLoader;
+    }
+
+    /**
+     * Quantiles of price and price per square foot, per-location statistics and the outlier stage's
+     * band and count, from the most recent dataset load, e.g. GET /api/v1/dataset/profile.
+     * 404 if profiling is disabled, 503 if no dataset has been loaded yet.
+     */
+    @GetMapping("/profile")
+    public DatasetProfile profile() {
+        if (!datasetLoader.isProfiling()) {
+            throw new NoSuchElementException(
+                    "Dataset profiling is disabled; set homeprice.dataset.profile.enabled=true to enable it");
+        }
+        DatasetProfile profile = datasetLoader.getProfile();
+        if (profile == null) {
+            throw new IllegalStateException("No dataset loaded yet");
+        }
+        return profile;
+    }
+}
@@ -1,69 +1,128 @@
 package com.homeprice.controller;
 
+import com.homeprice.model.domain.PricePrediction;
 import com.homeprice.model.domain.PropertyInput;
+import com.homeprice.model.domain.ResultMode;
 import com.homeprice.service.ModelTrainer;
 import com.homeprice.service.PredictionService;
+import com.homeprice.service.ResultTokenSigner;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+import org.springframework.web.util.HtmlUtils;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * MVC Controller for home page and prediction form.
+ * How the result page is delivered is set by homeprice.ui.result-mode (see {@link ResultMode}).
+ * The home page's location options are rendered once per model version, not per request.
  */
 @Controller
 @RequestMapping("/")
 public class HomeController {
 
+    private static final List<String> DEFAULT_LOCATIONS =
+            List.of("Mumbai", "Delhi", "Bangalore", "Hyderabad", "Chennai", "Pune", "Kolkata");
+
     private final ModelTrainer modelTrainer;
     private final PredictionService predictionService;
+    private final ResultTokenSigner tokenSigner;
+    private final ResultMode resultMode;
+    private final AtomicReference<LocationOptions> locationOptions = new AtomicReference<>();
 
-    public HomeController(ModelTrainer modelTrainer, PredictionService predictionService) {
+    public HomeController(ModelTrainer modelTrainer, PredictionService predictionService,
+                          ResultTokenSigner tokenSigner,
+                          @Value("${homeprice.ui.result-mode:flash}") String resultMode) {
         this.modelTrainer = modelTrainer;
         this.predictionService = predictionService;
+        this.tokenSigner = tokenSigner;
+        this.resultMode = ResultMode.fromName(resultMode);
     }
 
     @GetMapping(value = {"", "/"})
     public String home(Model model) {
         model.addAttribute("propertyInput", new PropertyInput());
-        List<String> locations = modelTrainer.getLocationOrder();
-        if (locations.isEmpty()) {
-            locations = List.of("Mumbai", "Delhi", "Bangalore", "Hyderabad", "Chennai", "Pune", "Kolkata");
-        }
-        model.addAttribute("locations", locations);
+        model.addAttribute("locations", locations());
+        model.addAttribute("locationOptions", locationOptions());
         return "index";
     }
 
     @PostMapping("/predict")
     public String predict(@Valid PropertyInput propertyInput, BindingResult bindingResult,
                           Model model, RedirectAttributes redirectAttributes) {
-        List<String> locations = modelTrainer.getLocationOrder();
-        if (locations.isEmpty()) {
-            locations = List.of("Mumbai", "Delhi", "Bangalore", "Hyderabad", "Chennai", "Pune", "Kolkata");
-        }
-        model.addAttribute("locations", locations);
+        model.addAttribute("locations", locations());
 
         if (bindingResult.hasErrors()) {
             model.addAttribute("propertyInput", propertyInput);
             return "index";
         }
 
-        long predictedPrice = predictionService.predictPriceInr(propertyInput);
-        String formattedPrice = predictionService.formatPriceInr(predictedPrice);
-        redirectAttributes.addFlashAttribute("predictedPrice", predictedPrice);
-        redirectAttributes.addFlashAttribute("formattedPrice", formattedPrice);
+        PricePrediction prediction = predictionService.predict(propertyInput);
+        if (resultMode == ResultMode.INLINE) {
+            model.addAttribute("predictedPrice", prediction.getPriceInr());
+            model.addAttribute("formattedPrice", prediction.getFormattedPrice());
+            return "result";
+        }
+        if (resultMode == ResultMode.TOKEN) {
+            return "redirect:/result?t=" + tokenSigner.sign(prediction.getPriceInr());
+        }
+        redirectAttributes.addFlashAttribute("predictedPrice", prediction.getPriceInr());
+        redirectAttributes.addFlashAttribute("formattedPrice", prediction.getFormattedPrice());
         redirectAttributes.addFlashAttribute("propertyInput", propertyInput);
         return "redirect:/result";
     }
 
+    private List<String> locations() {
+        List<String> locations = modelTrainer.getLocationOrder();
+        return locations.isEmpty() ? DEFAULT_LOCATIONS : locations;
+    }
+
+    /**
+     * The &lt;option&gt; elements for an empty form. Each model version has its own immutable location
+     * list, so the list's identity tells when to render again.
+     */
+    private String locationOptions() {
+        List<String> locations = locations();
+        LocationOptions cached = locationOptions.get();
+        if (cached != null && cached.locations() == locations) {
+            return cached.html();
+        }
+        StringBuilder html = new StringBuilder(locations.size() * 48);
+        for (String location : locations) {
+            String escaped = HtmlUtils.htmlEscape(location);
+            html.append("<option value=\"").append(escaped).append("\">").append(escaped).append("</option>");
+        }
+        LocationOptions rendered = new LocationOptions(locations, html.toString());
+        locationOptions.set(rendered);
+        return rendered.html();
+    }
+
+    private record LocationOptions(List<String> locations, String html) {
+    }
+
+    /**
+     * Result page, from a signed token (?t=...) or from flash attributes; anything else goes back to the form.
+     */
     @GetMapping("/result")
-    public String result(Model model) {
+    public String result(@RequestParam(name = "t", required = false) String token, Model model) {
+        if (token != null) {
+            long price = tokenSigner.verify(token);
+            if (price < 0) {
+                return "redirect:/";
+            }
+            model.addAttribute("predictedPrice", price);
+            model.addAttribute("formattedPrice", predictionService.formatPriceInr(price));
+            return "result";
+        }
         if (!model.containsAttribute("formattedPrice")) {
             return "redirect:/";
         }
@@ -0,0 +1,116 @@
+package com.homeprice.controller;
+
+import com.homeprice.model.domain.ComparablesResult;
+import com.homeprice.model.domain.PricePrediction;
+import com.homeprice.model.domain.SweepGrid;
+import com.homeprice.service.BatchPredictionService;
+import com.homeprice.service.ModelTrainer;
+import com.homeprice.service.PredictionBatcher;
+import com.homeprice.service.PredictionService;
+import com.homeprice.service.WhatIfSweepService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * JSON API for programmatic scoring. Stateless: no session, no redirects.
+ */
+@RestController
+@RequestMapping("/api/v1")
+public class PredictionApiController {
+
+    private final ModelTrainer modelTrainer;
+    private final PredictionService predictionService;
+    private final BatchPredictionService batchPredictionService;
+    private final PredictionBatcher predictionBatcher;
+    private final WhatIfSweepService whatIfSweepService;
+
+    public PredictionApiController(ModelTrainer modelTrainer, PredictionService predictionService,
+                                   BatchPredictionService batchPredictionService,
+                                   PredictionBatcher predictionBatcher, WhatIfSweepService whatIfSweepService) {
+        this.modelTrainer = modelTrainer;
+        this.predictionService = predictionService;
+        this.batchPredictionService = batchPredictionService;
+        this.predictionBatcher = predictionBatcher;
+        this.whatIfSweepService = whatIfSweepService;
+    }
+
+    /**
+     * Score a single listing, e.g. GET /api/v1/predict?squareFeet=1200&amp;bhk=2&amp;bathrooms=2&amp;location=Mumbai
+     * (coalesced with concurrent requests when homeprice.batching.enabled=true)
+     */
+    @GetMapping("/predict")
+    public PricePrediction predict(@RequestParam double squareFeet, @RequestParam int bhk,
+                                   @RequestParam int bathrooms, @RequestParam String location) {
+        String error = PredictionService.validationError(squareFeet, bhk, bathrooms, location);
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
+        return predictionBatcher.predict(squareFeet, bhk, bathrooms, location.trim());
+    }
+
+    /**
+     * The estimate plus up to k (1-100) nearest training listings in the same location, e.g.
+     * GET /api/v1/comparables?squareFeet=1200&amp;bhk=2&amp;bathrooms=2&amp;location=Mumbai&amp;k=5
+     */
+    @GetMapping("/comparables")
+    public ComparablesResult comparables(@RequestParam double squareFeet, @RequestParam int bhk,
+                                         @RequestParam int bathrooms, @RequestParam String location,
+                                         @RequestParam(defaultValue = "10") int k) {
+        String error = PredictionService.validationError(squareFeet, bhk, bathrooms, location);
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
+        if (k < 1 || k > 100) {
+            throw new IllegalArgumentException("k must be between 1 and 100");
+        }
+        return predictionService.comparables(squareFeet, bhk, bathrooms, location.trim(), k);
+    }
+
+    /**
+     * Score every combination of the ranges and locations (all locations if none are given) and stream
+     * it back as CSV, e.g. GET /api/v1/sweep?squareFeetMin=1000&amp;squareFeetMax=2000&amp;squareFeetStep=100
+     * &amp;bhkMin=1&amp;bhkMax=4&amp;bathroomsMin=1&amp;bathroomsMax=3&amp;locations=Mumbai,Pune
+     */
+    @GetMapping("/sweep")
+    public void sweep(@RequestParam double squareFeetMin, @RequestParam double squareFeetMax,
+                      @RequestParam(defaultValue = "100") double squareFeetStep,
+                      @RequestParam int bhkMin, @RequestParam int bhkMax,
+                      @RequestParam int bathroomsMin, @RequestParam int bathroomsMax,
+                      @RequestParam(required = false) List<String> locations,
+                      HttpServletResponse response) throws IOException {
+        List<String> names = locations == null ? List.of()
+                : locations.stream().map(String::trim).filter(name -> !name.isEmpty()).toList();
+        SweepGrid grid = new SweepGrid(squareFeetMin, squareFeetMax, squareFeetStep, bhkMin, bhkMax,
+                bathroomsMin, bathroomsMax, names);
+        response.setContentType("text/csv");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        whatIfSweepService.sweep(grid, response.getOutputStream());
+    }
+
+    /**
+     * Score many listings in one request. Body: a JSON array of
+     * {"squareFeet":..,"bhk":..,"bathrooms":..,"location":".."} objects, or the same objects as
+     * NDJSON. Results stream back in input order, in the same format as the request.
+     */
+    @PostMapping(value = "/predict/batch",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public void predictBatch(@RequestHeader("Content-Type") String contentType, InputStream body,
+                             HttpServletResponse response) throws IOException {
+        modelTrainer.getModel(); // fail with 503 before the response is committed
+        boolean ndjson = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.APPLICATION_NDJSON);
+        response.setContentType(ndjson ? MediaType.APPLICATION_NDJSON_VALUE : MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        batchPredictionService.predict(body, response.getOutputStream(), ndjson);
+    }
+}
@@ -0,0 +1,56 @@
+package com.homeprice.exception;
+
+import com.homeprice.controller.DatasetApiController;
+import com.homeprice.controller.PredictionApiController;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.ServletRequestBindingException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Exception handling for the JSON API: same status codes as {@link GlobalExceptionHandler},
+ * but with a JSON error body instead of the error page. A NoSuchElementException (a resource that is
+ * switched off, such as the dataset profile) is a 404 with its message.
+ */
+@RestControllerAdvice(assignableTypes = {PredictionApiController.class, DatasetApiController.class})
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ApiExceptionHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(ApiExceptionHandler.class);
+
+    @ExceptionHandler(IllegalStateException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public Map<String, String> handleIllegalState(IllegalStateException e) {
+        log.warn("Service unavailable: {}", e.getMessage());
+        return Map.of("error", "Prediction service is not ready. Please try again later.");
+    }
+
+    @ExceptionHandler(NoSuchElementException.class)
+    @ResponseStatus(HttpStatus.NOT_FOUND)
+    public Map<String, String> handleNotFound(NoSuchElementException e) {
+        return Map.of("error", e.getMessage() != null ? e.getMessage() : "Not found.");
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, String> handleIllegalArgument(IllegalArgumentException e) {
+        log.warn("Bad request: {}", e.getMessage());
+        return Map.of("error", e.getMessage() != null ? e.getMessage() : "Invalid request.");
+    }
+
+    @ExceptionHandler({ServletRequestBindingException.class, TypeMismatchException.class})
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, String> handleBadParameter(Exception e) {
+        log.warn("Bad request: {}", e.getMessage());
+        return Map.of("error", "Missing or invalid parameter: squareFeet, bhk, bathrooms and location are required.");
+    }
+}
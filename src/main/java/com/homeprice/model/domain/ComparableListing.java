@@ -0,0 +1,42 @@
+package com.homeprice.model.domain;
+
+/**
+ * One training listing similar to a query, with its distance in standard deviations of
+ * (square feet, bhk, bathrooms).
+ */
+public class ComparableListing {
+
+    private final double squareFeet;
+    private final int bhk;
+    private final int bathrooms;
+    private final long priceInr;
+    private final double distance;
+
+    public ComparableListing(double squareFeet, int bhk, int bathrooms, long priceInr, double distance) {
+        this.squareFeet = squareFeet;
+        this.bhk = bhk;
+        this.bathrooms = bathrooms;
+        this.priceInr = priceInr;
+        this.distance = distance;
+    }
+
+    public double getSquareFeet() {
+        return squareFeet;
+    }
+
+    public int getBhk() {
+        return bhk;
+    }
+
+    public int getBathrooms() {
+        return bathrooms;
+    }
+
+    public long getPriceInr() {
+        return priceInr;
+    }
+
+    public double getDistance() {
+        return distance;
+    }
+}
@@ -0,0 +1,334 @@
+package com.homeprice.model.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * k-nearest-neighbour index of listings over (square feet, bhk, bathrooms), partitioned by location.
+ * Distances are Euclidean after scaling each dimension to unit standard deviation, so a bedroom and a
+ * few hundred square feet weigh about the same.
+ * <p>
+ * Each location's listings occupy one contiguous range of flat arrays, arranged as an implicit,
+ * balanced KD-tree: the node of range [lo, hi) is its median element at (lo + hi) / 2, split on the
+ * dimension with the largest scaled spread, with the left half below and the right half above it.
+ * No node objects or pointers are stored; ranges of at most {@value #LEAF_SIZE} listings are scanned.
+ * Memory is 21 bytes per listing. The index is immutable once built and safe to query concurrently.
+ */
+public final class ComparablesIndex {
+
+    private static final int DIMENSIONS = 3;
+    private static final int LEAF_SIZE = 8;
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    private final float[] coordinates; // DIMENSIONS per listing, in tree order
+    private final double[] prices;
+    private final byte[] splitDimensions; // at each node's median position
+    private final int[] locationStart; // listings of location l: [locationStart[l], locationStart[l + 1])
+    private final double[] weights; // 1 / variance per dimension
+
+    private ComparablesIndex(float[] coordinates, double[] prices, int[] locationStart, double[] weights) {
+        this.coordinates = coordinates;
+        this.prices = prices;
+        this.splitDimensions = new byte[prices.length];
+        this.locationStart = locationStart;
+        this.weights = weights;
+    }
+
+    /**
+     * Index the given rows of a dataset (all rows if rows is null), building the per-location trees
+     * on the pool (the common pool if null).
+     */
+    public static ComparablesIndex build(PropertyDataset dataset, int[] rows, ForkJoinPool pool) {
+        int n = rows != null ? rows.length : dataset.size();
+        int locations = dataset.getLocations().size();
+        for (int i = 0; i < n; i++) {
+            locations = Math.max(locations, dataset.getLocationIndex(row(rows, i)) + 1);
+        }
+
+        // Counting sort by location, and per-dimension moments for the scaling
+        int[] locationStart = new int[locations + 1];
+        double[] sum = new double[DIMENSIONS];
+        double[] sumSquares = new double[DIMENSIONS];
+        for (int i = 0; i < n; i++) {
+            int r = row(rows, i);
+            locationStart[dataset.getLocationIndex(r) + 1]++;
+            accumulate(sum, sumSquares, 0, dataset.getSquareFeet(r));
+            accumulate(sum, sumSquares, 1, dataset.getBhk(r));
+            accumulate(sum, sumSquares, 2, dataset.getBathrooms(r));
+        }
+        for (int l = 0; l < locations; l++) {
+            locationStart[l + 1] += locationStart[l];
+        }
+        double[] weights = new double[DIMENSIONS];
+        for (int d = 0; d < DIMENSIONS; d++) {
+            double mean = n > 0 ? sum[d] / n : 0;
+            double variance = n > 0 ? sumSquares[d] / n - mean * mean : 0;
+            weights[d] = variance > 1e-12 ? 1 / variance : 1;
+        }
+        float[] coordinates = new float[n * DIMENSIONS];
+        double[] prices = new double[n];
+        int[] next = locationStart.clone();
+        for (int i = 0; i < n; i++) {
+            int r = row(rows, i);
+            int at = next[dataset.getLocationIndex(r)]++;
+            coordinates[at * DIMENSIONS] = (float) dataset.getSquareFeet(r);
+            coordinates[at * DIMENSIONS + 1] = dataset.getBhk(r);
+            coordinates[at * DIMENSIONS + 2] = dataset.getBathrooms(r);
+            prices[at] = dataset.getPriceInr(r);
+        }
+
+        ComparablesIndex index = new ComparablesIndex(coordinates, prices, locationStart, weights);
+        ForkJoinPool executor = pool != null ? pool : ForkJoinPool.commonPool();
+        List<ForkJoinTask<Void>> tasks = new ArrayList<>(locations);
+        for (int l = 0; l < locations; l++) {
+            if (locationStart[l + 1] > locationStart[l]) {
+                tasks.add(executor.submit(index.new BuildTask(locationStart[l], locationStart[l + 1])));
+            }
+        }
+        for (ForkJoinTask<Void> task : tasks) {
+            task.join();
+        }
+        return index;
+    }
+
+    private static void accumulate(double[] sum, double[] sumSquares, int d, double value) {
+        sum[d] += value;
+        sumSquares[d] += value * value;
+    }
+
+    private static int row(int[] rows, int i) {
+        return rows != null ? rows[i] : i;
+    }
+
+    public int size() {
+        return prices.length;
+    }
+
+    /**
+     * Listings indexed for a location.
+     */
+    public int size(int locationIndex) {
+        if (locationIndex < 0 || locationIndex + 1 >= locationStart.length) {
+            return 0;
+        }
+        return locationStart[locationIndex + 1] - locationStart[locationIndex];
+    }
+
+    /**
+     * The k listings of the location closest to the query, nearest first (fewer if the location
+     * has fewer listings).
+     */
+    public List<ComparableListing> nearest(double squareFeet, int bhk, int bathrooms, int locationIndex, int k) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("Number of comparables must be positive");
+        }
+        if (size(locationIndex) == 0) {
+            return List.of();
+        }
+        Search search = new Search(new double[]{squareFeet, bhk, bathrooms}, Math.min(k, size(locationIndex)));
+        search.visit(locationStart[locationIndex], locationStart[locationIndex + 1]);
+        return search.results();
+    }
+
+    private double distance(int i, double[] query) {
+        int base = i * DIMENSIONS;
+        double sum = 0;
+        for (int d = 0; d < DIMENSIONS; d++) {
+            double diff = query[d] - coordinates[base + d];
+            sum += weights[d] * diff * diff;
+        }
+        return sum;
+    }
+
+    /** Bounded max-heap of the best candidates found so far. */
+    private final class Search {
+
+        private final double[] query;
+        private final double[] heapDistance;
+        private final int[] heapListing;
+        private int size;
+
+        Search(double[] query, int k) {
+            this.query = query;
+            this.heapDistance = new double[k];
+            this.heapListing = new int[k];
+        }
+
+        void visit(int lo, int hi) {
+            if (hi - lo <= LEAF_SIZE) {
+                for (int i = lo; i < hi; i++) {
+                    offer(i, distance(i, query));
+                }
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            offer(mid, distance(mid, query));
+            int d = splitDimensions[mid];
+            double diff = query[d] - coordinates[mid * DIMENSIONS + d];
+            boolean left = diff < 0;
+            if (left) {
+                visit(lo, mid);
+            } else {
+                visit(mid + 1, hi);
+            }
+            if (size < heapDistance.length || weights[d] * diff * diff < heapDistance[0]) {
+                if (left) {
+                    visit(mid + 1, hi);
+                } else {
+                    visit(lo, mid);
+                }
+            }
+        }
+
+        private void offer(int listing, double distance) {
+            if (size < heapDistance.length) {
+                int i = size++;
+                while (i > 0) {
+                    int parent = (i - 1) >>> 1;
+                    if (heapDistance[parent] >= distance) break;
+                    heapDistance[i] = heapDistance[parent];
+                    heapListing[i] = heapListing[parent];
+                    i = parent;
+                }
+                heapDistance[i] = distance;
+                heapListing[i] = listing;
+            } else if (distance < heapDistance[0]) {
+                siftDown(listing, distance); // replaces the current worst
+            }
+        }
+
+        List<ComparableListing> results() {
+            ComparableListing[] sorted = new ComparableListing[size];
+            // Pop the max-heap from the back, so the nearest listing comes first
+            for (int end = size - 1; end >= 0; end--) {
+                sorted[end] = listing(heapListing[0], Math.sqrt(heapDistance[0]));
+                size = end;
+                if (end > 0) {
+                    siftDown(heapListing[end], heapDistance[end]);
+                }
+            }
+            return List.of(sorted);
+        }
+
+        /** Put a candidate at the root and restore the heap order. */
+        private void siftDown(int listing, double distance) {
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) break;
+                if (child + 1 < size && heapDistance[child + 1] > heapDistance[child]) child++;
+                if (heapDistance[child] <= distance) break;
+                heapDistance[i] = heapDistance[child];
+                heapListing[i] = heapListing[child];
+                i = child;
+            }
+            heapDistance[i] = distance;
+            heapListing[i] = listing;
+        }
+    }
+
+    private ComparableListing listing(int i, double distance) {
+        int base = i * DIMENSIONS;
+        return new ComparableListing(coordinates[base], (int) coordinates[base + 1], (int) coordinates[base + 2],
+                Math.round(prices[i]), distance);
+    }
+
+    /** Arranges the listings in [lo, hi) into a KD-tree, forking large subtrees. */
+    @SuppressWarnings("serial") // never serialized
+    private final class BuildTask extends RecursiveAction {
+
+        private final int lo;
+        private final int hi;
+
+        BuildTask(int lo, int hi) {
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            build(lo, hi);
+        }
+
+        private void build(int from, int to) {
+            while (to - from > LEAF_SIZE) {
+                int mid = (from + to) >>> 1;
+                int d = widestDimension(from, to);
+                select(from, to - 1, mid, d);
+                splitDimensions[mid] = (byte) d;
+                if (to - from > PARALLEL_THRESHOLD) {
+                    invokeAll(new BuildTask(from, mid), new BuildTask(mid + 1, to));
+                    return;
+                }
+                build(from, mid);
+                from = mid + 1;
+            }
+        }
+    }
+
+    private int widestDimension(int from, int to) {
+        int best = 0;
+        double bestSpread = -1;
+        for (int d = 0; d < DIMENSIONS; d++) {
+            float min = Float.POSITIVE_INFINITY;
+            float max = Float.NEGATIVE_INFINITY;
+            for (int i = from; i < to; i++) {
+                float v = coordinates[i * DIMENSIONS + d];
+                if (v < min) min = v;
+                if (v > max) max = v;
+            }
+            double spread = (max - min) * (double) (max - min) * weights[d];
+            if (spread > bestSpread) {
+                bestSpread = spread;
+                best = d;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Quickselect on dimension d within [lo, hi] (inclusive): afterwards position k holds the value
+     * it would have if the range were sorted, with no larger value before it and no smaller one after.
+     */
+    private void select(int lo, int hi, int k, int d) {
+        while (hi > lo) {
+            int mid = (lo + hi) >>> 1;
+            float a = coordinates[lo * DIMENSIONS + d];
+            float b = coordinates[mid * DIMENSIONS + d];
+            float c = coordinates[hi * DIMENSIONS + d];
+            float pivot = Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (coordinates[i * DIMENSIONS + d] < pivot) i++;
+                while (coordinates[j * DIMENSIONS + d] > pivot) j--;
+                if (i <= j) {
+                    swap(i++, j--);
+                }
+            }
+            if (k <= j) {
+                hi = j;
+            } else if (k >= i) {
+                lo = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void swap(int i, int j) {
+        int a = i * DIMENSIONS;
+        int b = j * DIMENSIONS;
+        for (int d = 0; d < DIMENSIONS; d++) {
+            float t = coordinates[a + d];
+            coordinates[a + d] = coordinates[b + d];
+            coordinates[b + d] = t;
+        }
+        double price = prices[i];
+        prices[i] = prices[j];
+        prices[j] = price;
+    }
+}
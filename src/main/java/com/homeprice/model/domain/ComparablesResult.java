@@ -0,0 +1,38 @@
+package com.homeprice.model.domain;
+
+import java.util.List;
+
+/**
+ * Response body of a comparables query: the model's estimate and the most similar training
+ * listings in the same location, nearest first.
+ */
+public class ComparablesResult {
+
+    private final String location;
+    private final long priceInr;
+    private final String formattedPrice;
+    private final List<ComparableListing> comparables;
+
+    public ComparablesResult(String location, PricePrediction prediction, List<ComparableListing> comparables) {
+        this.location = location;
+        this.priceInr = prediction.getPriceInr();
+        this.formattedPrice = prediction.getFormattedPrice();
+        this.comparables = comparables;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public long getPriceInr() {
+        return priceInr;
+    }
+
+    public String getFormattedPrice() {
+        return formattedPrice;
+    }
+
+    public List<ComparableListing> getComparables() {
+        return comparables;
+    }
+}
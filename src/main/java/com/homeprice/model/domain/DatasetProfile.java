@@ -0,0 +1,197 @@
+package com.homeprice.model.domain;
+
+import com.homeprice.model.ml.QuantileSketch;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One-pass profile of the dataset as parsed: quantile sketches of price and of price per square foot, and
+ * per-location row count, min / max / mean price and mean price per square foot. Each parse chunk
+ * builds its own profile, and the profiles are merged with the same location remapping as the
+ * chunks' rows, so the dataset is never read twice. Also records what the outlier stage did with
+ * the quantile band taken from the profile. Statistics describe the rows before that stage.
+ * A profile is built by one thread ({@link #add} is not synchronized, to keep the per-row cost low);
+ * everything else, including every reader, is synchronized, so a published profile is read consistently.
+ */
+public class DatasetProfile {
+
+    /** Quantiles reported by {@link #getPriceQuantiles()} and {@link #getPricePerSquareFootQuantiles()}. */
+    public static final double[] REPORTED_QUANTILES = {0, 0.001, 0.01, 0.05, 0.25, 0.5, 0.75, 0.95, 0.99, 0.999, 1};
+    /** Relative accuracy of the reported quantiles and the outlier band edges. */
+    private static final double RELATIVE_ACCURACY = 0.005;
+
+    private final QuantileSketch price = new QuantileSketch(RELATIVE_ACCURACY);
+    private final QuantileSketch pricePerSquareFoot = new QuantileSketch(RELATIVE_ACCURACY);
+    private long rows;
+    private long[] locationRows = new long[16];
+    private double[] locationMin = filled(16, Double.POSITIVE_INFINITY);
+    private double[] locationMax = filled(16, Double.NEGATIVE_INFINITY);
+    private double[] locationSum = new double[16];
+    private double[] locationPerSquareFootSum = new double[16];
+    private long[] locationPerSquareFootRows = new long[16]; // rows with a positive area
+    private List<String> locationNames = List.of();
+    private OutlierMode outlierMode = OutlierMode.NONE;
+    private double lowerBand = Double.NaN;
+    private double upperBand = Double.NaN;
+    private long outliers;
+
+    /**
+     * Account for one parsed row (same arguments as a parsed-row callback, so it can be chained with one).
+     */
+    public void add(double squareFeet, int bhk, int bathrooms, int locationIndex, double priceInr) {
+        double perSquareFoot = pricePerSquareFoot(squareFeet, priceInr);
+        rows++;
+        price.add(priceInr);
+        pricePerSquareFoot.add(perSquareFoot);
+        if (locationIndex >= locationRows.length) {
+            grow(locationIndex + 1);
+        }
+        locationRows[locationIndex]++;
+        if (priceInr < locationMin[locationIndex]) locationMin[locationIndex] = priceInr;
+        if (priceInr > locationMax[locationIndex]) locationMax[locationIndex] = priceInr;
+        locationSum[locationIndex] += priceInr;
+        if (!Double.isNaN(perSquareFoot)) {
+            locationPerSquareFootSum[locationIndex] += perSquareFoot;
+            locationPerSquareFootRows[locationIndex]++;
+        }
+    }
+
+    /** Price per square foot of a row, or NaN if the area is not positive. */
+    public static double pricePerSquareFoot(double squareFeet, double priceInr) {
+        return squareFeet > 0 ? priceInr / squareFeet : Double.NaN;
+    }
+
+    /**
+     * Add another profile's statistics, translating its location indices through locationRemap
+     * (other's index -> this profile's index).
+     */
+    public synchronized void merge(DatasetProfile other, int[] locationRemap) {
+        rows += other.rows;
+        price.merge(other.price);
+        pricePerSquareFoot.merge(other.pricePerSquareFoot);
+        for (int l = 0; l < other.locationRows.length; l++) {
+            if (other.locationRows[l] == 0) {
+                continue;
+            }
+            int to = locationRemap[l];
+            if (to >= locationRows.length) {
+                grow(to + 1);
+            }
+            locationRows[to] += other.locationRows[l];
+            locationMin[to] = Math.min(locationMin[to], other.locationMin[l]);
+            locationMax[to] = Math.max(locationMax[to], other.locationMax[l]);
+            locationSum[to] += other.locationSum[l];
+            locationPerSquareFootSum[to] += other.locationPerSquareFootSum[l];
+            locationPerSquareFootRows[to] += other.locationPerSquareFootRows[l];
+        }
+    }
+
+    private void grow(int minLength) {
+        int length = Math.max(minLength, locationRows.length * 2);
+        int old = locationRows.length;
+        locationRows = Arrays.copyOf(locationRows, length);
+        locationMin = Arrays.copyOf(locationMin, length);
+        locationMax = Arrays.copyOf(locationMax, length);
+        locationSum = Arrays.copyOf(locationSum, length);
+        locationPerSquareFootSum = Arrays.copyOf(locationPerSquareFootSum, length);
+        locationPerSquareFootRows = Arrays.copyOf(locationPerSquareFootRows, length);
+        Arrays.fill(locationMin, old, length, Double.POSITIVE_INFINITY);
+        Arrays.fill(locationMax, old, length, Double.NEGATIVE_INFINITY);
+    }
+
+    private static double[] filled(int length, double value) {
+        double[] array = new double[length];
+        Arrays.fill(array, value);
+        return array;
+    }
+
+    /** Location names in encoding order, for the per-location statistics. */
+    public synchronized void setLocations(List<String> locations) {
+        this.locationNames = List.copyOf(locations);
+    }
+
+    /** Estimated price per square foot at quantile q of the profiled rows. */
+    public synchronized double pricePerSquareFootQuantile(double q) {
+        return pricePerSquareFoot.quantile(q);
+    }
+
+    /**
+     * Record the outlier stage applied after profiling: its mode, the price-per-square-foot band and
+     * how many rows it dropped or clamped.
+     */
+    public synchronized void recordOutliers(OutlierMode mode, double lowerBand, double upperBand, long outliers) {
+        this.outlierMode = mode;
+        this.lowerBand = lowerBand;
+        this.upperBand = upperBand;
+        this.outliers = outliers;
+    }
+
+    /** Rows parsed, before the outlier stage. */
+    public synchronized long getRows() {
+        return rows;
+    }
+
+    public synchronized OutlierMode getOutlierMode() {
+        return outlierMode;
+    }
+
+    /** Lowest price per square foot kept by the outlier stage, or null if it did not run. */
+    public synchronized Double getLowerBand() {
+        return Double.isNaN(lowerBand) ? null : lowerBand;
+    }
+
+    /** Highest price per square foot kept by the outlier stage, or null if it did not run. */
+    public synchronized Double getUpperBand() {
+        return Double.isNaN(upperBand) ? null : upperBand;
+    }
+
+    /**
+     * Rows dropped (filter) or clamped (winsorize) by the outlier stage, including rows without a
+     * positive area (dropped by filter, kept unchanged by winsorize).
+     */
+    public synchronized long getOutliers() {
+        return outliers;
+    }
+
+    /** Estimated price at each of the {@link #REPORTED_QUANTILES}, keyed by the quantile. */
+    public synchronized Map<String, Double> getPriceQuantiles() {
+        return quantiles(price);
+    }
+
+    /** Estimated price per square foot at each of the {@link #REPORTED_QUANTILES}, keyed by the quantile. */
+    public synchronized Map<String, Double> getPricePerSquareFootQuantiles() {
+        return quantiles(pricePerSquareFoot);
+    }
+
+    private static Map<String, Double> quantiles(QuantileSketch sketch) {
+        Map<String, Double> quantiles = new LinkedHashMap<>();
+        if (sketch.size() == 0) {
+            return quantiles;
+        }
+        for (double q : REPORTED_QUANTILES) {
+            quantiles.put(BigDecimal.valueOf(q).stripTrailingZeros().toPlainString(), sketch.quantile(q));
+        }
+        return quantiles;
+    }
+
+    /** Per-location statistics, in encoding order, for locations with at least one row. */
+    public synchronized List<LocationProfile> getLocations() {
+        List<LocationProfile> profiles = new ArrayList<>();
+        for (int l = 0; l < locationRows.length; l++) {
+            long n = locationRows[l];
+            if (n == 0) {
+                continue;
+            }
+            String name = l < locationNames.size() ? locationNames.get(l) : "#" + l;
+            long perSquareFootRows = locationPerSquareFootRows[l];
+            profiles.add(new LocationProfile(name, n, locationMin[l], locationMax[l], locationSum[l] / n,
+                    perSquareFootRows > 0 ? locationPerSquareFootSum[l] / perSquareFootRows : Double.NaN));
+        }
+        return profiles;
+    }
+}
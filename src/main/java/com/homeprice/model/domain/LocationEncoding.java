@@ -0,0 +1,29 @@
+package com.homeprice.model.domain;
+
+import java.util.Locale;
+
+/**
+ * How the location enters the model, selectable by name (e.g. from configuration).
+ * ORDINAL is the original single numeric locationIndex column; ONE_HOT gives every location its
+ * own column; HASHED folds locations into a fixed number of signed hash buckets.
+ */
+public enum LocationEncoding {
+
+    ORDINAL,
+    ONE_HOT,
+    HASHED;
+
+    /**
+     * Parse a name such as "ordinal", "one-hot" or "hashed".
+     */
+    public static LocationEncoding fromName(String name) {
+        if (name == null || name.isBlank()) {
+            return ORDINAL;
+        }
+        try {
+            return valueOf(name.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown location encoding: " + name);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.homeprice.model.domain;
+
+/**
+ * Summary of one location's rows in a {@link DatasetProfile}.
+ */
+public class LocationProfile {
+
+    private final String location;
+    private final long rows;
+    private final double minPriceInr;
+    private final double maxPriceInr;
+    private final double meanPriceInr;
+    private final double meanPricePerSquareFoot;
+
+    public LocationProfile(String location, long rows, double minPriceInr, double maxPriceInr, double meanPriceInr,
+                           double meanPricePerSquareFoot) {
+        this.location = location;
+        this.rows = rows;
+        this.minPriceInr = minPriceInr;
+        this.maxPriceInr = maxPriceInr;
+        this.meanPriceInr = meanPriceInr;
+        this.meanPricePerSquareFoot = meanPricePerSquareFoot;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public double getMinPriceInr() {
+        return minPriceInr;
+    }
+
+    public double getMaxPriceInr() {
+        return maxPriceInr;
+    }
+
+    public double getMeanPriceInr() {
+        return meanPriceInr;
+    }
+
+    /** Mean over the rows with a positive area, or null if there are none. */
+    public Double getMeanPricePerSquareFoot() {
+        return Double.isNaN(meanPricePerSquareFoot) ? null : meanPricePerSquareFoot;
+    }
+}
@@ -0,0 +1,29 @@
+package com.homeprice.model.domain;
+
+import java.util.Locale;
+
+/**
+ * What the dataset loader does with rows whose price per square foot falls outside the configured
+ * quantile band, selectable by name (e.g. from configuration). NONE keeps every row unchanged;
+ * FILTER drops them; WINSORIZE keeps them with the price clamped to the nearest band edge.
+ */
+public enum OutlierMode {
+
+    NONE,
+    FILTER,
+    WINSORIZE;
+
+    /**
+     * Parse a name such as "none", "filter" or "winsorize".
+     */
+    public static OutlierMode fromName(String name) {
+        if (name == null || name.isBlank()) {
+            return NONE;
+        }
+        try {
+            return valueOf(name.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown outlier mode: " + name);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.homeprice.model.domain;
+
+/**
+ * Response body of a single prediction.
+ */
+public class PricePrediction {
+
+    private final long priceInr;
+    private final String formattedPrice;
+
+    public PricePrediction(long priceInr, String formattedPrice) {
+        this.priceInr = priceInr;
+        this.formattedPrice = formattedPrice;
+    }
+
+    public long getPriceInr() {
+        return priceInr;
+    }
+
+    public String getFormattedPrice() {
+        return formattedPrice;
+    }
+}
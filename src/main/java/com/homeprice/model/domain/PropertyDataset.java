@@ -0,0 +1,212 @@
+package com.homeprice.model.domain;
+
+import com.homeprice.model.ml.DesignMatrix;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * Columnar, primitive-backed store of the dataset: one array per column instead of one
+ * {@link PropertyRecord} per row. Feature views read straight from the columns.
+ */
+public class PropertyDataset {
+
+    /** Features per row: [1, squareFeet, bhk, bathrooms, locationIndex] */
+    public static final int FEATURE_COUNT = 5;
+
+    /** Names of the features, in feature-vector order. */
+    public static final List<String> FEATURE_NAMES =
+            List.of("intercept", "square_feet", "bhk", "bathrooms", "location_index");
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private double[] squareFeet;
+    private int[] bhk;
+    private int[] bathrooms;
+    private int[] locationIndex;
+    private double[] price;
+    private int size;
+    private List<String> locations = List.of();
+
+    public PropertyDataset() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public PropertyDataset(int capacity) {
+        capacity = Math.max(capacity, 1);
+        squareFeet = new double[capacity];
+        bhk = new int[capacity];
+        bathrooms = new int[capacity];
+        locationIndex = new int[capacity];
+        price = new double[capacity];
+    }
+
+    /**
+     * Append a row, growing the columns as needed.
+     */
+    public void add(double squareFeet, int bhk, int bathrooms, int locationIndex, double priceInr) {
+        if (size == price.length) {
+            grow();
+        }
+        this.squareFeet[size] = squareFeet;
+        this.bhk[size] = bhk;
+        this.bathrooms[size] = bathrooms;
+        this.locationIndex[size] = locationIndex;
+        this.price[size] = priceInr;
+        size++;
+    }
+
+    /**
+     * Append all rows of another dataset, translating its location indices through locationRemap
+     * (other's index -> this dataset's index).
+     */
+    public void append(PropertyDataset other, int[] locationRemap) {
+        int n = other.size;
+        if (size + n > price.length) {
+            resize(Math.max(size + n, price.length + (price.length >> 1) + 1));
+        }
+        System.arraycopy(other.squareFeet, 0, squareFeet, size, n);
+        System.arraycopy(other.bhk, 0, bhk, size, n);
+        System.arraycopy(other.bathrooms, 0, bathrooms, size, n);
+        System.arraycopy(other.price, 0, price, size, n);
+        for (int i = 0; i < n; i++) {
+            locationIndex[size + i] = locationRemap[other.locationIndex[i]];
+        }
+        size += n;
+    }
+
+    private void grow() {
+        resize(price.length + (price.length >> 1) + 1);
+    }
+
+    private void resize(int capacity) {
+        squareFeet = Arrays.copyOf(squareFeet, capacity);
+        bhk = Arrays.copyOf(bhk, capacity);
+        bathrooms = Arrays.copyOf(bathrooms, capacity);
+        locationIndex = Arrays.copyOf(locationIndex, capacity);
+        price = Arrays.copyOf(price, capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double getSquareFeet(int row) {
+        return squareFeet[row];
+    }
+
+    public int getBhk(int row) {
+        return bhk[row];
+    }
+
+    public int getBathrooms(int row) {
+        return bathrooms[row];
+    }
+
+    public int getLocationIndex(int row) {
+        return locationIndex[row];
+    }
+
+    public double getPriceInr(int row) {
+        return price[row];
+    }
+
+    public void setPriceInr(int row, double priceInr) {
+        price[row] = priceInr;
+    }
+
+    /**
+     * Drop the rows matching the predicate (called with each row index once, in order), compacting
+     * the columns in place; returns the number of rows removed.
+     */
+    public int removeIf(IntPredicate row) {
+        int kept = 0;
+        for (int r = 0; r < size; r++) {
+            if (row.test(r)) {
+                continue;
+            }
+            if (kept != r) {
+                squareFeet[kept] = squareFeet[r];
+                bhk[kept] = bhk[r];
+                bathrooms[kept] = bathrooms[r];
+                locationIndex[kept] = locationIndex[r];
+                price[kept] = price[r];
+            }
+            kept++;
+        }
+        int removed = size - kept;
+        size = kept;
+        return removed;
+    }
+
+    /** Location names in encoding order (index = locationIndex). */
+    public List<String> getLocations() {
+        return locations;
+    }
+
+    public void setLocations(List<String> locations) {
+        this.locations = List.copyOf(locations);
+    }
+
+    /**
+     * Write the feature vector [1, squareFeet, bhk, bathrooms, locationIndex] of a row into dest.
+     */
+    public void copyFeatures(int row, double[] dest) {
+        encodeFeatures(dest, squareFeet[row], bhk[row], bathrooms[row], locationIndex[row]);
+    }
+
+    /**
+     * Write the feature vector [1, squareFeet, bhk, bathrooms, locationIndex] into dest.
+     */
+    public static void encodeFeatures(double[] dest, double squareFeet, int bhk, int bathrooms, int locationIndex) {
+        dest[0] = 1.0;
+        dest[1] = squareFeet;
+        dest[2] = bhk;
+        dest[3] = bathrooms;
+        dest[4] = locationIndex;
+    }
+
+    /**
+     * Zero-copy feature view over all rows, with price as the target.
+     */
+    public DesignMatrix features() {
+        return features(null);
+    }
+
+    /**
+     * Zero-copy feature view over the given rows (e.g. a train or test split), in that order.
+     */
+    public DesignMatrix features(int[] rows) {
+        return new FeatureView(rows);
+    }
+
+    private class FeatureView implements DesignMatrix {
+
+        private final int[] rows; // null = all rows
+
+        FeatureView(int[] rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public int rows() {
+            return rows != null ? rows.length : size;
+        }
+
+        @Override
+        public int columns() {
+            return FEATURE_COUNT;
+        }
+
+        @Override
+        public void copyRow(int row, double[] dest) {
+            copyFeatures(rows != null ? rows[row] : row, dest);
+        }
+
+        @Override
+        public double target(int row) {
+            return price[rows != null ? rows[row] : row];
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.homeprice.model.domain;
+
+import com.homeprice.model.ml.SparseMatrix;
+
+import java.util.List;
+
+/**
+ * Sparse feature encoding of a listing: columns 0-3 are [1, squareFeet, bhk, bathrooms], followed
+ * by a location block that is one column per location (ONE_HOT) or per hash bucket (HASHED).
+ * Every row has at most {@link #MAX_NON_ZEROS} nonzeros whatever the number of locations.
+ * Hashing uses String.hashCode of the location name, so buckets are stable across runs.
+ */
+public final class PropertyFeatureEncoder {
+
+    public static final int MAX_NON_ZEROS = 5;
+    /** Columns before the location block. */
+    public static final int NUMERIC_COLUMNS = 4;
+
+    private final LocationEncoding encoding;
+    private final int locationColumns;
+    private final int[] bucket; // HASHED: location index -> bucket
+    private final double[] sign; // HASHED: location index -> +1 / -1
+
+    private PropertyFeatureEncoder(LocationEncoding encoding, int locationColumns, int[] bucket, double[] sign) {
+        this.encoding = encoding;
+        this.locationColumns = locationColumns;
+        this.bucket = bucket;
+        this.sign = sign;
+    }
+
+    /**
+     * One column per location index in [0, locations).
+     */
+    public static PropertyFeatureEncoder oneHot(int locations) {
+        return new PropertyFeatureEncoder(LocationEncoding.ONE_HOT, locations, null, null);
+    }
+
+    /**
+     * Signed hashing of the location names into the given number of buckets.
+     */
+    public static PropertyFeatureEncoder hashed(List<String> locations, int buckets) {
+        if (buckets <= 0) {
+            throw new IllegalArgumentException("Hash bucket count must be positive");
+        }
+        int[] bucket = new int[locations.size()];
+        double[] sign = new double[locations.size()];
+        for (int i = 0; i < bucket.length; i++) {
+            int h = mix(locations.get(i).hashCode());
+            bucket[i] = Math.floorMod(h, buckets);
+            sign[i] = (h & 0x80000000) == 0 ? 1.0 : -1.0;
+        }
+        return new PropertyFeatureEncoder(LocationEncoding.HASHED, buckets, bucket, sign);
+    }
+
+    public LocationEncoding getEncoding() {
+        return encoding;
+    }
+
+    public int columns() {
+        return NUMERIC_COLUMNS + locationColumns;
+    }
+
+    /**
+     * Write the nonzeros of one listing into (indices, values); returns their count.
+     * Locations outside the encoder's range get no location column.
+     */
+    public int encode(double squareFeet, int bhk, int bathrooms, int locationIndex, int[] indices, double[] values) {
+        int n = 0;
+        indices[n] = 0;
+        values[n++] = 1.0;
+        if (squareFeet != 0) {
+            indices[n] = 1;
+            values[n++] = squareFeet;
+        }
+        if (bhk != 0) {
+            indices[n] = 2;
+            values[n++] = bhk;
+        }
+        if (bathrooms != 0) {
+            indices[n] = 3;
+            values[n++] = bathrooms;
+        }
+        int column = locationColumn(locationIndex);
+        if (column >= 0) {
+            indices[n] = column;
+            values[n++] = locationValue(locationIndex);
+        }
+        return n;
+    }
+
+    /**
+     * CSR design matrix of the given dataset rows, in that order.
+     */
+    public SparseMatrix encode(PropertyDataset dataset, int[] rows) {
+        SparseMatrix.Builder builder = new SparseMatrix.Builder(columns(), rows.length, rows.length * MAX_NON_ZEROS);
+        int[] indices = new int[MAX_NON_ZEROS];
+        double[] values = new double[MAX_NON_ZEROS];
+        for (int row : rows) {
+            int nnz = encode(dataset.getSquareFeet(row), dataset.getBhk(row), dataset.getBathrooms(row),
+                    dataset.getLocationIndex(row), indices, values);
+            builder.addRow(indices, values, nnz, dataset.getPriceInr(row));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Column of a location index, or -1 if it has none.
+     */
+    public int locationColumn(int locationIndex) {
+        if (encoding == LocationEncoding.ONE_HOT) {
+            return locationIndex >= 0 && locationIndex < locationColumns ? NUMERIC_COLUMNS + locationIndex : -1;
+        }
+        return locationIndex >= 0 && locationIndex < bucket.length ? NUMERIC_COLUMNS + bucket[locationIndex] : -1;
+    }
+
+    private double locationValue(int locationIndex) {
+        return encoding == LocationEncoding.HASHED ? sign[locationIndex] : 1.0;
+    }
+
+    /**
+     * Column map and scale that turn one-hot statistics over the same locations into this
+     * encoding (see {@link com.homeprice.model.ml.SparseNormalEquations#project}).
+     */
+    public int[] projectionMap() {
+        int[] map = new int[NUMERIC_COLUMNS + sourceLocations()];
+        for (int c = 0; c < NUMERIC_COLUMNS; c++) {
+            map[c] = c;
+        }
+        for (int loc = 0; loc < sourceLocations(); loc++) {
+            map[NUMERIC_COLUMNS + loc] = locationColumn(loc);
+        }
+        return map;
+    }
+
+    public double[] projectionScale() {
+        double[] scale = new double[NUMERIC_COLUMNS + sourceLocations()];
+        for (int c = 0; c < scale.length; c++) {
+            scale[c] = c < NUMERIC_COLUMNS ? 1.0 : locationValue(c - NUMERIC_COLUMNS);
+        }
+        return scale;
+    }
+
+    /** Locations covered by the projection: all known locations. */
+    private int sourceLocations() {
+        return encoding == LocationEncoding.HASHED ? bucket.length : locationColumns;
+    }
+
+    /**
+     * Per-location scoring rows [intercept, squareFeet, bhk, bathrooms] of a model fitted on this
+     * encoding: the location's weight is folded into the intercept.
+     */
+    public double[][] locationRows(double[] weights, int locations) {
+        double[][] rows = new double[locations][];
+        for (int loc = 0; loc < locations; loc++) {
+            int column = locationColumn(loc);
+            double locationTerm = column >= 0 ? weights[column] * locationValue(loc) : 0;
+            rows[loc] = new double[]{weights[0] + locationTerm, weights[1], weights[2], weights[3]};
+        }
+        return rows;
+    }
+
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        return h ^ (h >>> 16);
+    }
+}
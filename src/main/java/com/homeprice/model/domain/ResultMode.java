@@ -0,0 +1,30 @@
+package com.homeprice.model.domain;
+
+import java.util.Locale;
+
+/**
+ * How the HTML form delivers its result page, selectable by name (e.g. from configuration).
+ * FLASH is the original redirect to /result with session flash attributes; INLINE renders the
+ * result in the POST response; TOKEN redirects to /result with the price in a signed query token.
+ * Only FLASH keeps server-side state (an HTTP session per user).
+ */
+public enum ResultMode {
+
+    FLASH,
+    INLINE,
+    TOKEN;
+
+    /**
+     * Parse a name such as "flash", "inline" or "token".
+     */
+    public static ResultMode fromName(String name) {
+        if (name == null || name.isBlank()) {
+            return FLASH;
+        }
+        try {
+            return valueOf(name.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown result mode: " + name);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.homeprice.model.domain;
+
+import java.util.List;
+
+/**
+ * A what-if grid: every combination of square feet (min to max in steps), BHK, bathrooms and
+ * locations. Points are generated on the fly, never stored. No locations means all known locations.
+ */
+public class SweepGrid {
+
+    private final double squareFeetMin;
+    private final double squareFeetMax;
+    private final double squareFeetStep;
+    private final int bhkMin;
+    private final int bhkMax;
+    private final int bathroomsMin;
+    private final int bathroomsMax;
+    private final List<String> locations;
+
+    public SweepGrid(double squareFeetMin, double squareFeetMax, double squareFeetStep, int bhkMin, int bhkMax,
+                     int bathroomsMin, int bathroomsMax, List<String> locations) {
+        this.squareFeetMin = squareFeetMin;
+        this.squareFeetMax = squareFeetMax;
+        this.squareFeetStep = squareFeetStep;
+        this.bhkMin = bhkMin;
+        this.bhkMax = bhkMax;
+        this.bathroomsMin = bathroomsMin;
+        this.bathroomsMax = bathroomsMax;
+        this.locations = locations != null ? List.copyOf(locations) : List.of();
+    }
+
+    /**
+     * First range error, or null if every range is non-empty with a positive step.
+     */
+    public String rangeError() {
+        if (!(squareFeetStep > 0)) return "Square feet step must be positive";
+        if (!(squareFeetMax >= squareFeetMin)) return "Square feet max must not be below min";
+        if (bhkMax < bhkMin) return "BHK max must not be below min";
+        if (bathroomsMax < bathroomsMin) return "Bathrooms max must not be below min";
+        return null;
+    }
+
+    /** Square feet values: min, min + step, ... up to max (within rounding). */
+    public int squareFeetPoints() {
+        return (int) Math.min(Integer.MAX_VALUE,
+                Math.floor((squareFeetMax - squareFeetMin) / squareFeetStep + 1e-9) + 1);
+    }
+
+    /** Square feet of the i-th value, computed rather than accumulated so steps do not drift. */
+    public double squareFeet(int i) {
+        return squareFeetMin + i * squareFeetStep;
+    }
+
+    /** Points per location. */
+    public long pointsPerLocation() {
+        return (long) squareFeetPoints() * (bhkMax - bhkMin + 1) * (bathroomsMax - bathroomsMin + 1);
+    }
+
+    public double getSquareFeetMin() {
+        return squareFeetMin;
+    }
+
+    public double getSquareFeetMax() {
+        return squareFeetMax;
+    }
+
+    public double getSquareFeetStep() {
+        return squareFeetStep;
+    }
+
+    public int getBhkMin() {
+        return bhkMin;
+    }
+
+    public int getBhkMax() {
+        return bhkMax;
+    }
+
+    public int getBathroomsMin() {
+        return bathroomsMin;
+    }
+
+    public int getBathroomsMax() {
+        return bathroomsMax;
+    }
+
+    public List<String> getLocations() {
+        return locations;
+    }
+}
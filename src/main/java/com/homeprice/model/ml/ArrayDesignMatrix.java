@@ -0,0 +1,45 @@
+package com.homeprice.model.ml;
+
+/**
+ * {@link DesignMatrix} over a double[][] and target array. Every row must have as many features as
+ * the first; this is checked up front, since rows are later copied on fork-join workers.
+ */
+class ArrayDesignMatrix implements DesignMatrix {
+
+    private final double[][] X;
+    private final double[] y;
+
+    ArrayDesignMatrix(double[][] X, double[] y) {
+        if (X.length != y.length) {
+            throw new IllegalArgumentException("X and y must have the same length");
+        }
+        for (int row = 0; row < X.length; row++) {
+            if (X[row] == null || X[row].length != X[0].length) {
+                throw new IllegalArgumentException("Expected " + X[0].length + " features in row " + row + " but got "
+                        + (X[row] == null ? "none" : X[row].length));
+            }
+        }
+        this.X = X;
+        this.y = y;
+    }
+
+    @Override
+    public int rows() {
+        return X.length;
+    }
+
+    @Override
+    public int columns() {
+        return X[0].length;
+    }
+
+    @Override
+    public void copyRow(int row, double[] dest) {
+        System.arraycopy(X[row], 0, dest, 0, dest.length);
+    }
+
+    @Override
+    public double target(int row) {
+        return y[row];
+    }
+}
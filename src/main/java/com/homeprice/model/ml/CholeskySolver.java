@@ -0,0 +1,85 @@
+package com.homeprice.model.ml;
+
+/**
+ * In-place Cholesky (L L') solver for symmetric positive definite systems.
+ * An optional ridge term is added to the diagonal before factoring; column 0 is the
+ * intercept and is not penalized. A small ridge keeps collinear features (e.g. one-hot
+ * locations) solvable instead of failing.
+ */
+public class CholeskySolver implements Solver {
+
+    private static final double EPS = 1e-12;
+
+    private final double ridge;
+
+    public CholeskySolver() {
+        this(0.0);
+    }
+
+    public CholeskySolver(double ridge) {
+        if (ridge < 0 || Double.isNaN(ridge)) {
+            throw new IllegalArgumentException("Ridge penalty must be non-negative");
+        }
+        this.ridge = ridge;
+    }
+
+    public double getRidge() {
+        return ridge;
+    }
+
+    @Override
+    public double[] solve(double[] a, double[] b, int p) {
+        if (ridge > 0) {
+            for (int i = 1; i < p; i++) {
+                a[i * p + i] += ridge;
+            }
+        }
+        double maxDiag = 0;
+        for (int i = 0; i < p; i++) {
+            maxDiag = Math.max(maxDiag, Math.abs(a[i * p + i]));
+        }
+        double tol = EPS * Math.max(maxDiag, 1.0);
+
+        // Factor: lower triangle of a becomes L
+        for (int j = 0; j < p; j++) {
+            int rowJ = j * p;
+            double d = a[rowJ + j];
+            for (int k = 0; k < j; k++) {
+                d -= a[rowJ + k] * a[rowJ + k];
+            }
+            if (d <= tol) {
+                throw new IllegalArgumentException(
+                        "Matrix is not positive definite (collinear features?); use a ridge penalty or the QR solver");
+            }
+            double ljj = Math.sqrt(d);
+            a[rowJ + j] = ljj;
+            for (int i = j + 1; i < p; i++) {
+                int rowI = i * p;
+                double s = a[rowI + j];
+                for (int k = 0; k < j; k++) {
+                    s -= a[rowI + k] * a[rowJ + k];
+                }
+                a[rowI + j] = s / ljj;
+            }
+        }
+
+        // Forward substitution: L z = b
+        for (int i = 0; i < p; i++) {
+            int rowI = i * p;
+            double s = b[i];
+            for (int k = 0; k < i; k++) {
+                s -= a[rowI + k] * b[k];
+            }
+            b[i] = s / a[rowI + i];
+        }
+        // Back substitution: L' x = z
+        for (int i = p - 1; i >= 0; i--) {
+            double s = b[i];
+            for (int k = i + 1; k < p; k++) {
+                s -= a[k * p + i] * b[k];
+            }
+            b[i] = s / a[i * p + i];
+        }
+        return b;
+    }
+}
@@ -0,0 +1,143 @@
+package com.homeprice.model.ml;
+
+/**
+ * Lasso / elastic-net regression by cyclic coordinate descent on the sufficient statistics X'X, X'y,
+ * y'y ("covariance updates"), so it never touches the rows again and runs in bounded memory. Features
+ * are standardized from the statistics (column 0 must be the intercept, which is not penalized), and
+ * the objective is
+ * <pre>
+ *     (1/2n) |t - Z b|^2 + l1 |b|_1 + (l2/2) |b|^2
+ * </pre>
+ * over standardized features Z and target t; the returned weights are on the original scale. A
+ * coordinate update costs O(nonzeros in its column of X'X), so sparse one-hot or hashed statistics
+ * stay cheap. Large enough l1 sets weights exactly to zero.
+ */
+public class CoordinateDescent {
+
+    private static final double TOLERANCE = 1e-8;
+
+    private final double l1;
+    private final double l2;
+    private final int maxSweeps;
+    private int sweeps;
+
+    public CoordinateDescent(double l1, double l2, int maxSweeps) {
+        if (!(l1 >= 0) || !(l2 >= 0)) {
+            throw new IllegalArgumentException("L1 and L2 penalties must be non-negative");
+        }
+        if (maxSweeps <= 0) {
+            throw new IllegalArgumentException("Maximum number of sweeps must be positive");
+        }
+        this.l1 = l1;
+        this.l2 = l2;
+        this.maxSweeps = maxSweeps;
+    }
+
+    public double[] solve(NormalEquations stats) {
+        int p = stats.dimension();
+        double[] gram = stats.gram();
+        double[] xty = stats.xty();
+        SparseMatrix.Builder builder = new SparseMatrix.Builder(p, p, p * p);
+        int[] indices = new int[p];
+        double[] values = new double[p];
+        for (int i = 0; i < p; i++) {
+            int nnz = 0;
+            for (int j = 0; j < p; j++) {
+                if (gram[i * p + j] != 0) {
+                    indices[nnz] = j;
+                    values[nnz++] = gram[i * p + j];
+                }
+            }
+            builder.addRow(indices, values, nnz, xty[i]);
+        }
+        return solve(builder.build(), stats.yty());
+    }
+
+    public double[] solve(SparseNormalEquations stats, int columns) {
+        return solve(stats.gram(columns), stats.yty());
+    }
+
+    /** Full sweeps over all coordinates made by the last {@link #solve}. */
+    public int getSweeps() {
+        return sweeps;
+    }
+
+    /**
+     * @param gram X'X as CSR rows, with (X'y)_i as the target of row i
+     */
+    private double[] solve(SparseMatrix gram, double yty) {
+        int p = gram.columns();
+        double[] diagonal = new double[p];
+        for (int i = 0; i < p; i++) {
+            for (int k = gram.rowStart(i); k < gram.rowEnd(i); k++) {
+                if (gram.index(k) == i) {
+                    diagonal[i] = gram.value(k);
+                }
+            }
+        }
+        double n = diagonal[0]; // sum of intercept^2 = (weighted) row count
+        if (!(n > 0)) {
+            throw new IllegalArgumentException("Statistics must include the intercept column and at least one row");
+        }
+        double targetMean = gram.target(0) / n;
+        double targetVariance = yty / n - targetMean * targetMean;
+        double targetScale = targetVariance > 0 ? Math.sqrt(targetVariance) : 0;
+        double[] weights = new double[p];
+        weights[0] = targetMean;
+        if (targetScale == 0) {
+            return weights;
+        }
+
+        double[] mean = new double[p];
+        double[] scale = new double[p];
+        for (int k = gram.rowStart(0); k < gram.rowEnd(0); k++) {
+            mean[gram.index(k)] = gram.value(k) / n;
+        }
+        for (int j = 1; j < p; j++) {
+            double variance = diagonal[j] / n - mean[j] * mean[j];
+            scale[j] = variance > 1e-12 * (diagonal[j] / n) ? Math.sqrt(variance) : 0; // 0 = constant column
+        }
+
+        // b: standardized coefficients; u_j = b_j / scale_j; q = X'X u and mu = mean . u, kept up to date
+        double[] b = new double[p];
+        double[] q = new double[p];
+        double mu = 0;
+        sweeps = 0;
+        for (int sweep = 0; sweep < maxSweeps; sweep++) {
+            double maxChange = 0;
+            for (int j = 1; j < p; j++) {
+                if (scale[j] == 0) continue;
+                double centered = (gram.target(j) / n - mean[j] * targetMean) / (scale[j] * targetScale);
+                double fitted = (q[j] / n - mean[j] * mu) / scale[j];
+                double rho = centered - fitted + b[j];
+                double next = softThreshold(rho, l1) / (1 + l2);
+                double delta = next - b[j];
+                if (delta == 0) continue;
+                b[j] = next;
+                double du = delta / scale[j];
+                for (int k = gram.rowStart(j); k < gram.rowEnd(j); k++) {
+                    q[gram.index(k)] += du * gram.value(k);
+                }
+                mu += mean[j] * du;
+                maxChange = Math.max(maxChange, Math.abs(delta));
+            }
+            sweeps = sweep + 1;
+            if (maxChange < TOLERANCE) {
+                break;
+            }
+        }
+
+        double intercept = targetMean;
+        for (int j = 1; j < p; j++) {
+            if (scale[j] == 0) continue;
+            weights[j] = b[j] * targetScale / scale[j];
+            intercept -= weights[j] * mean[j];
+        }
+        weights[0] = intercept;
+        return weights;
+    }
+
+    private static double softThreshold(double value, double threshold) {
+        return value > threshold ? value - threshold : value < -threshold ? value + threshold : 0;
+    }
+}
@@ -0,0 +1,173 @@
+package com.homeprice.model.ml;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * k-fold cross-validation of ridge regression from per-fold sufficient statistics.
+ * X'X and X'y are accumulated once per fold; the training statistics of fold f are the total minus
+ * fold f, and the held-out squared error of weights w on fold f follows from the fold's own statistics:
+ * <pre>
+ *     SSE_f = y'y - 2 w'X'y + w'X'Xw
+ * </pre>
+ * so scoring any number of ridge penalties costs O(folds * penalties * p^3) and never touches the rows
+ * again. Ridge penalties are added to the diagonal except for the intercept, as in {@link CholeskySolver}.
+ */
+public class CrossValidation {
+
+    private final NormalEquations[] folds;
+    private final NormalEquations total;
+
+    public CrossValidation(NormalEquations[] folds) {
+        if (folds == null || folds.length < 2) {
+            throw new IllegalArgumentException("Cross-validation needs at least 2 folds");
+        }
+        this.folds = folds;
+        this.total = new NormalEquations(folds[0]);
+        for (int f = 1; f < folds.length; f++) {
+            total.merge(folds[f]);
+        }
+    }
+
+    /**
+     * Per-fold statistics of a design matrix, one fork-join task per fold if a pool is given.
+     *
+     * @param foldOfRow fold of each row, in [0, folds)
+     */
+    public static CrossValidation of(DesignMatrix matrix, int[] foldOfRow, int folds, ForkJoinPool pool) {
+        if (foldOfRow.length != matrix.rows()) {
+            throw new IllegalArgumentException("Expected a fold for each of the " + matrix.rows() + " rows");
+        }
+        NormalEquations[] stats = new NormalEquations[folds];
+        if (pool == null) {
+            for (int f = 0; f < folds; f++) {
+                stats[f] = foldStatistics(matrix, foldOfRow, f);
+            }
+        } else {
+            List<ForkJoinTask<NormalEquations>> tasks = new ArrayList<>(folds);
+            for (int f = 0; f < folds; f++) {
+                int fold = f;
+                tasks.add(pool.submit(() -> foldStatistics(matrix, foldOfRow, fold)));
+            }
+            for (int f = 0; f < folds; f++) {
+                stats[f] = tasks.get(f).join();
+            }
+        }
+        return new CrossValidation(stats);
+    }
+
+    private static NormalEquations foldStatistics(DesignMatrix matrix, int[] foldOfRow, int fold) {
+        NormalEquations stats = new NormalEquations(matrix.columns());
+        double[] row = new double[matrix.columns()];
+        for (int r = 0; r < foldOfRow.length; r++) {
+            if (foldOfRow[r] == fold) {
+                matrix.copyRow(r, row);
+                stats.add(row, matrix.target(r));
+            }
+        }
+        return stats;
+    }
+
+    public int folds() {
+        return folds.length;
+    }
+
+    /**
+     * Statistics of all rows, for fitting the final model.
+     */
+    public NormalEquations total() {
+        return total;
+    }
+
+    /**
+     * Cross-validated RMSE of every ridge penalty; penalties whose systems cannot be solved score NaN.
+     */
+    public RidgeSearch search(double[] ridges) {
+        int p = total.dimension();
+        double[][] trainGram = new double[folds.length][];
+        double[][] trainXty = new double[folds.length][];
+        double[][] foldGram = new double[folds.length][];
+        double[][] foldXty = new double[folds.length][];
+        for (int f = 0; f < folds.length; f++) {
+            NormalEquations train = new NormalEquations(total);
+            train.subtract(folds[f]);
+            trainGram[f] = train.gram();
+            trainXty[f] = train.xty();
+            foldGram[f] = folds[f].gram();
+            foldXty[f] = folds[f].xty();
+        }
+        double[] rmse = new double[ridges.length];
+        int best = -1;
+        for (int k = 0; k < ridges.length; k++) {
+            CholeskySolver solver = new CholeskySolver(ridges[k]);
+            double sse = 0;
+            try {
+                for (int f = 0; f < folds.length; f++) {
+                    double[] w = solver.solve(trainGram[f].clone(), trainXty[f].clone(), p);
+                    sse += heldOutSse(foldGram[f], foldXty[f], folds[f].yty(), w, p);
+                }
+                rmse[k] = Math.sqrt(sse / total.count());
+            } catch (IllegalArgumentException e) {
+                rmse[k] = Double.NaN;
+            }
+            if (!Double.isNaN(rmse[k]) && (best < 0 || rmse[k] < rmse[best])) {
+                best = k;
+            }
+        }
+        if (best < 0) {
+            throw new IllegalArgumentException("No ridge penalty gave a solvable system on every fold");
+        }
+        double[][] weights = new double[folds.length][];
+        CholeskySolver solver = new CholeskySolver(ridges[best]);
+        for (int f = 0; f < folds.length; f++) {
+            weights[f] = solver.solve(trainGram[f].clone(), trainXty[f].clone(), p);
+        }
+        return new RidgeSearch(ridges.clone(), rmse, best, weights);
+    }
+
+    private static double heldOutSse(double[] gram, double[] xty, double yty, double[] w, int p) {
+        double quadratic = 0;
+        double linear = 0;
+        for (int i = 0; i < p; i++) {
+            double gw = 0;
+            for (int j = 0; j < p; j++) {
+                gw += gram[i * p + j] * w[j];
+            }
+            quadratic += w[i] * gw;
+            linear += w[i] * xty[i];
+        }
+        return Math.max(0, yty - 2 * linear + quadratic); // rounding can make a perfect fit slightly negative
+    }
+
+    /**
+     * Ridge penalties, each one's cross-validated RMSE, and the best one's weights for every fold
+     * (trained without that fold), for scoring held-out rows.
+     */
+    public record RidgeSearch(double[] ridges, double[] rmse, int best, double[][] foldWeights) {
+
+        public double bestRidge() {
+            return ridges[best];
+        }
+
+        public double bestRmse() {
+            return rmse[best];
+        }
+    }
+
+    /**
+     * 0 followed by steps penalties spaced evenly on a log scale from min to max.
+     */
+    public static double[] ridgeGrid(double min, double max, int steps) {
+        if (!(min > 0) || !(max >= min) || steps < 1) {
+            throw new IllegalArgumentException("Ridge grid needs 0 < min <= max and at least one step");
+        }
+        double[] grid = new double[steps + 1];
+        for (int k = 0; k < steps; k++) {
+            double t = steps == 1 ? 0 : (double) k / (steps - 1);
+            grid[k + 1] = min * Math.pow(max / min, t);
+        }
+        return grid;
+    }
+}
@@ -0,0 +1,22 @@
+package com.homeprice.model.ml;
+
+/**
+ * Read-only view of a design matrix and its targets, row by row.
+ * Lets datasets expose features without copying them into a double[][] first.
+ */
+public interface DesignMatrix {
+
+    int rows();
+
+    /**
+     * Number of features per row, including the intercept column.
+     */
+    int columns();
+
+    /**
+     * Write the features of the given row (intercept 1.0 first) into dest.
+     */
+    void copyRow(int row, double[] dest);
+
+    double target(int row);
+}
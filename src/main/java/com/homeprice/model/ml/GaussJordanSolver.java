@@ -0,0 +1,65 @@
+package com.homeprice.model.ml;
+
+/**
+ * Original solver: builds the explicit inverse with Gauss-Jordan elimination on an
+ * n x 2n augmented matrix, then multiplies it by the right-hand side.
+ * Kept for comparison; {@link CholeskySolver} and {@link QrSolver} are cheaper and avoid the explicit inverse.
+ */
+public class GaussJordanSolver implements Solver {
+
+    @Override
+    public double[] solve(double[] a, double[] b, int p) {
+        double[][] inv = invert(a, p);
+        double[] x = new double[p];
+        for (int i = 0; i < p; i++) {
+            double sum = 0;
+            for (int j = 0; j < p; j++) {
+                sum += inv[i][j] * b[j];
+            }
+            x[i] = sum;
+        }
+        return x;
+    }
+
+    /**
+     * Invert a square matrix using Gauss-Jordan elimination.
+     */
+    private static double[][] invert(double[] A, int n) {
+        double[][] a = new double[n][n * 2];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(A, i * n, a[i], 0, n);
+            a[i][n + i] = 1.0;
+        }
+        for (int col = 0; col < n; col++) {
+            int pivot = col;
+            for (int row = col + 1; row < n; row++) {
+                if (Math.abs(a[row][col]) > Math.abs(a[pivot][col])) {
+                    pivot = row;
+                }
+            }
+            double[] tmp = a[col];
+            a[col] = a[pivot];
+            a[pivot] = tmp;
+            double div = a[col][col];
+            if (Math.abs(div) < 1e-10) {
+                throw new IllegalArgumentException("Matrix is singular, cannot invert");
+            }
+            for (int j = 0; j < n * 2; j++) {
+                a[col][j] /= div;
+            }
+            for (int i = 0; i < n; i++) {
+                if (i != col) {
+                    double factor = a[i][col];
+                    for (int j = 0; j < n * 2; j++) {
+                        a[i][j] -= factor * a[col][j];
+                    }
+                }
+            }
+        }
+        double[][] inv = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(a[i], n, inv[i], 0, n);
+        }
+        return inv;
+    }
+}
@@ -0,0 +1,43 @@
+package com.homeprice.model.ml;
+
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Fork-join task that accumulates {@link NormalEquations} over a range of rows.
+ * Rows are split into fixed-size blocks and partials are merged left to right, so the
+ * reduction tree depends only on the row count: results are identical for any pool size.
+ */
+@SuppressWarnings("serial") // never serialized
+class GramTask extends RecursiveTask<NormalEquations> {
+
+    static final int BLOCK_ROWS = 2048;
+
+    private final DesignMatrix matrix;
+    private final int from;
+    private final int to;
+
+    GramTask(DesignMatrix matrix, int from, int to) {
+        this.matrix = matrix;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    protected NormalEquations compute() {
+        int rows = to - from;
+        if (rows <= BLOCK_ROWS) {
+            NormalEquations stats = new NormalEquations(matrix.columns());
+            stats.addRange(matrix, from, to);
+            return stats;
+        }
+        int blocks = (rows + BLOCK_ROWS - 1) / BLOCK_ROWS;
+        int mid = from + (blocks / 2) * BLOCK_ROWS;
+        GramTask left = new GramTask(matrix, from, mid);
+        GramTask right = new GramTask(matrix, mid, to);
+        left.fork();
+        NormalEquations rightStats = right.compute();
+        NormalEquations leftStats = left.join();
+        leftStats.merge(rightStats);
+        return leftStats;
+    }
+}
@@ -1,6 +1,7 @@
 package com.homeprice.model.ml;
 
 import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Simple Ordinary Least Squares (OLS) Linear Regression implementation in Java.
@@ -8,15 +9,45 @@ import java.util.Arrays;
  */
 public class LinearRegression {
 
+    private final Solver solver;
     private double[] weights; // coefficients including intercept
     private boolean fitted;
 
     public LinearRegression() {
+        this(new CholeskySolver());
+    }
+
+    public LinearRegression(Solver solver) {
+        if (solver == null) {
+            throw new IllegalArgumentException("Solver must not be null");
+        }
+        this.solver = solver;
         this.fitted = false;
     }
 
     /**
-     * Fit the model using normal equation: weights = (X'X)^(-1) X'y
+     * Create an already fitted model from known weights (e.g. loaded from a snapshot).
+     */
+    public static LinearRegression withWeights(double[] weights) {
+        return withWeights(weights, new CholeskySolver());
+    }
+
+    /**
+     * Create an already fitted model from known weights (e.g. found by an iterative optimizer);
+     * the solver is used if the model is later refitted from statistics.
+     */
+    public static LinearRegression withWeights(double[] weights, Solver solver) {
+        if (weights == null || weights.length == 0) {
+            throw new IllegalArgumentException("Weights must be non-null and non-empty");
+        }
+        LinearRegression model = new LinearRegression(solver);
+        model.weights = Arrays.copyOf(weights, weights.length);
+        model.fitted = true;
+        return model;
+    }
+
+    /**
+     * Fit the model using normal equation: (X'X) weights = X'y, solved by the configured {@link Solver}
      * X: design matrix (each row = one sample, first column = 1 for intercept)
      * y: target vector
      */
@@ -24,41 +55,65 @@ public class LinearRegression {
         if (X == null || y == null || X.length != y.length || X.length == 0) {
             throw new IllegalArgumentException("X and y must be non-null, same length, and non-empty");
         }
-        int n = X.length;
-        int p = X[0].length;
+        NormalEquations stats = new NormalEquations(X[0].length);
+        stats.addAll(X, y);
+        fit(stats);
+    }
 
-        // X'X (p x p)
-        double[][] XtX = new double[p][p];
-        for (int i = 0; i < p; i++) {
-            for (int j = 0; j < p; j++) {
-                double sum = 0;
-                for (int k = 0; k < n; k++) {
-                    sum += X[k][i] * X[k][j];
-                }
-                XtX[i][j] = sum;
-            }
+    /**
+     * Parallel variant of {@link #fit(double[][], double[])}: rows are split into blocks, each
+     * fork-join worker accumulates a partial X'X (upper triangle) and X'y, and the partials are
+     * reduced before the solve. The result does not depend on the pool size.
+     */
+    public void fit(double[][] X, double[] y, ForkJoinPool pool) {
+        if (X == null || y == null || X.length != y.length || X.length == 0) {
+            throw new IllegalArgumentException("X and y must be non-null, same length, and non-empty");
         }
+        fit(new ArrayDesignMatrix(X, y), pool);
+    }
 
-        // X'y (p x 1)
-        double[] Xty = new double[p];
-        for (int i = 0; i < p; i++) {
-            double sum = 0;
-            for (int k = 0; k < n; k++) {
-                sum += X[k][i] * y[k];
-            }
-            Xty[i] = sum;
+    /**
+     * Fit directly from a design matrix view (e.g. a columnar dataset) without copying it.
+     */
+    public void fit(DesignMatrix matrix) {
+        if (matrix == null || matrix.rows() == 0) {
+            throw new IllegalArgumentException("Design matrix must be non-null and non-empty");
         }
+        fit(NormalEquations.of(matrix, null));
+    }
 
-        // Solve (X'X) weights = X'y via matrix inverse
-        double[][] XtXInv = invert(XtX);
-        weights = new double[p];
-        for (int i = 0; i < p; i++) {
-            double sum = 0;
-            for (int j = 0; j < p; j++) {
-                sum += XtXInv[i][j] * Xty[j];
-            }
-            weights[i] = sum;
+    /**
+     * Parallel fit from a design matrix view; see {@link #fit(double[][], double[], ForkJoinPool)}.
+     */
+    public void fit(DesignMatrix matrix, ForkJoinPool pool) {
+        if (matrix == null || matrix.rows() == 0) {
+            throw new IllegalArgumentException("Design matrix must be non-null and non-empty");
         }
+        fit(NormalEquations.of(matrix, pool));
+    }
+
+    /**
+     * Fit the model from accumulated sufficient statistics (X'X, X'y).
+     * Use this to train incrementally: add rows or chunks to a {@link NormalEquations}
+     * as they are read, then finalize with a single solve.
+     */
+    public void fit(NormalEquations stats) {
+        if (stats == null || stats.count() == 0) {
+            throw new IllegalArgumentException("Statistics must be non-null and non-empty");
+        }
+        weights = solver.solve(stats.gram(), stats.xty(), stats.dimension());
+        fitted = true;
+    }
+
+    /**
+     * Fit from sparse statistics (e.g. one-hot or hashed locations) with the given number of columns.
+     * Solved by conjugate gradient; the configured {@link Solver} is only used for dense statistics.
+     */
+    public void fit(SparseNormalEquations stats, int columns, double ridge) {
+        if (stats == null || stats.count() == 0) {
+            throw new IllegalArgumentException("Statistics must be non-null and non-empty");
+        }
+        weights = stats.solve(columns, ridge);
         fitted = true;
     }
 
@@ -77,64 +132,104 @@ public class LinearRegression {
     }
 
     /**
-     * Predict for multiple samples.
+     * Predict for multiple samples. Model state and dimensions are checked once for the batch.
      */
     public double[] predict(double[][] X) {
+        checkFitted();
+        int p = weights.length;
         double[] result = new double[X.length];
         for (int i = 0; i < X.length; i++) {
-            result[i] = predict(X[i]);
+            double[] row = X[i];
+            if (row.length != p) {
+                throw new IllegalStateException("Model not fitted or feature dimension mismatch");
+            }
+            double sum = 0;
+            for (int j = 0; j < p; j++) {
+                sum += weights[j] * row[j];
+            }
+            result[i] = sum;
         }
         return result;
     }
 
-    public double[] getWeights() {
-        return weights == null ? null : Arrays.copyOf(weights, weights.length);
+    /**
+     * Batched prediction over a flat row-major buffer holding rows x p features (intercept first).
+     * Predictions are written to out[0, rows).
+     */
+    public void predict(double[] features, int rows, double[] out) {
+        checkFitted();
+        int p = weights.length;
+        if (features.length < rows * p || out.length < rows) {
+            throw new IllegalArgumentException("Feature buffer or output too small for " + rows + " rows");
+        }
+        for (int r = 0, base = 0; r < rows; r++, base += p) {
+            double sum = 0;
+            for (int j = 0; j < p; j++) {
+                sum += weights[j] * features[base + j];
+            }
+            out[r] = sum;
+        }
     }
 
-    public boolean isFitted() {
-        return fitted;
+    /**
+     * Predict for a sparse row given as parallel (column, value) arrays; O(nonzeros).
+     */
+    public double predict(int[] indices, double[] values, int nnz) {
+        checkFitted();
+        double sum = 0;
+        for (int k = 0; k < nnz; k++) {
+            sum += weights[indices[k]] * values[k];
+        }
+        return sum;
     }
 
     /**
-     * Invert a square matrix using Gauss-Jordan elimination.
+     * Predict for every row of a CSR matrix; O(nonzeros) overall.
      */
-    private static double[][] invert(double[][] A) {
-        int n = A.length;
-        double[][] a = new double[n][n * 2];
-        for (int i = 0; i < n; i++) {
-            System.arraycopy(A[i], 0, a[i], 0, n);
-            a[i][n + i] = 1.0;
-        }
-        for (int col = 0; col < n; col++) {
-            int pivot = col;
-            for (int row = col + 1; row < n; row++) {
-                if (Math.abs(a[row][col]) > Math.abs(a[pivot][col])) {
-                    pivot = row;
-                }
-            }
-            double[] tmp = a[col];
-            a[col] = a[pivot];
-            a[pivot] = tmp;
-            double div = a[col][col];
-            if (Math.abs(div) < 1e-10) {
-                throw new IllegalArgumentException("Matrix is singular, cannot invert");
-            }
-            for (int j = 0; j < n * 2; j++) {
-                a[col][j] /= div;
-            }
-            for (int i = 0; i < n; i++) {
-                if (i != col) {
-                    double factor = a[i][col];
-                    for (int j = 0; j < n * 2; j++) {
-                        a[i][j] -= factor * a[col][j];
-                    }
-                }
+    public double[] predict(SparseMatrix matrix) {
+        checkFitted();
+        if (matrix.columns() != weights.length) {
+            throw new IllegalStateException("Model not fitted or feature dimension mismatch");
+        }
+        double[] result = new double[matrix.rows()];
+        for (int r = 0; r < result.length; r++) {
+            double sum = 0;
+            for (int k = matrix.rowStart(r), end = matrix.rowEnd(r); k < end; k++) {
+                sum += weights[matrix.index(k)] * matrix.value(k);
             }
+            result[r] = sum;
         }
-        double[][] inv = new double[n][n];
-        for (int i = 0; i < n; i++) {
-            System.arraycopy(a[i], n, inv[i], 0, n);
+        return result;
+    }
+
+    /**
+     * Predict for every row of a design matrix view, reusing a single row buffer.
+     */
+    public double[] predict(DesignMatrix matrix) {
+        double[] result = new double[matrix.rows()];
+        double[] row = new double[matrix.columns()];
+        for (int i = 0; i < result.length; i++) {
+            matrix.copyRow(i, row);
+            result[i] = predict(row);
+        }
+        return result;
+    }
+
+    private void checkFitted() {
+        if (!fitted || weights == null) {
+            throw new IllegalStateException("Model not fitted");
         }
-        return inv;
+    }
+
+    public double[] getWeights() {
+        return weights == null ? null : Arrays.copyOf(weights, weights.length);
+    }
+
+    public boolean isFitted() {
+        return fitted;
+    }
+
+    public Solver getSolver() {
+        return solver;
     }
 }
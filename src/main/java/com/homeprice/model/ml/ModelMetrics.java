@@ -0,0 +1,37 @@
+package com.homeprice.model.ml;
+
+/**
+ * Evaluation metrics of a trained model on its held-out test set.
+ */
+public final class ModelMetrics {
+
+    private final double mae;
+    private final double rmse;
+    private final long trainSamples;
+    private final long testSamples;
+
+    public ModelMetrics(double mae, double rmse, long trainSamples, long testSamples) {
+        this.mae = mae;
+        this.rmse = rmse;
+        this.trainSamples = trainSamples;
+        this.testSamples = testSamples;
+    }
+
+    /** Mean absolute error on the test set, in INR. */
+    public double getMae() {
+        return mae;
+    }
+
+    /** Root mean squared error on the test set, in INR. */
+    public double getRmse() {
+        return rmse;
+    }
+
+    public long getTrainSamples() {
+        return trainSamples;
+    }
+
+    public long getTestSamples() {
+        return testSamples;
+    }
+}
@@ -0,0 +1,217 @@
+package com.homeprice.model.ml;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Sufficient statistics for Ordinary Least Squares: X'X, X'y, y'y and the row count.
+ * Rows can be added one at a time or in chunks, so the design matrix never has to be
+ * held in memory; memory use is O(p^2) regardless of the number of rows.
+ * Only the upper triangle of X'X is accumulated; {@link #gram()} mirrors it on read.
+ */
+public class NormalEquations {
+
+    private final int p;
+    private final double[] gram; // row-major p x p, upper triangle only
+    private final double[] xty;
+    private double yty;
+    private long count;
+
+    public NormalEquations(int p) {
+        if (p <= 0) {
+            throw new IllegalArgumentException("Feature dimension must be positive");
+        }
+        this.p = p;
+        this.gram = new double[p * p];
+        this.xty = new double[p];
+    }
+
+    /**
+     * Independent copy of another accumulator.
+     */
+    public NormalEquations(NormalEquations other) {
+        this.p = other.p;
+        this.gram = other.gram.clone();
+        this.xty = other.xty.clone();
+        this.yty = other.yty;
+        this.count = other.count;
+    }
+
+    /**
+     * Statistics restored from their parts (e.g. read back from a model snapshot): the full symmetric
+     * X'X as a row-major p x p array, as returned by {@link #gram()}, X'y, y'y and the row count.
+     */
+    public NormalEquations(double[] gram, double[] xty, double yty, long count) {
+        this(xty.length);
+        if (gram.length != p * p) {
+            throw new IllegalArgumentException("Expected a " + p + " x " + p + " X'X");
+        }
+        for (int i = 0; i < p; i++) {
+            System.arraycopy(gram, i * p + i, this.gram, i * p + i, p - i);
+        }
+        System.arraycopy(xty, 0, this.xty, 0, p);
+        this.yty = yty;
+        this.count = count;
+    }
+
+    /**
+     * Statistics of all rows of a design matrix, accumulated on the fork-join pool if one is given
+     * (the result does not depend on the pool size) or sequentially otherwise.
+     */
+    public static NormalEquations of(DesignMatrix matrix, ForkJoinPool pool) {
+        if (pool != null) {
+            return pool.invoke(new GramTask(matrix, 0, matrix.rows()));
+        }
+        NormalEquations stats = new NormalEquations(matrix.columns());
+        stats.addAll(matrix);
+        return stats;
+    }
+
+    /**
+     * Add a single row (feature vector including the intercept 1.0) and its target.
+     */
+    public void add(double[] x, double y) {
+        if (x.length != p) {
+            throw new IllegalArgumentException("Expected " + p + " features but got " + x.length);
+        }
+        for (int i = 0; i < p; i++) {
+            double xi = x[i];
+            if (xi == 0) continue;
+            int base = i * p;
+            for (int j = i; j < p; j++) {
+                gram[base + j] += xi * x[j];
+            }
+            xty[i] += xi * y;
+        }
+        yty += y * y;
+        count++;
+    }
+
+    /**
+     * Add a chunk of rows.
+     */
+    public void addAll(double[][] X, double[] y) {
+        addRange(X, y, 0, X.length);
+    }
+
+    /**
+     * Add rows [from, to) of a chunk.
+     */
+    public void addRange(double[][] X, double[] y, int from, int to) {
+        if (X.length != y.length) {
+            throw new IllegalArgumentException("X and y must have the same length");
+        }
+        for (int k = from; k < to; k++) {
+            add(X[k], y[k]);
+        }
+    }
+
+    /**
+     * Add all rows of a design matrix view.
+     */
+    public void addAll(DesignMatrix matrix) {
+        addRange(matrix, 0, matrix.rows());
+    }
+
+    /**
+     * Add rows [from, to) of a design matrix view, reusing a single row buffer.
+     */
+    public void addRange(DesignMatrix matrix, int from, int to) {
+        if (matrix.columns() != p) {
+            throw new IllegalArgumentException("Expected " + p + " features but got " + matrix.columns());
+        }
+        double[] row = new double[p];
+        for (int k = from; k < to; k++) {
+            matrix.copyRow(k, row);
+            add(row, matrix.target(k));
+        }
+    }
+
+    /**
+     * Fold another accumulator of the same dimension into this one.
+     */
+    public void merge(NormalEquations other) {
+        if (other.p != p) {
+            throw new IllegalArgumentException("Cannot merge statistics of different dimensions");
+        }
+        for (int i = 0; i < gram.length; i++) {
+            gram[i] += other.gram[i];
+        }
+        for (int i = 0; i < p; i++) {
+            xty[i] += other.xty[i];
+        }
+        yty += other.yty;
+        count += other.count;
+    }
+
+    /**
+     * Remove the statistics of a subset of the rows accumulated here (e.g. a held-out fold), leaving
+     * those of the remaining rows without another pass over them.
+     */
+    public void subtract(NormalEquations other) {
+        if (other.p != p) {
+            throw new IllegalArgumentException("Cannot subtract statistics of different dimensions");
+        }
+        for (int i = 0; i < gram.length; i++) {
+            gram[i] -= other.gram[i];
+        }
+        for (int i = 0; i < p; i++) {
+            xty[i] -= other.xty[i];
+        }
+        yty -= other.yty;
+        count -= other.count;
+    }
+
+    /**
+     * Exponential forgetting: down-weight everything accumulated so far by factor (0 &lt; factor &lt;= 1),
+     * so rows added afterwards count relatively more. The row count is not scaled.
+     */
+    public void scale(double factor) {
+        if (!(factor > 0 && factor <= 1)) {
+            throw new IllegalArgumentException("Forgetting factor must be in (0, 1]");
+        }
+        if (factor == 1) {
+            return;
+        }
+        for (int i = 0; i < gram.length; i++) {
+            gram[i] *= factor;
+        }
+        for (int i = 0; i < p; i++) {
+            xty[i] *= factor;
+        }
+        yty *= factor;
+    }
+
+    public int dimension() {
+        return p;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    /**
+     * Full symmetric X'X as a fresh row-major p x p array.
+     */
+    public double[] gram() {
+        double[] full = new double[p * p];
+        for (int i = 0; i < p; i++) {
+            for (int j = i; j < p; j++) {
+                double v = gram[i * p + j];
+                full[i * p + j] = v;
+                full[j * p + i] = v;
+            }
+        }
+        return full;
+    }
+
+    /**
+     * X'y as a fresh array.
+     */
+    public double[] xty() {
+        return xty.clone();
+    }
+
+    public double yty() {
+        return yty;
+    }
+}
@@ -0,0 +1,30 @@
+package com.homeprice.model.ml;
+
+import java.util.Locale;
+
+/**
+ * How the model weights are found, selectable by name (e.g. from configuration).
+ */
+public enum OptimizerType {
+
+    /** Solve the normal equations directly (see {@link SolverType}). */
+    NORMAL_EQUATIONS,
+    /** Mini-batch stochastic gradient descent ({@link SgdRegression}). */
+    SGD,
+    /** Lasso / elastic net by coordinate descent on X'X ({@link CoordinateDescent}). */
+    COORDINATE_DESCENT;
+
+    /**
+     * Parse a name such as "normal-equations", "sgd" or "coordinate-descent".
+     */
+    public static OptimizerType fromName(String name) {
+        if (name == null || name.isBlank()) {
+            return NORMAL_EQUATIONS;
+        }
+        try {
+            return valueOf(name.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown optimizer: " + name);
+        }
+    }
+}
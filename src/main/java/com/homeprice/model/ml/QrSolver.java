@@ -0,0 +1,121 @@
+package com.homeprice.model.ml;
+
+/**
+ * Householder QR solver with column pivoting, working in place on a flat row-major matrix.
+ * Rank-deficient systems (collinear features) do not fail: columns whose remaining norm
+ * falls below the tolerance are treated as dependent and get a zero coefficient.
+ * <p>
+ * Like every {@link Solver}, it factors the p x p matrix X'X, not the design rows X, so the system
+ * it solves already has the squared condition number cond(X)^2: it is no more accurate than
+ * {@link CholeskySolver} on an ill-conditioned but full-rank problem. What it adds is rank
+ * detection without a ridge penalty. The stability of QR proper would need the rows themselves
+ * (e.g. a streaming R factor), which the statistics-based training paths do not keep.
+ */
+public class QrSolver implements Solver {
+
+    private static final double EPS = 1e-10;
+
+    @Override
+    public double[] solve(double[] a, double[] b, int p) {
+        int[] perm = new int[p];
+        double[] norms = new double[p];
+        for (int j = 0; j < p; j++) {
+            perm[j] = j;
+            double s = 0;
+            for (int i = 0; i < p; i++) {
+                s += a[i * p + j] * a[i * p + j];
+            }
+            norms[j] = s;
+        }
+        double maxNorm = 0;
+        for (double n : norms) {
+            maxNorm = Math.max(maxNorm, n);
+        }
+        double tol = EPS * EPS * Math.max(maxNorm, 1.0);
+
+        int rank = 0;
+        for (int k = 0; k < p; k++) {
+            // Pivot: bring the column with the largest remaining norm to position k
+            int pivot = k;
+            for (int j = k + 1; j < p; j++) {
+                if (norms[j] > norms[pivot]) pivot = j;
+            }
+            if (norms[pivot] <= tol) {
+                break;
+            }
+            if (pivot != k) {
+                for (int i = 0; i < p; i++) {
+                    double t = a[i * p + k];
+                    a[i * p + k] = a[i * p + pivot];
+                    a[i * p + pivot] = t;
+                }
+                double tn = norms[k];
+                norms[k] = norms[pivot];
+                norms[pivot] = tn;
+                int tp = perm[k];
+                perm[k] = perm[pivot];
+                perm[pivot] = tp;
+            }
+
+            // Householder vector for column k, rows k..p-1 (stored in place below the diagonal)
+            double alpha = 0;
+            for (int i = k; i < p; i++) {
+                alpha += a[i * p + k] * a[i * p + k];
+            }
+            alpha = Math.sqrt(alpha);
+            if (a[k * p + k] > 0) alpha = -alpha;
+            double v0 = a[k * p + k] - alpha;
+            double vNorm = v0 * v0;
+            for (int i = k + 1; i < p; i++) {
+                vNorm += a[i * p + k] * a[i * p + k];
+            }
+            a[k * p + k] = v0;
+            if (vNorm > 0) {
+                // Apply H = I - 2 v v' / (v'v) to the remaining columns and to b
+                for (int j = k + 1; j < p; j++) {
+                    double dot = 0;
+                    for (int i = k; i < p; i++) {
+                        dot += a[i * p + k] * a[i * p + j];
+                    }
+                    double f = 2 * dot / vNorm;
+                    for (int i = k; i < p; i++) {
+                        a[i * p + j] -= f * a[i * p + k];
+                    }
+                }
+                double dot = 0;
+                for (int i = k; i < p; i++) {
+                    dot += a[i * p + k] * b[i];
+                }
+                double f = 2 * dot / vNorm;
+                for (int i = k; i < p; i++) {
+                    b[i] -= f * a[i * p + k];
+                }
+            }
+            a[k * p + k] = alpha;
+            // Remaining column norms over rows below k (recomputed to avoid cancellation)
+            for (int j = k + 1; j < p; j++) {
+                double s = 0;
+                for (int i = k + 1; i < p; i++) {
+                    s += a[i * p + j] * a[i * p + j];
+                }
+                norms[j] = s;
+            }
+            rank++;
+        }
+
+        // Back substitution on the leading rank x rank block of R; dependent columns get 0
+        double[] z = new double[p];
+        for (int i = rank - 1; i >= 0; i--) {
+            double s = b[i];
+            for (int j = i + 1; j < rank; j++) {
+                s -= a[i * p + j] * z[j];
+            }
+            z[i] = s / a[i * p + i];
+        }
+        double[] x = new double[p];
+        for (int j = 0; j < p; j++) {
+            x[perm[j]] = z[j];
+        }
+        return x;
+    }
+}
@@ -0,0 +1,146 @@
+package com.homeprice.model.ml;
+
+/**
+ * Streaming quantile sketch with relative accuracy (DDSketch-style). A positive value x is counted in
+ * log-spaced bucket ceil(log(x) / log(gamma)), gamma = (1 + accuracy) / (1 - accuracy), so every
+ * quantile is estimated within the relative accuracy of the true value, at the tails as well as at
+ * the median. Adding is one logarithm and one array increment; memory is one counter per bucket
+ * between the smallest and largest value seen (about 920 for 1e5 to 1e9 at 0.5%).
+ * <p>
+ * Sketches built on separate parts of the data {@link #merge merge} by adding bucket counts, so the
+ * result is the same for any split and merge order. Values that are not positive are counted
+ * separately and estimated as the exact minimum. Not thread-safe.
+ */
+public final class QuantileSketch {
+
+    private final double relativeAccuracy;
+    private final double gamma;
+    private final double inverseLogGamma;
+    private long[] counts = new long[0];
+    private int offset; // bucket index of counts[0]
+    private long nonPositive;
+    private long count;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public QuantileSketch(double relativeAccuracy) {
+        if (!(relativeAccuracy > 0 && relativeAccuracy < 1)) {
+            throw new IllegalArgumentException("Relative accuracy must be in (0, 1)");
+        }
+        this.relativeAccuracy = relativeAccuracy;
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.inverseLogGamma = 1 / Math.log(gamma);
+    }
+
+    /** Count one value; NaN and infinities are ignored. */
+    public void add(double value) {
+        if (!Double.isFinite(value)) {
+            return;
+        }
+        count++;
+        if (value < min) min = value;
+        if (value > max) max = value;
+        if (value <= 0) {
+            nonPositive++;
+            return;
+        }
+        int bucket = (int) Math.ceil(Math.log(value) * inverseLogGamma);
+        int slot = bucket - offset;
+        if (slot < 0 || slot >= counts.length) {
+            slot = cover(bucket, bucket);
+        }
+        counts[slot]++;
+    }
+
+    /** Add another sketch's counts (it must have the same relative accuracy). */
+    public void merge(QuantileSketch other) {
+        if (other.relativeAccuracy != relativeAccuracy) {
+            throw new IllegalArgumentException("Cannot merge sketches with different relative accuracy");
+        }
+        if (other.count == 0) {
+            return;
+        }
+        count += other.count;
+        nonPositive += other.nonPositive;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        int first = -1;
+        int last = -1;
+        for (int i = 0; i < other.counts.length; i++) {
+            if (other.counts[i] != 0) {
+                if (first < 0) first = i;
+                last = i;
+            }
+        }
+        if (first < 0) {
+            return;
+        }
+        cover(other.offset + first, other.offset + last);
+        for (int i = first; i <= last; i++) {
+            counts[other.offset + i - offset] += other.counts[i];
+        }
+    }
+
+    /** Grow the bucket array to include buckets [from, to]; returns the slot of from. */
+    private int cover(int from, int to) {
+        if (counts.length == 0) {
+            int length = Math.max(64, to - from + 1);
+            counts = new long[length];
+            offset = from - (length - (to - from + 1)) / 2;
+            return from - offset;
+        }
+        int low = Math.min(from, offset);
+        int high = Math.max(to, offset + counts.length - 1);
+        if (low < offset || high >= offset + counts.length) {
+            int margin = Math.max(16, (high - low + 1) / 4);
+            low -= from < offset ? margin : 0;
+            high += to >= offset + counts.length ? margin : 0;
+            long[] grown = new long[high - low + 1];
+            System.arraycopy(counts, 0, grown, offset - low, counts.length);
+            counts = grown;
+            offset = low;
+        }
+        return from - offset;
+    }
+
+    /** Number of values counted, including merged sketches. */
+    public long size() {
+        return count;
+    }
+
+    public double min() {
+        return count > 0 ? min : Double.NaN;
+    }
+
+    public double max() {
+        return count > 0 ? max : Double.NaN;
+    }
+
+    /**
+     * Estimated value at quantile q in [0, 1] (the value of rank q * (size - 1)), or NaN if empty.
+     * Exact at 0 and 1; otherwise within the relative accuracy, clamped to [min, max].
+     */
+    public double quantile(double q) {
+        if (!(q >= 0 && q <= 1)) {
+            throw new IllegalArgumentException("Quantile must be in [0, 1]");
+        }
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (q == 0) return min;
+        if (q == 1) return max;
+        long rank = (long) Math.floor(q * (count - 1));
+        if (rank < nonPositive) {
+            return min;
+        }
+        long seen = nonPositive;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen > rank) {
+                double estimate = 2 * Math.pow(gamma, offset + i) / (gamma + 1);
+                return Math.min(max, Math.max(min, estimate));
+            }
+        }
+        return max;
+    }
+}
@@ -0,0 +1,156 @@
+package com.homeprice.model.ml;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, serving-optimized form of a trained model and its location dictionary.
+ * Location lookups are a single hash probe, and each location has its own precomputed
+ * coefficient row [intercept, squareFeet, bhk, bathrooms], so the location term is folded
+ * into the intercept and scoring is three multiply-adds with no allocation.
+ * A location can instead have its own model (a shard fitted on that location's rows only);
+ * routing to it is the same O(1) row lookup. Unknown locations score as location index 0.
+ */
+public final class ScoringModel {
+
+    /** Coefficients per location: intercept, square feet, bhk, bathrooms. */
+    public static final int STRIDE = 4;
+
+    private final List<String> locations;
+    private final Map<String, Integer> indexByLocation;
+    private final double[] coefficients; // locations x STRIDE, row-major
+    private final boolean[] sharded;    // location has its own model
+
+    private ScoringModel(List<String> locations, double[] coefficients, boolean[] sharded) {
+        this.locations = List.copyOf(locations);
+        Map<String, Integer> index = new HashMap<>(Math.max(16, locations.size() * 2));
+        for (int i = 0; i < this.locations.size(); i++) {
+            index.putIfAbsent(this.locations.get(i), i);
+        }
+        this.indexByLocation = index;
+        this.coefficients = coefficients;
+        this.sharded = sharded;
+    }
+
+    /**
+     * Build from a model over [1, squareFeet, bhk, bathrooms, locationIndex].
+     */
+    public static ScoringModel of(LinearRegression model, List<String> locations) {
+        return of(model, locations, null);
+    }
+
+    /**
+     * Build from a global model over [1, squareFeet, bhk, bathrooms, locationIndex] and optional
+     * per-location shard weights [intercept, squareFeet, bhk, bathrooms]; locations whose entry is
+     * null (or beyond the array) are scored by the global model.
+     */
+    public static ScoringModel of(LinearRegression model, List<String> locations, double[][] shardWeights) {
+        double[] w = model.getWeights();
+        if (w == null || w.length != STRIDE + 1) {
+            throw new IllegalArgumentException("Expected a fitted model with " + (STRIDE + 1) + " weights");
+        }
+        int rows = Math.max(1, locations.size());
+        double[] coefficients = new double[rows * STRIDE];
+        boolean[] sharded = new boolean[rows];
+        for (int loc = 0; loc < rows; loc++) {
+            int base = loc * STRIDE;
+            double[] shard = shardWeights != null && loc < shardWeights.length ? shardWeights[loc] : null;
+            if (shard != null) {
+                if (shard.length != STRIDE) {
+                    throw new IllegalArgumentException("Expected " + STRIDE + " shard weights for location " + loc);
+                }
+                System.arraycopy(shard, 0, coefficients, base, STRIDE);
+                sharded[loc] = true;
+                continue;
+            }
+            coefficients[base] = w[0] + w[4] * loc;
+            coefficients[base + 1] = w[1];
+            coefficients[base + 2] = w[2];
+            coefficients[base + 3] = w[3];
+        }
+        return new ScoringModel(locations, coefficients, sharded);
+    }
+
+    /**
+     * Same shards as this model, with every other location scored by a new global model
+     * (e.g. after an incremental update of the global weights).
+     */
+    public ScoringModel withGlobalModel(LinearRegression model, List<String> locations) {
+        return of(model, locations, getShardWeights());
+    }
+
+    /**
+     * Weights [intercept, squareFeet, bhk, bathrooms] per location, null where the location is
+     * scored by the global model.
+     */
+    public double[][] getShardWeights() {
+        double[][] shards = new double[sharded.length][];
+        for (int loc = 0; loc < sharded.length; loc++) {
+            if (sharded[loc]) {
+                shards[loc] = Arrays.copyOfRange(coefficients, loc * STRIDE, (loc + 1) * STRIDE);
+            }
+        }
+        return shards;
+    }
+
+    /**
+     * Coefficient row [intercept, squareFeet, bhk, bathrooms] a location is scored with (a copy;
+     * out-of-range indices get location 0's row, as in {@link #predict(double, int, int, int)}).
+     */
+    public double[] coefficients(int locationIndex) {
+        int base = locationIndex >= 0 && locationIndex * STRIDE < coefficients.length ? locationIndex * STRIDE : 0;
+        return Arrays.copyOfRange(coefficients, base, base + STRIDE);
+    }
+
+    /** Number of locations with their own model. */
+    public int shardCount() {
+        int count = 0;
+        for (boolean s : sharded) {
+            if (s) count++;
+        }
+        return count;
+    }
+
+    /** Location names in encoding order (immutable). */
+    public List<String> getLocations() {
+        return locations;
+    }
+
+    /**
+     * Encoded index of the location, or 0 if it is unknown.
+     */
+    public int locationIndex(String location) {
+        Integer idx = location != null ? indexByLocation.get(location) : null;
+        return idx != null ? idx : 0;
+    }
+
+    /**
+     * Predicted price for a location index (out-of-range indices score as 0).
+     */
+    public double predict(double squareFeet, int bhk, int bathrooms, int locationIndex) {
+        int base = locationIndex >= 0 && locationIndex * STRIDE < coefficients.length ? locationIndex * STRIDE : 0;
+        double[] c = coefficients;
+        return c[base] + c[base + 1] * squareFeet + c[base + 2] * bhk + c[base + 3] * bathrooms;
+    }
+
+    public double predict(double squareFeet, int bhk, int bathrooms, String location) {
+        return predict(squareFeet, bhk, bathrooms, locationIndex(location));
+    }
+
+    /**
+     * Batched prediction over a flat buffer of feature rows [1, squareFeet, bhk, bathrooms,
+     * locationIndex] (STRIDE + 1 values each). Predictions are written to out[0, rows).
+     */
+    public void predict(double[] features, int rows, double[] out) {
+        int p = STRIDE + 1;
+        if (features.length < rows * p || out.length < rows) {
+            throw new IllegalArgumentException("Feature buffer or output too small for " + rows + " rows");
+        }
+        for (int r = 0, base = 0; r < rows; r++, base += p) {
+            out[r] = predict(features[base + 1], (int) features[base + 2], (int) features[base + 3],
+                    (int) features[base + 4]);
+        }
+    }
+}
@@ -0,0 +1,329 @@
+package com.homeprice.model.ml;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Linear regression by mini-batch stochastic gradient descent with L1 / L2 penalties, over CSR rows.
+ * Each step costs O(nonzeros of the batch), whatever the number of columns, so it suits very wide
+ * (e.g. hashed) or very tall data where X'X is too large or too costly to form.
+ * <p>
+ * Columns are scaled to unit variance and the target is standardized, so one learning rate fits all
+ * features; the returned weights are on the original scale. Only dense columns (nonzero in at least
+ * half of the rows) are also centered, which keeps rows sparse while removing the correlation with the
+ * intercept that would otherwise slow convergence. Column 0 must be the intercept (always 1.0); it is
+ * not penalized. On a fork-join pool, each worker runs mini-batches over its own
+ * slice of the shuffled rows and updates the shared weights without locking (Hogwild): with sparse
+ * rows, workers rarely touch the same weights, and the occasional lost update does not stop convergence.
+ * With a validation set, training stops once the validation error has not improved for
+ * {@code patience} epochs, and the best weights seen are returned.
+ */
+public class SgdRegression {
+
+    private static final double MIN_IMPROVEMENT = 1e-6;
+
+    private final double learningRate;
+    private final double l1;
+    private final double l2;
+    private final int batchSize;
+    private final int maxEpochs;
+    private final int patience;
+    private final long seed;
+    private int epochs;
+
+    public SgdRegression(double learningRate, double l1, double l2, int batchSize, int maxEpochs, int patience,
+                         long seed) {
+        if (!(learningRate > 0) || Double.isInfinite(learningRate)) {
+            throw new IllegalArgumentException("Learning rate must be positive");
+        }
+        if (!(l1 >= 0) || !(l2 >= 0)) {
+            throw new IllegalArgumentException("L1 and L2 penalties must be non-negative");
+        }
+        if (batchSize <= 0 || maxEpochs <= 0 || patience <= 0) {
+            throw new IllegalArgumentException("Batch size, epochs and patience must be positive");
+        }
+        this.learningRate = learningRate;
+        this.l1 = l1;
+        this.l2 = l2;
+        this.batchSize = batchSize;
+        this.maxEpochs = maxEpochs;
+        this.patience = patience;
+        this.seed = seed;
+    }
+
+    /**
+     * Fit on the training rows; validation may be null (or empty) to always run maxEpochs.
+     * Runs on the pool if one is given, sequentially otherwise.
+     */
+    public double[] fit(SparseMatrix train, SparseMatrix validation, ForkJoinPool pool) {
+        if (train == null || train.rows() == 0) {
+            throw new IllegalArgumentException("Training rows must be non-null and non-empty");
+        }
+        int p = train.columns();
+        int n = train.rows();
+        Scaling scaling = Scaling.of(train);
+        double mean = 0;
+        for (int r = 0; r < n; r++) {
+            mean += train.target(r);
+        }
+        mean /= n;
+        double variance = 0;
+        for (int r = 0; r < n; r++) {
+            double d = train.target(r) - mean;
+            variance += d * d;
+        }
+        scaling = scaling.withTarget(mean, variance > 0 ? Math.sqrt(variance / n) : 1.0);
+
+        double[] w = new double[p];
+        double[] best = null;
+        double bestLoss = Double.POSITIVE_INFINITY;
+        boolean validate = validation != null && validation.rows() > 0;
+        int workers = pool == null ? 1 : Math.max(1, Math.min(pool.getParallelism(), n / batchSize));
+        Worker[] state = new Worker[workers];
+        for (int t = 0; t < workers; t++) {
+            state[t] = new Worker(p, scaling);
+        }
+        int[] order = new int[n];
+        for (int r = 0; r < n; r++) {
+            order[r] = r;
+        }
+        Random random = new Random(seed);
+        int stale = 0;
+        epochs = 0;
+        for (int epoch = 0; epoch < maxEpochs; epoch++) {
+            shuffle(order, random);
+            double rate = learningRate / Math.sqrt(1.0 + epoch);
+            if (workers == 1) {
+                state[0].run(train, order, 0, n, w, rate);
+            } else {
+                List<ForkJoinTask<?>> tasks = new ArrayList<>(workers);
+                for (int t = 0; t < workers; t++) {
+                    int from = (int) ((long) n * t / workers);
+                    int to = (int) ((long) n * (t + 1) / workers);
+                    Worker worker = state[t];
+                    tasks.add(pool.submit(() -> worker.run(train, order, from, to, w, rate)));
+                }
+                for (ForkJoinTask<?> task : tasks) {
+                    task.join();
+                }
+            }
+            epochs = epoch + 1;
+            double loss = meanSquaredError(validate ? validation : train, w, scaling);
+            if (!Double.isFinite(loss)) {
+                throw new IllegalArgumentException("SGD diverged after " + epochs + " epochs; lower the learning rate");
+            }
+            if (!validate) {
+                continue;
+            }
+            if (loss < bestLoss * (1 - MIN_IMPROVEMENT)) {
+                bestLoss = loss;
+                best = w.clone();
+                stale = 0;
+            } else if (++stale >= patience) {
+                break;
+            }
+        }
+        return scaling.unscale(best != null ? best : w);
+    }
+
+    /** Epochs run by the last {@link #fit}. */
+    public int getEpochs() {
+        return epochs;
+    }
+
+    private static double meanSquaredError(SparseMatrix matrix, double[] w, Scaling scaling) {
+        int[] columns = new int[scaling.maxEntries(matrix)];
+        double[] values = new double[columns.length];
+        double sum = 0;
+        for (int r = 0; r < matrix.rows(); r++) {
+            int count = scaling.expand(matrix, r, columns, values);
+            double err = dot(w, columns, values, count) - scaling.target(matrix, r);
+            sum += err * err;
+        }
+        return sum / matrix.rows();
+    }
+
+    private static double dot(double[] w, int[] columns, double[] values, int count) {
+        double sum = 0;
+        for (int k = 0; k < count; k++) {
+            sum += w[columns[k]] * values[k];
+        }
+        return sum;
+    }
+
+    private static void shuffle(int[] order, Random random) {
+        for (int i = order.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = order[i];
+            order[i] = order[j];
+            order[j] = t;
+        }
+    }
+
+    /**
+     * Feature and target scaling. Scaled feature j is (x_j - center_j) * inverseScale_j, where
+     * center_j is nonzero only for the dense columns listed in denseColumns.
+     */
+    private record Scaling(double[] center, double[] inverseScale, int[] denseColumns, int[] denseSlot,
+                           double targetMean, double targetScale) {
+
+        static Scaling of(SparseMatrix matrix) {
+            int p = matrix.columns();
+            double n = matrix.rows();
+            double[] sum = new double[p];
+            double[] sumSquares = new double[p];
+            int[] nonZeros = new int[p];
+            for (int k = 0; k < matrix.nonZeros(); k++) {
+                int j = matrix.index(k);
+                double v = matrix.value(k);
+                sum[j] += v;
+                sumSquares[j] += v * v;
+                nonZeros[j]++;
+            }
+            double[] center = new double[p];
+            double[] inverseScale = new double[p];
+            int[] denseSlot = new int[p];
+            int dense = 0;
+            for (int j = 0; j < p; j++) {
+                denseSlot[j] = -1;
+                inverseScale[j] = 1.0;
+                if (j == 0) continue; // intercept: neither centered nor scaled
+                double mean = sum[j] / n;
+                boolean centered = nonZeros[j] * 2 >= n;
+                double variance = centered ? sumSquares[j] / n - mean * mean : sumSquares[j] / n;
+                if (variance > 1e-12 * (sumSquares[j] / n)) {
+                    inverseScale[j] = 1 / Math.sqrt(variance);
+                    if (centered) {
+                        center[j] = mean;
+                        denseSlot[j] = dense++;
+                    }
+                }
+            }
+            int[] denseColumns = new int[dense];
+            for (int j = 0; j < p; j++) {
+                if (denseSlot[j] >= 0) {
+                    denseColumns[denseSlot[j]] = j;
+                }
+            }
+            return new Scaling(center, inverseScale, denseColumns, denseSlot, 0, 1);
+        }
+
+        Scaling withTarget(double mean, double scale) {
+            return new Scaling(center, inverseScale, denseColumns, denseSlot, mean, scale);
+        }
+
+        /** Upper bound on the entries {@link #expand} writes for any row of the matrix. */
+        int maxEntries(SparseMatrix matrix) {
+            int max = 0;
+            for (int r = 0; r < matrix.rows(); r++) {
+                max = Math.max(max, matrix.rowEnd(r) - matrix.rowStart(r));
+            }
+            return max + denseColumns.length;
+        }
+
+        /**
+         * Scaled entries of one row: the row's sparse columns, then every dense column.
+         * Returns the number of entries written.
+         */
+        int expand(SparseMatrix matrix, int row, int[] columns, double[] values) {
+            int dense = denseColumns.length;
+            for (int d = 0; d < dense; d++) {
+                int j = denseColumns[d];
+                columns[d] = j;
+                values[d] = -center[j] * inverseScale[j];
+            }
+            int count = dense;
+            for (int k = matrix.rowStart(row), end = matrix.rowEnd(row); k < end; k++) {
+                int j = matrix.index(k);
+                double v = matrix.value(k) * inverseScale[j];
+                int slot = denseSlot[j];
+                if (slot >= 0) {
+                    values[slot] += v;
+                } else {
+                    columns[count] = j;
+                    values[count++] = v;
+                }
+            }
+            return count;
+        }
+
+        double target(SparseMatrix matrix, int row) {
+            return (matrix.target(row) - targetMean) / targetScale;
+        }
+
+        /** Weights on the original feature and target scale. */
+        double[] unscale(double[] w) {
+            double[] weights = new double[w.length];
+            double intercept = w[0];
+            for (int j = 1; j < w.length; j++) {
+                weights[j] = w[j] * inverseScale[j] * targetScale;
+                intercept -= w[j] * center[j] * inverseScale[j];
+            }
+            weights[0] = targetMean + intercept * targetScale;
+            return weights;
+        }
+    }
+
+    /** Per-worker gradient buffer; only the columns touched by a batch are updated and cleared. */
+    private final class Worker {
+
+        private final double[] gradient;
+        private final boolean[] seen;
+        private final Scaling scaling;
+        private int[] touched = new int[64];
+        private int[] columns = new int[0];
+        private double[] values = new double[0];
+
+        Worker(int p, Scaling scaling) {
+            this.gradient = new double[p];
+            this.seen = new boolean[p];
+            this.scaling = scaling;
+        }
+
+        void run(SparseMatrix matrix, int[] order, int from, int to, double[] w, double rate) {
+            if (columns.length == 0) {
+                columns = new int[scaling.maxEntries(matrix)];
+                values = new double[columns.length];
+            }
+            for (int start = from; start < to; start += batchSize) {
+                int end = Math.min(to, start + batchSize);
+                int count = 0;
+                for (int i = start; i < end; i++) {
+                    int row = order[i];
+                    int entries = scaling.expand(matrix, row, columns, values);
+                    double err = dot(w, columns, values, entries) - scaling.target(matrix, row);
+                    for (int k = 0; k < entries; k++) {
+                        int j = columns[k];
+                        if (!seen[j]) {
+                            seen[j] = true;
+                            if (count == touched.length) {
+                                touched = Arrays.copyOf(touched, count * 2);
+                            }
+                            touched[count++] = j;
+                        }
+                        gradient[j] += err * values[k];
+                    }
+                }
+                double step = rate / (end - start);
+                for (int t = 0; t < count; t++) {
+                    int j = touched[t];
+                    double wj = w[j] - step * gradient[j];
+                    if (j > 0) {
+                        wj -= rate * l2 * w[j];
+                        if (l1 > 0) {
+                            double shrink = rate * l1; // proximal step: soft-threshold
+                            wj = wj > shrink ? wj - shrink : wj < -shrink ? wj + shrink : 0;
+                        }
+                    }
+                    w[j] = wj;
+                    gradient[j] = 0;
+                    seen[j] = false;
+                }
+            }
+        }
+    }
+}
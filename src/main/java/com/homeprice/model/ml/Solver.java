@@ -0,0 +1,16 @@
+package com.homeprice.model.ml;
+
+/**
+ * Solves the normal equations (X'X) w = X'y for the regression weights.
+ * Matrices are flat row-major arrays; implementations may overwrite their inputs.
+ */
+public interface Solver {
+
+    /**
+     * Solve a * x = b.
+     * a: p x p symmetric matrix, row-major (overwritten)
+     * b: right-hand side of length p (overwritten)
+     * Returns the solution vector.
+     */
+    double[] solve(double[] a, double[] b, int p);
+}
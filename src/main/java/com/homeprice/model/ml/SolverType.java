@@ -0,0 +1,38 @@
+package com.homeprice.model.ml;
+
+import java.util.Locale;
+
+/**
+ * Available normal-equation solvers, selectable by name (e.g. from configuration).
+ */
+public enum SolverType {
+
+    CHOLESKY,
+    QR,
+    GAUSS_JORDAN;
+
+    /**
+     * Create a solver; the ridge penalty applies to Cholesky only.
+     */
+    public Solver create(double ridge) {
+        return switch (this) {
+            case CHOLESKY -> new CholeskySolver(ridge);
+            case QR -> new QrSolver();
+            case GAUSS_JORDAN -> new GaussJordanSolver();
+        };
+    }
+
+    /**
+     * Parse a name such as "cholesky", "qr" or "gauss-jordan".
+     */
+    public static SolverType fromName(String name) {
+        if (name == null || name.isBlank()) {
+            return CHOLESKY;
+        }
+        try {
+            return valueOf(name.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown solver: " + name);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.homeprice.model.ml;
+
+import java.util.Arrays;
+
+/**
+ * Design matrix in compressed sparse row (CSR) form, with targets. Row r holds the entries
+ * [rowStart(r), rowEnd(r)): column index(k) has value value(k). Memory and per-row work are
+ * proportional to the number of nonzeros, not to the number of columns.
+ */
+public final class SparseMatrix {
+
+    private final int columns;
+    private final int rows;
+    private final int[] rowPtr;
+    private final int[] colIdx;
+    private final double[] values;
+    private final double[] targets;
+
+    private SparseMatrix(int columns, int rows, int[] rowPtr, int[] colIdx, double[] values, double[] targets) {
+        this.columns = columns;
+        this.rows = rows;
+        this.rowPtr = rowPtr;
+        this.colIdx = colIdx;
+        this.values = values;
+        this.targets = targets;
+    }
+
+    /**
+     * CSR copy of a dense design matrix view, keeping only its nonzero entries.
+     */
+    public static SparseMatrix of(DesignMatrix matrix) {
+        int p = matrix.columns();
+        Builder builder = new Builder(p, matrix.rows(), matrix.rows() * p);
+        double[] row = new double[p];
+        int[] indices = new int[p];
+        double[] values = new double[p];
+        for (int r = 0; r < matrix.rows(); r++) {
+            matrix.copyRow(r, row);
+            int nnz = 0;
+            for (int j = 0; j < p; j++) {
+                if (row[j] != 0) {
+                    indices[nnz] = j;
+                    values[nnz++] = row[j];
+                }
+            }
+            builder.addRow(indices, values, nnz, matrix.target(r));
+        }
+        return builder.build();
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int columns() {
+        return columns;
+    }
+
+    public int nonZeros() {
+        return rowPtr[rows];
+    }
+
+    public int rowStart(int row) {
+        return rowPtr[row];
+    }
+
+    public int rowEnd(int row) {
+        return rowPtr[row + 1];
+    }
+
+    public int index(int k) {
+        return colIdx[k];
+    }
+
+    public double value(int k) {
+        return values[k];
+    }
+
+    public double target(int row) {
+        return targets[row];
+    }
+
+    /**
+     * Appends rows; each row is given as parallel (column, value) arrays with distinct columns.
+     */
+    public static final class Builder {
+
+        private final int columns;
+        private int rows;
+        private int[] rowPtr;
+        private int[] colIdx;
+        private double[] values;
+        private double[] targets;
+
+        public Builder(int columns, int expectedRows, int expectedNonZeros) {
+            if (columns <= 0) {
+                throw new IllegalArgumentException("Column count must be positive");
+            }
+            this.columns = columns;
+            this.rowPtr = new int[Math.max(1, expectedRows) + 1];
+            this.colIdx = new int[Math.max(1, expectedNonZeros)];
+            this.values = new double[colIdx.length];
+            this.targets = new double[Math.max(1, expectedRows)];
+        }
+
+        public Builder addRow(int[] indices, double[] rowValues, int nnz, double target) {
+            if (rows + 1 == rowPtr.length) {
+                rowPtr = Arrays.copyOf(rowPtr, rowPtr.length * 2);
+                targets = Arrays.copyOf(targets, targets.length * 2);
+            }
+            int start = rowPtr[rows];
+            if (start + nnz > colIdx.length) {
+                int capacity = Math.max(colIdx.length * 2, start + nnz);
+                colIdx = Arrays.copyOf(colIdx, capacity);
+                values = Arrays.copyOf(values, capacity);
+            }
+            for (int k = 0; k < nnz; k++) {
+                int column = indices[k];
+                if (column < 0 || column >= columns) {
+                    throw new IllegalArgumentException("Column " + column + " out of range [0, " + columns + ")");
+                }
+                colIdx[start + k] = column;
+                values[start + k] = rowValues[k];
+            }
+            targets[rows] = target;
+            rowPtr[++rows] = start + nnz;
+            return this;
+        }
+
+        public SparseMatrix build() {
+            return new SparseMatrix(columns, rows, rowPtr, colIdx, values, targets);
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package com.homeprice.model.ml;
+
+import java.util.Arrays;
+
+/**
+ * Sufficient statistics X'X, X'y for sparse rows. Only the nonzero entries of the upper triangle
+ * of X'X are stored (in a hash table keyed by (row, column)), so adding a row with k nonzeros
+ * costs O(k^2) and memory grows with the nonzeros of X'X rather than with columns^2. For
+ * one-hot locations, the location block of X'X is diagonal and stays O(locations).
+ * Solved by Jacobi-preconditioned conjugate gradient, which only needs X'X times a vector.
+ * Column 0 is the intercept and is not penalized by the ridge term, as in {@link CholeskySolver}.
+ */
+public class SparseNormalEquations {
+
+    private static final long EMPTY = -1L;
+    private static final double TOLERANCE = 1e-12;
+
+    private long[] keys;    // (i << 32) | j with i <= j, EMPTY if unused
+    private double[] sums;
+    private int entries;
+    private int mask;
+    private double[] xty = new double[16];
+    private int dimension;
+    private double yty;
+    private long count;
+
+    public SparseNormalEquations() {
+        keys = new long[64];
+        Arrays.fill(keys, EMPTY);
+        sums = new double[64];
+        mask = 63;
+    }
+
+    /**
+     * Add one row given as parallel (column, value) arrays with distinct columns.
+     */
+    public void add(int[] indices, double[] values, int nnz, double y) {
+        for (int a = 0; a < nnz; a++) {
+            int i = indices[a];
+            double vi = values[a];
+            if (vi == 0) continue;
+            for (int b = 0; b < nnz; b++) {
+                int j = indices[b];
+                if (j < i || (j == i && b != a)) continue;
+                double vj = values[b];
+                if (vj != 0) {
+                    increment(((long) i << 32) | j, vi * vj);
+                }
+            }
+            if (i >= xty.length) {
+                xty = Arrays.copyOf(xty, Math.max(xty.length * 2, i + 1));
+            }
+            xty[i] += vi * y;
+            dimension = Math.max(dimension, i + 1);
+        }
+        yty += y * y;
+        count++;
+    }
+
+    /**
+     * Add every row of a CSR matrix.
+     */
+    public void addAll(SparseMatrix matrix) {
+        int[] indices = new int[16];
+        double[] values = new double[16];
+        for (int r = 0; r < matrix.rows(); r++) {
+            int start = matrix.rowStart(r);
+            int nnz = matrix.rowEnd(r) - start;
+            if (nnz > indices.length) {
+                indices = new int[nnz];
+                values = new double[nnz];
+            }
+            for (int k = 0; k < nnz; k++) {
+                indices[k] = matrix.index(start + k);
+                values[k] = matrix.value(start + k);
+            }
+            add(indices, values, nnz, matrix.target(r));
+        }
+    }
+
+    /**
+     * Statistics of the design X P, where P maps column c to column map[c] with factor scale[c]
+     * (several columns may map to the same one). Re-encodes the same rows without rereading them,
+     * e.g. one-hot locations into hashed buckets.
+     */
+    public SparseNormalEquations project(int[] map, double[] scale) {
+        SparseNormalEquations projected = new SparseNormalEquations();
+        for (int slot = 0; slot < keys.length; slot++) {
+            long key = keys[slot];
+            if (key == EMPTY) continue;
+            int i = (int) (key >>> 32);
+            int j = (int) key;
+            double v = sums[slot] * scale[i] * scale[j];
+            if (v == 0) continue;
+            int pi = map[i];
+            int pj = map[j];
+            if (pi == pj) {
+                projected.increment(((long) pi << 32) | pj, i == j ? v : 2 * v);
+            } else {
+                projected.increment(((long) Math.min(pi, pj) << 32) | Math.max(pi, pj), v);
+            }
+        }
+        for (int i = 0; i < dimension; i++) {
+            int pi = map[i];
+            if (pi >= projected.xty.length) {
+                projected.xty = Arrays.copyOf(projected.xty, Math.max(projected.xty.length * 2, pi + 1));
+            }
+            projected.xty[pi] += xty[i] * scale[i];
+            projected.dimension = Math.max(projected.dimension, pi + 1);
+        }
+        projected.yty = yty;
+        projected.count = count;
+        return projected;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public double yty() {
+        return yty;
+    }
+
+    /** Highest column index seen plus one. */
+    public int dimension() {
+        return dimension;
+    }
+
+    /** Stored nonzeros of the upper triangle of X'X. */
+    public int nonZeros() {
+        return entries;
+    }
+
+    /**
+     * Solve (X'X + ridge * I') w = X'y for the given number of columns (I' skips the intercept).
+     * Columns never seen get weight 0. For a singular but consistent system (e.g. one-hot columns
+     * plus an intercept, ridge 0), conjugate gradient from zero converges to the minimum-norm solution.
+     */
+    public double[] solve(int columns, double ridge) {
+        if (columns < dimension) {
+            throw new IllegalArgumentException("Statistics have " + dimension + " columns, more than " + columns);
+        }
+        if (ridge < 0 || Double.isNaN(ridge)) {
+            throw new IllegalArgumentException("Ridge penalty must be non-negative");
+        }
+        double[] diagonal = new double[columns];
+        for (int slot = 0; slot < keys.length; slot++) {
+            long key = keys[slot];
+            if (key != EMPTY && (int) (key >>> 32) == (int) key) {
+                diagonal[(int) key] = sums[slot];
+            }
+        }
+        double[] inverseDiagonal = new double[columns];
+        for (int i = 0; i < columns; i++) {
+            double d = diagonal[i] + (i > 0 ? ridge : 0);
+            inverseDiagonal[i] = d > 0 ? 1 / d : 0; // unseen columns stay at 0
+        }
+
+        double[] w = new double[columns];
+        double[] r = Arrays.copyOf(xty, columns);
+        double[] z = new double[columns];
+        double[] p = new double[columns];
+        double[] q = new double[columns];
+        double bNorm = Math.sqrt(dot(r, r));
+        if (bNorm == 0) {
+            return w;
+        }
+        for (int i = 0; i < columns; i++) {
+            z[i] = inverseDiagonal[i] * r[i];
+            p[i] = z[i];
+        }
+        double rz = dot(r, z);
+        int maxIterations = Math.max(100, 10 * columns);
+        for (int iter = 0; iter < maxIterations && Math.sqrt(dot(r, r)) > TOLERANCE * bNorm; iter++) {
+            multiply(p, q, ridge);
+            double pq = dot(p, q);
+            if (pq <= 0) {
+                break;
+            }
+            double alpha = rz / pq;
+            for (int i = 0; i < columns; i++) {
+                w[i] += alpha * p[i];
+                r[i] -= alpha * q[i];
+                z[i] = inverseDiagonal[i] * r[i];
+            }
+            double rzNext = dot(r, z);
+            double beta = rzNext / rz;
+            rz = rzNext;
+            for (int i = 0; i < columns; i++) {
+                p[i] = z[i] + beta * p[i];
+            }
+        }
+        return w;
+    }
+
+    /**
+     * The full symmetric X'X in CSR form over the given number of columns: row i holds the nonzeros
+     * of row i of X'X, and the target of row i is (X'y)_i.
+     */
+    public SparseMatrix gram(int columns) {
+        if (columns < dimension) {
+            throw new IllegalArgumentException("Statistics have " + dimension + " columns, more than " + columns);
+        }
+        int[] rowCounts = new int[columns + 1];
+        for (long key : keys) {
+            if (key == EMPTY) continue;
+            int i = (int) (key >>> 32);
+            int j = (int) key;
+            rowCounts[i + 1]++;
+            if (i != j) {
+                rowCounts[j + 1]++;
+            }
+        }
+        for (int i = 0; i < columns; i++) {
+            rowCounts[i + 1] += rowCounts[i];
+        }
+        int[] fill = Arrays.copyOf(rowCounts, columns);
+        int[] indices = new int[rowCounts[columns]];
+        double[] values = new double[indices.length];
+        for (int slot = 0; slot < keys.length; slot++) {
+            long key = keys[slot];
+            if (key == EMPTY) continue;
+            int i = (int) (key >>> 32);
+            int j = (int) key;
+            indices[fill[i]] = j;
+            values[fill[i]++] = sums[slot];
+            if (i != j) {
+                indices[fill[j]] = i;
+                values[fill[j]++] = sums[slot];
+            }
+        }
+        SparseMatrix.Builder builder = new SparseMatrix.Builder(columns, columns, indices.length);
+        for (int i = 0; i < columns; i++) {
+            int start = rowCounts[i];
+            int nnz = rowCounts[i + 1] - start;
+            builder.addRow(Arrays.copyOfRange(indices, start, start + nnz), Arrays.copyOfRange(values, start, start + nnz),
+                    nnz, i < xty.length ? xty[i] : 0);
+        }
+        return builder.build();
+    }
+
+    /** out = (X'X + ridge * I') x, over the stored upper triangle. */
+    private void multiply(double[] x, double[] out, double ridge) {
+        Arrays.fill(out, 0);
+        for (int slot = 0; slot < keys.length; slot++) {
+            long key = keys[slot];
+            if (key == EMPTY) continue;
+            int i = (int) (key >>> 32);
+            int j = (int) key;
+            double v = sums[slot];
+            out[i] += v * x[j];
+            if (i != j) {
+                out[j] += v * x[i];
+            }
+        }
+        for (int i = 1; i < out.length; i++) {
+            out[i] += ridge * x[i];
+        }
+    }
+
+    private static double dot(double[] a, double[] b) {
+        double s = 0;
+        for (int i = 0; i < a.length; i++) {
+            s += a[i] * b[i];
+        }
+        return s;
+    }
+
+    private void increment(long key, double delta) {
+        int slot = slot(key);
+        while (true) {
+            long k = keys[slot];
+            if (k == key) {
+                sums[slot] += delta;
+                return;
+            }
+            if (k == EMPTY) {
+                keys[slot] = key;
+                sums[slot] = delta;
+                if (++entries * 2 > keys.length) {
+                    rehash();
+                }
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        double[] oldSums = sums;
+        keys = new long[oldKeys.length * 2];
+        Arrays.fill(keys, EMPTY);
+        sums = new double[keys.length];
+        mask = keys.length - 1;
+        for (int s = 0; s < oldKeys.length; s++) {
+            if (oldKeys[s] == EMPTY) continue;
+            int slot = slot(oldKeys[s]);
+            while (keys[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = oldKeys[s];
+            sums[slot] = oldSums[s];
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.homeprice.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Streams batch predictions: rows are read from a JSON array or NDJSON body with a streaming
+ * parser, collected into {@link PredictionBlock}s, scored a block at a time and written out as
+ * they complete, so neither the request nor the response is held in memory.
+ * Each input row produces one output object, in order: {"priceInr":N} or {"error":"..."}.
+ */
+@Service
+public class BatchPredictionService {
+
+    private final PredictionService predictionService;
+    private final JsonFactory jsonFactory;
+    private final HomePriceMetrics metrics;
+
+    public BatchPredictionService(PredictionService predictionService, ObjectMapper objectMapper,
+                                  HomePriceMetrics metrics) {
+        this.predictionService = predictionService;
+        this.jsonFactory = objectMapper.getFactory();
+        this.metrics = metrics;
+    }
+
+    /**
+     * Score every row read from in and write the results to out. With ndjson, input and output are
+     * newline-delimited objects; otherwise the output is a JSON array (input may be either).
+     * Returns the number of rows processed. The time to read, score and write the whole request and
+     * its row count are recorded as homeprice.prediction{type=batch} and homeprice.prediction.batch.size.
+     */
+    public long predict(InputStream in, OutputStream out, boolean ndjson) throws IOException {
+        long start = System.nanoTime();
+        JsonParser parser = jsonFactory.createParser(in);
+        JsonToken token;
+        try {
+            token = parser.nextToken();
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Request body is not valid JSON");
+        }
+        JsonGenerator generator = jsonFactory.createGenerator(out);
+        generator.setRootValueSeparator(new SerializedString("\n"));
+        if (!ndjson) {
+            generator.writeStartArray();
+        }
+
+        // One model version for the whole request, even if a retrained model is promoted meanwhile
+        ModelBundle bundle = predictionService.getModelBundle();
+        PredictionBlock block = new PredictionBlock();
+        long rows = 0;
+        boolean inArray = token == JsonToken.START_ARRAY;
+        try {
+            if (inArray) {
+                token = parser.nextToken();
+            }
+            while (token != null && !(inArray && token == JsonToken.END_ARRAY)) {
+                if (token == JsonToken.START_OBJECT) {
+                    readRow(parser, block, bundle);
+                } else {
+                    parser.skipChildren();
+                    block.addError("Expected a JSON object");
+                }
+                rows++;
+                if (block.isFull()) {
+                    writeBlock(block, bundle, generator);
+                }
+                token = parser.nextToken();
+            }
+            writeBlock(block, bundle, generator);
+        } catch (JsonProcessingException e) {
+            writeBlock(block, bundle, generator);
+            generator.writeStartObject();
+            generator.writeStringField("error", "Malformed JSON after row " + rows);
+            generator.writeEndObject();
+        }
+        if (!ndjson) {
+            generator.writeEndArray();
+        }
+        generator.writeRaw('\n');
+        generator.flush();
+        metrics.recordBatch(rows, System.nanoTime() - start);
+        return rows;
+    }
+
+    private void readRow(JsonParser parser, PredictionBlock block, ModelBundle bundle) throws IOException {
+        double squareFeet = Double.NaN;
+        int bhk = Integer.MIN_VALUE;
+        int bathrooms = Integer.MIN_VALUE;
+        String location = null;
+        String error = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "squareFeet", "square_feet" -> {
+                    if (value.isNumeric()) squareFeet = parser.getDoubleValue();
+                    else if (value != JsonToken.VALUE_NULL) error = "Square feet must be a number";
+                }
+                case "bhk" -> {
+                    if (value == JsonToken.VALUE_NUMBER_INT) bhk = clampedInt(parser);
+                    else if (value != JsonToken.VALUE_NULL) error = "BHK must be a whole number";
+                }
+                case "bathrooms" -> {
+                    if (value == JsonToken.VALUE_NUMBER_INT) bathrooms = clampedInt(parser);
+                    else if (value != JsonToken.VALUE_NULL) error = "Bathrooms must be a whole number";
+                }
+                case "location" -> {
+                    if (value == JsonToken.VALUE_STRING) location = parser.getText().trim();
+                    else if (value != JsonToken.VALUE_NULL) error = "Location must be a string";
+                }
+                default -> { }
+            }
+            parser.skipChildren(); // an object or array value, of a known field or not, is skipped whole
+        }
+        if (error == null) {
+            error = PredictionService.validationError(squareFeet, bhk, bathrooms, location);
+        }
+        if (error != null) {
+            block.addError(error);
+        } else {
+            block.add(squareFeet, bhk, bathrooms, bundle.getScoringModel().locationIndex(location));
+        }
+    }
+
+    /**
+     * The current integer token, clamped to the int range so that a value too large for an int fails
+     * the range validation of its row instead of aborting the stream.
+     */
+    private static int clampedInt(JsonParser parser) throws IOException {
+        if (parser.getNumberType() == JsonParser.NumberType.INT) {
+            return parser.getIntValue();
+        }
+        return parser.getBigIntegerValue().signum() < 0 ? Integer.MIN_VALUE + 1 : Integer.MAX_VALUE;
+    }
+
+    private void writeBlock(PredictionBlock block, ModelBundle bundle, JsonGenerator generator) throws IOException {
+        if (block.size() == 0) {
+            return;
+        }
+        predictionService.predictBlock(block, bundle);
+        for (int i = 0; i < block.size(); i++) {
+            generator.writeStartObject();
+            String error = block.getError(i);
+            if (error != null) {
+                generator.writeStringField("error", error);
+            } else {
+                generator.writeNumberField("priceInr", block.getPriceInr(i));
+            }
+            generator.writeEndObject();
+        }
+        generator.flush();
+        block.clear();
+    }
+}
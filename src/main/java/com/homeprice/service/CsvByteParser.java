@@ -0,0 +1,468 @@
+package com.homeprice.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Byte-level CSV parser for the dataset. Works directly on a (memory-mapped) {@link ByteBuffer}:
+ * numbers are parsed from the bytes, locations are looked up by their byte slice in a
+ * {@link LocationDictionary}, and each row goes to a {@link PropertyRowConsumer}. No Strings or
+ * per-row objects are created on the happy path.
+ * Quoting follows the previous line parser: a double quote toggles quoting and is dropped, and
+ * commas inside quotes do not split fields. Lines and fields are trimmed; blank lines and rows
+ * with too few columns are skipped.
+ */
+public class CsvByteParser {
+
+    /** Files are mapped in windows of at most this many bytes, cut at a newline. */
+    private static final int MAX_WINDOW = 1 << 28;
+
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final LocationDictionary locations;
+    private final int maxWindow;
+    private ByteBuffer scratch = ByteBuffer.allocate(256); // unquoted copy of quoted fields
+    private final int[] fieldStart = new int[5];
+    private final int[] fieldEnd = new int[5];
+    private final boolean[] fieldQuoted = new boolean[5];
+
+    public CsvByteParser(LocationDictionary locations) {
+        this(locations, MAX_WINDOW);
+    }
+
+    /** Parser mapping files in windows of at most maxWindow bytes (small windows are for tests). */
+    CsvByteParser(LocationDictionary locations, int maxWindow) {
+        if (maxWindow <= 0 || maxWindow > MAX_WINDOW) {
+            throw new IllegalArgumentException("Window must be in (0, " + MAX_WINDOW + "] bytes");
+        }
+        this.locations = locations;
+        this.maxWindow = maxWindow;
+    }
+
+    /**
+     * Column positions of the fields the model needs, read from the header line.
+     */
+    public static final class Layout {
+
+        static final int SQUARE_FEET = 0, BHK = 1, BATHROOMS = 2, LOCATION = 3, PRICE = 4;
+
+        private final int[] slotByColumn; // CSV column -> field slot, -1 if unused
+        private final int maxColumn;
+
+        private Layout(int[] slotByColumn, int maxColumn) {
+            this.slotByColumn = slotByColumn;
+            this.maxColumn = maxColumn;
+        }
+
+        /**
+         * Parse a header line such as "square_feet,bhk,bathrooms,location,price_inr" (any order).
+         */
+        public static Layout fromHeader(String header) throws IOException {
+            String[] cols = splitHeader(header);
+            int[] slotByColumn = new int[cols.length];
+            int[] columnBySlot = {-1, -1, -1, -1, -1};
+            for (int i = 0; i < cols.length; i++) {
+                slotByColumn[i] = -1;
+                String c = cols[i].trim().toLowerCase(Locale.ROOT);
+                int slot = switch (c) {
+                    case "square_feet" -> SQUARE_FEET;
+                    case "bhk" -> BHK;
+                    case "bathrooms" -> BATHROOMS;
+                    case "location" -> LOCATION;
+                    case "price_inr" -> PRICE;
+                    default -> -1;
+                };
+                if (slot >= 0) {
+                    if (columnBySlot[slot] >= 0) {
+                        slotByColumn[columnBySlot[slot]] = -1; // last occurrence wins
+                    }
+                    columnBySlot[slot] = i;
+                    slotByColumn[i] = slot;
+                }
+            }
+            int maxColumn = 0;
+            for (int column : columnBySlot) {
+                if (column < 0) {
+                    throw new IOException("CSV must contain columns: square_feet, bhk, bathrooms, location, price_inr");
+                }
+                maxColumn = Math.max(maxColumn, column);
+            }
+            return new Layout(slotByColumn, maxColumn);
+        }
+
+        private static String[] splitHeader(String line) {
+            List<String> result = new ArrayList<>();
+            StringBuilder current = new StringBuilder();
+            boolean inQuotes = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (c == '"') {
+                    inQuotes = !inQuotes;
+                } else if (c == ',' && !inQuotes) {
+                    result.add(current.toString());
+                    current = new StringBuilder();
+                } else {
+                    current.append(c);
+                }
+            }
+            result.add(current.toString());
+            return result.toArray(new String[0]);
+        }
+    }
+
+    /**
+     * Parse a whole CSV (header plus rows) held in a buffer. Returns the number of rows parsed.
+     */
+    public long parse(ByteBuffer buffer, PropertyRowConsumer consumer) throws IOException {
+        int limit = buffer.limit();
+        int headerEnd = indexOfNewline(buffer, 0, limit);
+        if (headerEnd == 0 && limit == 0) {
+            return 0;
+        }
+        Layout layout = readHeader(buffer, 0, headerEnd);
+        return headerEnd >= limit ? 0 : parseRows(buffer, headerEnd + 1, limit, layout, consumer);
+    }
+
+    /**
+     * Parse a whole CSV file by memory-mapping it in newline-aligned windows.
+     */
+    public long parse(FileChannel channel, PropertyRowConsumer consumer) throws IOException {
+        if (channel.size() == 0) {
+            return 0;
+        }
+        Layout layout = readHeader(channel);
+        return parseRange(channel, dataOffset(channel), channel.size(), layout, consumer);
+    }
+
+    /**
+     * Read the header (first line) of a non-empty CSV file.
+     */
+    public static Layout readHeader(FileChannel channel) throws IOException {
+        long headerEnd = nextLineStart(channel, 0, channel.size()) - 1;
+        if (headerEnd > MAX_WINDOW) {
+            throw new IOException("CSV header line is too long");
+        }
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, headerEnd);
+        return readHeader(header, 0, (int) headerEnd);
+    }
+
+    /**
+     * Offset of the first row, i.e. just past the header line (the file size if there are no rows).
+     */
+    public static long dataOffset(FileChannel channel) throws IOException {
+        return Math.min(nextLineStart(channel, 0, channel.size()), channel.size());
+    }
+
+    /**
+     * Offset just past the first newline at or after position, or limit + 1 if there is none before limit.
+     */
+    public static long nextLineStart(FileChannel channel, long position, long limit) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(8192);
+        long pos = position;
+        while (pos < limit) {
+            buf.clear();
+            buf.limit((int) Math.min(buf.capacity(), limit - pos));
+            int read = channel.read(buf, pos);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buf.get(i) == '\n') {
+                    return pos + i + 1;
+                }
+            }
+            pos += read;
+        }
+        return limit + 1;
+    }
+
+    /**
+     * Offset just past the last newline in [from, to), or from if there is none; i.e. the end of the
+     * complete lines of a file that may still be being appended to.
+     */
+    public static long lastLineEnd(FileChannel channel, long from, long to) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(8192);
+        long end = to;
+        while (end > from) {
+            long start = Math.max(from, end - buf.capacity());
+            buf.clear();
+            buf.limit((int) (end - start));
+            int read = 0;
+            while (buf.hasRemaining()) {
+                int n = channel.read(buf, start + read);
+                if (n <= 0) {
+                    return from;
+                }
+                read += n;
+            }
+            for (int i = read - 1; i >= 0; i--) {
+                if (buf.get(i) == '\n') {
+                    return start + i + 1;
+                }
+            }
+            end = start;
+        }
+        return from;
+    }
+
+    /**
+     * Parse the rows in file bytes [from, to), which must start at a line boundary.
+     */
+    public long parseRange(FileChannel channel, long from, long to, Layout layout,
+                           PropertyRowConsumer consumer) throws IOException {
+        long rows = 0;
+        long pos = from;
+        while (pos < to) {
+            long length = Math.min(maxWindow, to - pos);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, pos, length);
+            int limit = (int) length;
+            if (pos + length < to) {
+                limit = lastIndexOfNewline(window, limit) + 1;
+                if (limit == 0) {
+                    throw new IOException("CSV line at byte " + pos + " is longer than " + maxWindow + " bytes");
+                }
+            }
+            rows += parseRows(window, 0, limit, layout, consumer);
+            pos += limit;
+        }
+        return rows;
+    }
+
+    /**
+     * Read the header line in buffer[start, end) into a {@link Layout}.
+     */
+    public static Layout readHeader(ByteBuffer buffer, int start, int end) throws IOException {
+        byte[] bytes = new byte[end - start];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(start + i);
+        }
+        return Layout.fromHeader(new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parse the rows in buffer[from, to); from must be at a line start. Returns rows parsed.
+     */
+    public long parseRows(ByteBuffer buffer, int from, int to, Layout layout, PropertyRowConsumer consumer) {
+        long rows = 0;
+        int pos = from;
+        while (pos < to) {
+            int lineEnd = indexOfNewline(buffer, pos, to);
+            if (parseLine(buffer, pos, lineEnd, layout, consumer)) {
+                rows++;
+            }
+            pos = lineEnd + 1;
+        }
+        return rows;
+    }
+
+    private boolean parseLine(ByteBuffer buf, int start, int end, Layout layout, PropertyRowConsumer consumer) {
+        while (start < end && (buf.get(start) & 0xFF) <= ' ') start++;
+        while (end > start && (buf.get(end - 1) & 0xFF) <= ' ') end--;
+        if (start == end) {
+            return false;
+        }
+        int[] slotByColumn = layout.slotByColumn;
+        int column = 0;
+        int fieldFrom = start;
+        boolean inQuotes = false;
+        boolean quoted = false;
+        for (int i = start; i <= end; i++) {
+            byte b = i < end ? buf.get(i) : (byte) ',';
+            if (i < end && b == '"') {
+                inQuotes = !inQuotes;
+                quoted = true;
+            } else if (i == end || (b == ',' && !inQuotes)) {
+                if (column < slotByColumn.length && slotByColumn[column] >= 0) {
+                    int slot = slotByColumn[column];
+                    fieldStart[slot] = fieldFrom;
+                    fieldEnd[slot] = i;
+                    fieldQuoted[slot] = quoted;
+                }
+                column++;
+                fieldFrom = i + 1;
+                quoted = false;
+            }
+        }
+        if (column <= layout.maxColumn) {
+            return false;
+        }
+        double sq = parseDouble(buf, Layout.SQUARE_FEET);
+        int bhk = parseInt(buf, Layout.BHK);
+        int bath = parseInt(buf, Layout.BATHROOMS);
+        int locIndex = location(buf, Layout.LOCATION);
+        double price = parseDouble(buf, Layout.PRICE);
+        consumer.accept(sq, bhk, bath, locIndex, price);
+        return true;
+    }
+
+    /**
+     * Source of a field's value: the input buffer itself, or the scratch buffer holding the
+     * field with its quotes removed. Bounds are trimmed and left in fieldStart/fieldEnd.
+     */
+    private ByteBuffer field(ByteBuffer buf, int slot) {
+        ByteBuffer src = buf;
+        int s = fieldStart[slot];
+        int e = fieldEnd[slot];
+        if (fieldQuoted[slot]) {
+            if (e - s > scratch.capacity()) {
+                scratch = ByteBuffer.allocate(e - s);
+            }
+            int n = 0;
+            for (int i = s; i < e; i++) {
+                byte b = buf.get(i);
+                if (b != '"') {
+                    scratch.put(n++, b);
+                }
+            }
+            src = scratch;
+            s = 0;
+            e = n;
+        }
+        while (s < e && (src.get(s) & 0xFF) <= ' ') s++;
+        while (e > s && (src.get(e - 1) & 0xFF) <= ' ') e--;
+        fieldStart[slot] = s;
+        fieldEnd[slot] = e;
+        return src;
+    }
+
+    private int location(ByteBuffer buf, int slot) {
+        ByteBuffer src = field(buf, slot);
+        return locations.indexOf(src, fieldStart[slot], fieldEnd[slot]);
+    }
+
+    private int parseInt(ByteBuffer buf, int slot) {
+        ByteBuffer src = field(buf, slot);
+        int s = fieldStart[slot];
+        int e = fieldEnd[slot];
+        int i = s;
+        boolean negative = false;
+        if (i < e && (src.get(i) == '-' || src.get(i) == '+')) {
+            negative = src.get(i) == '-';
+            i++;
+        }
+        if (i == e || e - i > 10) {
+            throw invalidNumber(src, s, e);
+        }
+        long value = 0;
+        for (; i < e; i++) {
+            int d = src.get(i) - '0';
+            if (d < 0 || d > 9) {
+                throw invalidNumber(src, s, e);
+            }
+            value = value * 10 + d;
+        }
+        value = negative ? -value : value;
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw invalidNumber(src, s, e);
+        }
+        return (int) value;
+    }
+
+    /**
+     * Decimal fast path (at most 18 digits, |exponent| <= 22): one exact multiply or divide,
+     * so the result is correctly rounded like Double.parseDouble. Anything else falls back to it.
+     */
+    private double parseDouble(ByteBuffer buf, int slot) {
+        ByteBuffer src = field(buf, slot);
+        int s = fieldStart[slot];
+        int e = fieldEnd[slot];
+        int i = s;
+        boolean negative = false;
+        if (i < e && (src.get(i) == '-' || src.get(i) == '+')) {
+            negative = src.get(i) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        for (; i < e; i++) {
+            int d = src.get(i) - '0';
+            if (d < 0 || d > 9) break;
+            mantissa = mantissa * 10 + d;
+            digits++;
+        }
+        if (i < e && src.get(i) == '.') {
+            for (i++; i < e; i++) {
+                int d = src.get(i) - '0';
+                if (d < 0 || d > 9) break;
+                mantissa = mantissa * 10 + d;
+                digits++;
+                exponent--;
+            }
+        }
+        if (i < e && (src.get(i) == 'e' || src.get(i) == 'E')) {
+            i++;
+            boolean negativeExp = false;
+            if (i < e && (src.get(i) == '-' || src.get(i) == '+')) {
+                negativeExp = src.get(i) == '-';
+                i++;
+            }
+            int exp = 0;
+            int expDigits = 0;
+            for (; i < e && expDigits < 4; i++, expDigits++) {
+                int d = src.get(i) - '0';
+                if (d < 0 || d > 9) break;
+                exp = exp * 10 + d;
+            }
+            if (expDigits == 0) {
+                return parseDoubleSlow(src, s, e);
+            }
+            exponent += negativeExp ? -exp : exp;
+        }
+        if (i != e || digits == 0 || digits > 18) {
+            return parseDoubleSlow(src, s, e);
+        }
+        double value;
+        if (mantissa == 0) {
+            value = 0.0;
+        } else if (mantissa < (1L << 53) && exponent >= -22 && exponent <= 22) {
+            value = exponent >= 0 ? mantissa * POW10[exponent] : mantissa / POW10[-exponent];
+        } else {
+            return parseDoubleSlow(src, s, e);
+        }
+        return negative ? -value : value;
+    }
+
+    private static double parseDoubleSlow(ByteBuffer src, int s, int e) {
+        return Double.parseDouble(text(src, s, e));
+    }
+
+    private static NumberFormatException invalidNumber(ByteBuffer src, int s, int e) {
+        return new NumberFormatException("For input string: \"" + text(src, s, e) + "\"");
+    }
+
+    private static String text(ByteBuffer src, int s, int e) {
+        byte[] bytes = new byte[e - s];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = src.get(s + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int indexOfNewline(ByteBuffer buf, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buf.get(i) == '\n') {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    private static int lastIndexOfNewline(ByteBuffer buf, int to) {
+        for (int i = to - 1; i >= 0; i--) {
+            if (buf.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
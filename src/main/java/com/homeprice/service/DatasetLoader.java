@@ -1,102 +1,352 @@
 package com.homeprice.service;
 
+import com.homeprice.model.domain.DatasetProfile;
+import com.homeprice.model.domain.OutlierMode;
+import com.homeprice.model.domain.PropertyDataset;
 import com.homeprice.model.domain.PropertyRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Component;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
 
 /**
  * Loads and parses the CSV dataset and maps location names to indices.
+ * Reads the file at homeprice.dataset.path when set, otherwise the bundled data/dataset.csv.
+ * If the path is a directory, every *.csv file in it is read, in file name order, as one dataset.
+ * <p>
+ * Optionally every load is profiled while it is parsed ({@link DatasetProfile}), and in-memory loads
+ * then drop or winsorize rows whose price per square foot is outside a quantile band of that profile,
+ * in place, before the dataset reaches the trainer. Streaming loads are profiled but not filtered,
+ * since the band is only known once the pass is over.
  */
 @Component
 public class DatasetLoader {
 
+    private static final Logger log = LoggerFactory.getLogger(DatasetLoader.class);
     private static final String CSV_PATH = "data/dataset.csv";
-    private final List<String> locationOrder = new ArrayList<>();
+    /** Files smaller than this are parsed on one thread. */
+    private static final long MIN_CHUNK_BYTES = 4L << 20;
+
+    /** Location names of the last load, by encoded index; replaced whole, never mutated, as readers hold on to it. */
+    private volatile List<String> locationOrder = List.of();
+    private final String datasetPath;
+    private final int loadThreads;
+    private final boolean profiling;
+    private final OutlierMode outlierMode;
+    private final double lowerQuantile;
+    private final double upperQuantile;
+    private volatile DatasetProfile profile;
+
+    public DatasetLoader(@Value("${homeprice.dataset.path:}") String datasetPath,
+                         @Value("${homeprice.dataset.load-threads:0}") int loadThreads,
+                         @Value("${homeprice.dataset.profile.enabled:false}") boolean profiling,
+                         @Value("${homeprice.dataset.outliers.mode:none}") String outlierMode,
+                         @Value("${homeprice.dataset.outliers.lower-quantile:0.001}") double lowerQuantile,
+                         @Value("${homeprice.dataset.outliers.upper-quantile:0.999}") double upperQuantile) {
+        this.outlierMode = OutlierMode.fromName(outlierMode);
+        if (this.outlierMode != OutlierMode.NONE && !(lowerQuantile >= 0 && lowerQuantile < upperQuantile
+                && upperQuantile <= 1)) {
+            throw new IllegalArgumentException(
+                    "homeprice.dataset.outliers quantiles must satisfy 0 <= lower-quantile < upper-quantile <= 1");
+        }
+        this.datasetPath = datasetPath;
+        this.loadThreads = loadThreads > 0 ? loadThreads : Runtime.getRuntime().availableProcessors();
+        this.profiling = profiling || this.outlierMode != OutlierMode.NONE;
+        this.lowerQuantile = lowerQuantile;
+        this.upperQuantile = upperQuantile;
+    }
 
     /**
      * Load all records from CSV. First column header row defines locations encountered.
      * Location column is encoded by order of first appearance (or use predefined order).
      */
     public List<PropertyRecord> loadRecords() throws IOException {
-        List<String> locations = new ArrayList<>();
-        Map<String, Integer> locationToIndex = new HashMap<>();
         List<PropertyRecord> records = new ArrayList<>();
+        streamRecords((sq, bhk, bath, locIndex, price) ->
+                records.add(new PropertyRecord(sq, bhk, bath, locIndex, price)));
+        return records;
+    }
 
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(new ClassPathResource(CSV_PATH).getInputStream(), StandardCharsets.UTF_8))) {
-            String header = reader.readLine();
-            if (header == null) {
-                return records;
+    /**
+     * Load all rows into a columnar {@link PropertyDataset} (one primitive array per column).
+     * Locations are encoded the same way as {@link #loadRecords()}.
+     * A file on disk is split at newline boundaries into chunks that are parsed in parallel; each
+     * chunk has its own location dictionary, and the dictionaries are merged in file order so the
+     * global encoding is still by first appearance.
+     */
+    public PropertyDataset loadDataset() throws IOException {
+        List<Path> files = datasetFiles();
+        if (files.isEmpty()) {
+            PropertyDataset dataset = new PropertyDataset();
+            streamRecords(dataset::add);
+            dataset.setLocations(locationOrder);
+            applyOutlierBand(dataset, profile);
+            return dataset;
+        }
+        List<PropertyDataset> parts = new ArrayList<>();
+        List<LocationDictionary> dictionaries = new ArrayList<>();
+        List<DatasetProfile> profiles = new ArrayList<>();
+        for (Path file : files) {
+            loadChunks(file, parts, dictionaries, profiles);
+        }
+
+        LocationDictionary global = new LocationDictionary();
+        int total = 0;
+        for (PropertyDataset part : parts) {
+            total += part.size();
+        }
+        PropertyDataset dataset = new PropertyDataset(total);
+        DatasetProfile merged = profiling ? new DatasetProfile() : null;
+        for (int c = 0; c < parts.size(); c++) {
+            LocationDictionary dictionary = dictionaries.get(c);
+            int[] remap = new int[dictionary.size()];
+            for (int i = 0; i < remap.length; i++) {
+                remap[i] = global.indexOf(dictionary.name(i));
             }
-            String[] cols = parseCsvLine(header);
-            int locIdx = -1;
-            int sqIdx = -1, bhkIdx = -1, bathIdx = -1, priceIdx = -1;
-            for (int i = 0; i < cols.length; i++) {
-                String c = cols[i].trim().toLowerCase();
-                if (c.equals("location")) locIdx = i;
-                else if (c.equals("square_feet")) sqIdx = i;
-                else if (c.equals("bhk")) bhkIdx = i;
-                else if (c.equals("bathrooms")) bathIdx = i;
-                else if (c.equals("price_inr")) priceIdx = i;
+            dataset.append(parts.get(c), remap);
+            parts.set(c, null);
+            if (merged != null) {
+                merged.merge(profiles.get(c), remap);
             }
-            if (locIdx < 0 || sqIdx < 0 || bhkIdx < 0 || bathIdx < 0 || priceIdx < 0) {
-                throw new IOException("CSV must contain columns: square_feet, bhk, bathrooms, location, price_inr");
+        }
+        List<String> locations = List.copyOf(global.names());
+        locationOrder = locations;
+        dataset.setLocations(locations);
+        if (merged != null) {
+            merged.setLocations(locations);
+            applyOutlierBand(dataset, merged);
+            profile = merged;
+        }
+        return dataset;
+    }
+
+    /**
+     * Drop (FILTER) or clamp (WINSORIZE) the rows whose price per square foot is outside the configured
+     * quantile band of the profile, in one pass over the loaded columns, and record the result in it.
+     * Rows without a positive area have no price per square foot: they are dropped by FILTER, and kept
+     * unchanged but counted as outliers by WINSORIZE, which has no price to clamp them to.
+     */
+    private void applyOutlierBand(PropertyDataset dataset, DatasetProfile profile) {
+        if (outlierMode == OutlierMode.NONE || profile == null || dataset.size() == 0) {
+            return;
+        }
+        double lower = profile.pricePerSquareFootQuantile(lowerQuantile);
+        double upper = profile.pricePerSquareFootQuantile(upperQuantile);
+        long outliers;
+        if (outlierMode == OutlierMode.FILTER) {
+            outliers = dataset.removeIf(r -> {
+                double perSquareFoot = DatasetProfile.pricePerSquareFoot(dataset.getSquareFeet(r), dataset.getPriceInr(r));
+                return !Double.isFinite(perSquareFoot) || perSquareFoot < lower || perSquareFoot > upper;
+            });
+        } else {
+            outliers = 0;
+            long unclamped = 0;
+            for (int r = 0; r < dataset.size(); r++) {
+                double squareFeet = dataset.getSquareFeet(r);
+                double perSquareFoot = DatasetProfile.pricePerSquareFoot(squareFeet, dataset.getPriceInr(r));
+                if (!Double.isFinite(perSquareFoot)) {
+                    unclamped++;
+                } else if (perSquareFoot < lower || perSquareFoot > upper) {
+                    dataset.setPriceInr(r, Math.min(Math.max(perSquareFoot, lower), upper) * squareFeet);
+                    outliers++;
+                }
+            }
+            if (unclamped > 0) {
+                log.warn("Outlier stage (WINSORIZE): {} rows without a positive area kept unchanged", unclamped);
+            }
+            outliers += unclamped;
+        }
+        profile.recordOutliers(outlierMode, lower, upper, outliers);
+        log.info("Outlier stage ({}): {} of {} rows outside {} - {} INR per sq ft", outlierMode, outliers,
+                profile.getRows(), Math.round(lower), Math.round(upper));
+    }
+
+    /**
+     * Parse one file in parallel chunks, appending each chunk's rows, dictionary and profile in file order.
+     */
+    private void loadChunks(Path file, List<PropertyDataset> parts, List<LocationDictionary> dictionaries,
+                            List<DatasetProfile> profiles) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                return;
             }
-            String line;
-            while ((line = reader.readLine()) != null) {
-                line = line.trim();
-                if (line.isEmpty()) continue;
-                String[] parts = parseCsvLine(line);
-                if (parts.length <= Math.max(Math.max(locIdx, sqIdx), Math.max(bhkIdx, Math.max(bathIdx, priceIdx)))) {
-                    continue;
+            CsvByteParser.Layout layout = CsvByteParser.readHeader(channel);
+            long[] bounds = chunkBounds(channel, CsvByteParser.dataOffset(channel), size);
+            int chunks = bounds.length - 1;
+
+            PropertyDataset[] fileParts = new PropertyDataset[chunks];
+            LocationDictionary[] fileDictionaries = new LocationDictionary[chunks];
+            DatasetProfile[] fileProfiles = new DatasetProfile[chunks];
+            ExecutorService executor = Executors.newFixedThreadPool(Math.min(loadThreads, chunks));
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int c = 0; c < chunks; c++) {
+                    int chunk = c;
+                    futures.add(executor.submit(() -> {
+                        LocationDictionary dictionary = new LocationDictionary();
+                        PropertyDataset part = new PropertyDataset(
+                                (int) Math.min(Integer.MAX_VALUE - 8, (bounds[chunk + 1] - bounds[chunk]) / 24));
+                        DatasetProfile chunkProfile = profiling ? new DatasetProfile() : null;
+                        new CsvByteParser(dictionary).parseRange(channel, bounds[chunk], bounds[chunk + 1], layout,
+                                profiled(part::add, chunkProfile));
+                        fileDictionaries[chunk] = dictionary;
+                        fileParts[chunk] = part;
+                        fileProfiles[chunk] = chunkProfile;
+                        return null;
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
                 }
-                double sq = Double.parseDouble(parts[sqIdx].trim());
-                int bhk = Integer.parseInt(parts[bhkIdx].trim());
-                int bath = Integer.parseInt(parts[bathIdx].trim());
-                String loc = parts[locIdx].trim();
-                double price = Double.parseDouble(parts[priceIdx].trim());
-                int locIndex = locationToIndex.computeIfAbsent(loc, k -> {
-                    locations.add(loc);
-                    return locations.size() - 1;
-                });
-                records.add(new PropertyRecord(sq, bhk, bath, locIndex, price));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while loading dataset", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException io) throw io;
+                if (cause instanceof RuntimeException re) throw re;
+                throw new IOException("Failed to load dataset", cause);
+            } finally {
+                executor.shutdownNow();
             }
-            locationOrder.clear();
-            locationOrder.addAll(locations);
+            parts.addAll(Arrays.asList(fileParts));
+            dictionaries.addAll(Arrays.asList(fileDictionaries));
+            profiles.addAll(Arrays.asList(fileProfiles));
         }
-        return records;
     }
 
     /**
-     * Return ordered list of location names (same order as encoding).
+     * The consumer, also adding each row to the profile first if there is one.
      */
-    public List<String> getLocationOrder() {
-        return new ArrayList<>(locationOrder);
+    private static PropertyRowConsumer profiled(PropertyRowConsumer consumer, DatasetProfile profile) {
+        if (profile == null) {
+            return consumer;
+        }
+        return (sq, bhk, bath, locIndex, price) -> {
+            profile.add(sq, bhk, bath, locIndex, price);
+            consumer.accept(sq, bhk, bath, locIndex, price);
+        };
     }
 
-    private static String[] parseCsvLine(String line) {
-        List<String> result = new ArrayList<>();
-        StringBuilder current = new StringBuilder();
-        boolean inQuotes = false;
-        for (int i = 0; i < line.length(); i++) {
-            char c = line.charAt(i);
-            if (c == '"') {
-                inQuotes = !inQuotes;
-            } else if ((c == ',' && !inQuotes)) {
-                result.add(current.toString());
-                current = new StringBuilder();
-            } else {
-                current.append(c);
+    /**
+     * Parse the CSV and hand each row to the consumer as it is read, without keeping rows in memory.
+     * Locations are encoded the same way as {@link #loadRecords()}. Returns the number of rows read.
+     * Rows are profiled on the way but never filtered here.
+     * The file is memory-mapped and parsed at byte level by {@link CsvByteParser} when it is on the
+     * file system; a classpath resource inside a jar is read into a heap buffer first.
+     */
+    public long streamRecords(PropertyRowConsumer consumer) throws IOException {
+        List<Path> files = datasetFiles();
+        LocationDictionary dictionary = new LocationDictionary();
+        CsvByteParser parser = new CsvByteParser(dictionary);
+        DatasetProfile streamed = profiling ? new DatasetProfile() : null;
+        PropertyRowConsumer target = profiled(consumer, streamed);
+        long rows = 0;
+        if (!files.isEmpty()) {
+            for (Path file : files) {
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                    rows += parser.parse(channel, target);
+                }
+            }
+        } else {
+            try (InputStream in = new ClassPathResource(CSV_PATH).getInputStream()) {
+                rows = parser.parse(ByteBuffer.wrap(in.readAllBytes()), target);
+            }
+        }
+        List<String> locations = List.copyOf(dictionary.names());
+        locationOrder = locations;
+        if (streamed != null) {
+            streamed.setLocations(locations);
+            profile = streamed;
+        }
+        return rows;
+    }
+
+    /**
+     * The files the dataset is read from, in order: the configured file, the *.csv files of the
+     * configured directory, or the bundled resource if it is on the file system. Empty if the
+     * bundled resource can only be read as a stream (e.g. from inside the jar).
+     */
+    public List<Path> datasetFiles() throws IOException {
+        if (datasetPath != null && !datasetPath.isBlank()) {
+            Path path = Path.of(datasetPath.trim());
+            if (Files.isDirectory(path)) {
+                List<Path> files;
+                try (Stream<Path> entries = Files.list(path)) {
+                    files = entries.filter(f -> Files.isRegularFile(f) && f.getFileName().toString().endsWith(".csv"))
+                            .sorted()
+                            .toList();
+                }
+                if (files.isEmpty()) {
+                    throw new IOException("No .csv files in dataset directory: " + path);
+                }
+                return files;
+            }
+            if (!Files.isRegularFile(path)) {
+                throw new IOException("Dataset file not found: " + path);
+            }
+            return List.of(path);
+        }
+        ClassPathResource resource = new ClassPathResource(CSV_PATH);
+        return resource.isFile() ? List.of(resource.getFile().toPath()) : List.of();
+    }
+
+    /**
+     * Split [from, to) into up to loadThreads chunks whose boundaries fall just after a newline.
+     */
+    private long[] chunkBounds(FileChannel channel, long from, long to) throws IOException {
+        int chunks = (int) Math.max(1, Math.min(loadThreads, (to - from) / MIN_CHUNK_BYTES));
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(from);
+        for (int c = 1; c < chunks; c++) {
+            long nominal = from + (to - from) * c / chunks;
+            long start = Math.min(CsvByteParser.nextLineStart(channel, nominal, to), to);
+            if (start > bounds.get(bounds.size() - 1) && start < to) {
+                bounds.add(start);
             }
         }
-        result.add(current.toString());
-        return result.toArray(new String[0]);
+        bounds.add(to);
+        return bounds.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * Profile of the most recent load (before any outlier stage), or null if nothing was loaded yet
+     * or profiling is disabled.
+     */
+    public DatasetProfile getProfile() {
+        return profile;
+    }
+
+    /** Whether loads are profiled (homeprice.dataset.profile.enabled, or an outlier stage that needs it). */
+    public boolean isProfiling() {
+        return profiling;
+    }
+
+    public OutlierMode getOutlierMode() {
+        return outlierMode;
+    }
+
+    /**
+     * Return ordered list of location names (same order as encoding), as of the last completed load.
+     * The list is immutable.
+     */
+    public List<String> getLocationOrder() {
+        return locationOrder;
     }
 }
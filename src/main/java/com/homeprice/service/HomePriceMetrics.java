@@ -0,0 +1,129 @@
+package com.homeprice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters for the training and prediction hot paths, registered once so recording is a
+ * plain call on a pre-built meter. Percentiles and histograms are not set here but per meter name in
+ * application.properties (management.metrics.distribution.*), so they can be tuned without a rebuild.
+ * <ul>
+ *     <li>homeprice.dataset.load (timer), homeprice.dataset.rows (counter) and
+ *     homeprice.dataset.load.throughput (rows/s of the last load)</li>
+ *     <li>homeprice.training.phase (timer, tag phase: gram, solve, shards, evaluate, comparables)</li>
+ *     <li>homeprice.prediction (timer, tag type: single, batch or sweep), homeprice.prediction.batch.size and
+ *     homeprice.prediction.sweep.size</li>
+ *     <li>homeprice.prediction.coalesced.size (single predictions scored together by {@link PredictionBatcher})</li>
+ * </ul>
+ * Model quality gauges are published by {@link ModelTrainer}.
+ */
+@Component
+public class HomePriceMetrics {
+
+    public enum TrainingPhase {
+        /** Accumulating X'X and X'y (for sparse encodings: encoding rows and accumulating). */
+        GRAM,
+        /** Solving for the weights: normal equations, conjugate gradient, SGD or coordinate descent. */
+        SOLVE,
+        /** Fitting the per-location models. */
+        SHARDS,
+        /** Scoring the held-out rows. */
+        EVALUATE,
+        /** Building the comparable-listings index. */
+        COMPARABLES
+    }
+
+    private final MeterRegistry registry;
+    private final Timer datasetLoad;
+    private final Counter datasetRows;
+    private final Map<TrainingPhase, Timer> trainingPhases = new EnumMap<>(TrainingPhase.class);
+    private final Timer singlePrediction;
+    private final Timer batchPrediction;
+    private final DistributionSummary batchSize;
+    private final DistributionSummary coalescedSize;
+    private final Timer sweepPrediction;
+    private final DistributionSummary sweepSize;
+    private volatile double lastLoadThroughput = Double.NaN;
+
+    public HomePriceMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        datasetLoad = Timer.builder("homeprice.dataset.load")
+                .description("Time to read and parse the dataset").register(registry);
+        datasetRows = Counter.builder("homeprice.dataset.rows")
+                .description("Dataset rows parsed").register(registry);
+        Gauge.builder("homeprice.dataset.load.throughput", this, m -> m.lastLoadThroughput)
+                .description("Rows per second parsed by the last dataset load").baseUnit("rows/s").register(registry);
+        for (TrainingPhase phase : TrainingPhase.values()) {
+            trainingPhases.put(phase, Timer.builder("homeprice.training.phase")
+                    .tag("phase", phase.name().toLowerCase(Locale.ROOT))
+                    .description("Time spent in each phase of a training run").register(registry));
+        }
+        singlePrediction = Timer.builder("homeprice.prediction").tag("type", "single")
+                .description("Time to score one prediction request, excluding HTTP").register(registry);
+        batchPrediction = Timer.builder("homeprice.prediction").tag("type", "batch")
+                .description("Time to score one prediction request, excluding HTTP").register(registry);
+        batchSize = DistributionSummary.builder("homeprice.prediction.batch.size")
+                .description("Rows per batch prediction request").baseUnit("rows").register(registry);
+        coalescedSize = DistributionSummary.builder("homeprice.prediction.coalesced.size")
+                .description("Single predictions scored in one coalesced pass").baseUnit("rows").register(registry);
+        sweepPrediction = Timer.builder("homeprice.prediction").tag("type", "sweep")
+                .description("Time to score one prediction request, excluding HTTP").register(registry);
+        sweepSize = DistributionSummary.builder("homeprice.prediction.sweep.size")
+                .description("Grid points per what-if sweep request").baseUnit("rows").register(registry);
+    }
+
+    /**
+     * Meters that record nothing, for code that runs outside the application context.
+     */
+    public static HomePriceMetrics none() {
+        return new HomePriceMetrics(new CompositeMeterRegistry());
+    }
+
+    public MeterRegistry getRegistry() {
+        return registry;
+    }
+
+    public void recordDatasetLoad(long rows, long nanos) {
+        datasetLoad.record(nanos, TimeUnit.NANOSECONDS);
+        datasetRows.increment(rows);
+        if (nanos > 0) {
+            lastLoadThroughput = rows * 1e9 / nanos;
+        }
+    }
+
+    public Timer trainingPhase(TrainingPhase phase) {
+        return trainingPhases.get(phase);
+    }
+
+    public void recordPrediction(long nanos) {
+        singlePrediction.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordBatch(long rows, long nanos) {
+        batchPrediction.record(nanos, TimeUnit.NANOSECONDS);
+        batchSize.record(rows);
+    }
+
+    public void recordSweep(long points, long nanos) {
+        sweepPrediction.record(nanos, TimeUnit.NANOSECONDS);
+        sweepSize.record(points);
+    }
+
+    public void recordCoalescedBatch(int rows) {
+        coalescedSize.record(rows);
+    }
+
+    public DistributionSummary getCoalescedSize() {
+        return coalescedSize;
+    }
+}
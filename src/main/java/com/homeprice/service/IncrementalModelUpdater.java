@@ -0,0 +1,302 @@
+package com.homeprice.service;
+
+import com.homeprice.model.domain.PropertyDataset;
+import com.homeprice.model.domain.PropertyRecord;
+import com.homeprice.model.ml.LinearRegression;
+import com.homeprice.model.ml.ModelMetrics;
+import com.homeprice.model.ml.NormalEquations;
+import com.homeprice.model.ml.ScoringModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the model current as new listings arrive, without retraining from scratch. The training
+ * statistics (X'X, X'y) of the serving model are kept, each batch of new rows is added to them,
+ * and the weights are re-solved with the configured optimizer (normal equations, or coordinate descent
+ * for lasso / elastic net): O(p^2) per row plus one p x p solve per batch.
+ * <p>
+ * Rows come from an append-only CSV file (same columns as the dataset; rows already in it at
+ * startup are assumed to be part of the dataset or snapshot) and from {@link #submit(List)}.
+ * With a forgetting factor below 1, the statistics are down-weighted before each batch so the
+ * model follows recent prices. An incrementally updated version carries forward the held-out MAE and
+ * RMSE of the version it was derived from, so a full retrain is still compared against held-out
+ * error; the prequential error on each batch (every row scored by the serving version before it is
+ * learned from) is logged separately.
+ * <p>
+ * Only the global model is updated, so every location must be scored by it: incremental updates
+ * need the ordinal location encoding, no per-location models and X'X from the trainer (not SGD).
+ * A served version that does have its own location rows (e.g. from a snapshot) is not updated.
+ */
+@Component
+public class IncrementalModelUpdater {
+
+    private static final Logger log = LoggerFactory.getLogger(IncrementalModelUpdater.class);
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final ModelTrainer modelTrainer;
+    private final boolean enabled;
+    private final Path appendPath;
+    private final long intervalSeconds;
+    private final double forgettingFactor;
+    private final BlockingQueue<QueuedBatch> queue = new LinkedBlockingQueue<>();
+    private ScheduledExecutorService executor;
+
+    // Only touched by the executor thread
+    private ModelBundle base;
+    private NormalEquations stats;
+    private LocationDictionary dictionary;
+    private CsvByteParser.Layout layout;
+    private long appendOffset = -1;
+
+    public IncrementalModelUpdater(ModelTrainer modelTrainer,
+                                   @Value("${homeprice.incremental.enabled:false}") boolean enabled,
+                                   @Value("${homeprice.incremental.append-path:}") String appendPath,
+                                   @Value("${homeprice.incremental.interval-seconds:10}") long intervalSeconds,
+                                   @Value("${homeprice.incremental.forgetting-factor:1.0}") double forgettingFactor) {
+        if (intervalSeconds <= 0) {
+            throw new IllegalArgumentException("homeprice.incremental.interval-seconds must be positive");
+        }
+        if (!(forgettingFactor > 0 && forgettingFactor <= 1)) {
+            throw new IllegalArgumentException("homeprice.incremental.forgetting-factor must be in (0, 1]");
+        }
+        if (enabled && (modelTrainer.hasLocationModels() || !modelTrainer.keepsStatistics())) {
+            throw new IllegalArgumentException("homeprice.incremental.enabled needs the ordinal location encoding, "
+                    + "no per-location models (homeprice.training.sharded=false) and an optimizer that keeps "
+                    + "X'X (normal-equations or coordinate-descent)");
+        }
+        this.modelTrainer = modelTrainer;
+        this.enabled = enabled;
+        this.appendPath = appendPath == null || appendPath.isBlank() ? null : Path.of(appendPath.trim());
+        this.intervalSeconds = intervalSeconds;
+        this.forgettingFactor = forgettingFactor;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "model-incremental");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        executor.execute(this::skipExistingRows);
+        executor.scheduleWithFixedDelay(this::poll, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        log.info("Incremental updates enabled (append file: {}, forgetting factor: {})",
+                appendPath != null ? appendPath : "none", forgettingFactor);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Queue new rows for the next incremental update. Location indices are in the encoding of the
+     * currently served model ({@link ModelTrainer#getLocationIndex(String)}).
+     */
+    public void submit(List<PropertyRecord> records) {
+        if (!enabled) {
+            throw new IllegalStateException("Incremental updates are disabled (homeprice.incremental.enabled)");
+        }
+        if (records.isEmpty()) {
+            return;
+        }
+        queue.add(new QueuedBatch(List.copyOf(records), modelTrainer.getLocationOrder()));
+        executor.execute(this::poll);
+    }
+
+    private void poll() {
+        try {
+            QueuedBatch queued;
+            while ((queued = queue.poll()) != null) {
+                seed();
+                PropertyDataset batch = new PropertyDataset(queued.records().size());
+                for (PropertyRecord r : queued.records()) {
+                    int idx = r.getLocationIndex();
+                    String location = idx >= 0 && idx < queued.locations().size() ? queued.locations().get(idx) : null;
+                    batch.add(r.getSquareFeet(), r.getBhk(), r.getBathrooms(),
+                            location != null ? dictionary.indexOf(location) : 0, r.getPriceInr());
+                }
+                apply(batch);
+            }
+            if (appendPath != null) {
+                PropertyDataset batch = readAppendedRows();
+                if (batch != null && batch.size() > 0) {
+                    apply(batch);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Incremental model update failed", e);
+        }
+    }
+
+    /**
+     * Fold a batch (encoded with the current dictionary) into the statistics and promote the refit
+     * model. If a full retrain was promoted in the meantime, start again from that version.
+     */
+    private void apply(PropertyDataset batch) throws IOException {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            List<String> encodedWith = List.copyOf(dictionary.names());
+            if (seed()) {
+                batch = remap(batch, encodedWith);
+            }
+            ScoringModel serving = base.getScoringModel();
+            if (serving.shardCount() > 0) {
+                log.warn("Dropped incremental batch of {} rows: model version {} has per-location rows, "
+                        + "which incremental updates cannot refresh", batch.size(), base.getVersion());
+                return;
+            }
+            NormalEquations next = new NormalEquations(stats);
+            next.scale(forgettingFactor);
+            double[] features = new double[next.dimension()];
+            double absError = 0;
+            double sqError = 0;
+            for (int row = 0; row < batch.size(); row++) {
+                batch.copyFeatures(row, features);
+                double price = batch.getPriceInr(row);
+                double diff = price - serving.predict(batch.getSquareFeet(row), batch.getBhk(row),
+                        batch.getBathrooms(row), batch.getLocationIndex(row));
+                absError += Math.abs(diff);
+                sqError += diff * diff;
+                next.add(features, price);
+            }
+            LinearRegression model = modelTrainer.refit(next);
+            ModelMetrics heldOut = base.getMetrics();
+            ModelMetrics metrics = new ModelMetrics(heldOut.getMae(), heldOut.getRmse(), next.count(),
+                    heldOut.getTestSamples());
+            ModelBundle candidate = modelTrainer.newVersion(model,
+                    serving.withGlobalModel(model, dictionary.names()), metrics, next,
+                    base.getComparables());
+            if (modelTrainer.promote(base, candidate)) {
+                base = candidate;
+                stats = next;
+                log.info("Incremental update with {} rows -> model version {} (prequential MAE: ₹ {}, RMSE: ₹ {})",
+                        batch.size(), candidate.getVersion(), String.format("%.2f", absError / batch.size()),
+                        String.format("%.2f", Math.sqrt(sqError / batch.size())));
+                return;
+            }
+        }
+        log.warn("Dropped incremental batch of {} rows: the model kept being replaced concurrently", batch.size());
+    }
+
+    /**
+     * Start from the serving model if it changed since the last update. A model without training
+     * statistics (loaded from a snapshot written before format version 3) is retrained once to obtain them;
+     * if another version is promoted meanwhile, seeding starts again from that one, up to
+     * {@link #MAX_ATTEMPTS} times. Returns true if the location dictionary was replaced.
+     *
+     * @throws IllegalStateException if the model kept being replaced while retraining
+     */
+    private boolean seed() throws IOException {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            ModelBundle current = modelTrainer.getBundle();
+            if (current == base) {
+                return false;
+            }
+            NormalEquations currentStats = current.getStatistics();
+            if (currentStats == null) {
+                log.info("Model version {} has no training statistics; retraining once to seed incremental updates",
+                        current.getVersion());
+                ModelBundle trained = modelTrainer.train();
+                if (!modelTrainer.promote(current, trained)) {
+                    continue;
+                }
+                current = trained;
+                currentStats = trained.getStatistics();
+            }
+            base = current;
+            stats = currentStats;
+            dictionary = new LocationDictionary();
+            for (String location : current.getLocations()) {
+                dictionary.indexOf(location);
+            }
+            return true;
+        }
+        throw new IllegalStateException("Could not seed incremental updates: the model was replaced concurrently "
+                + MAX_ATTEMPTS + " times");
+    }
+
+    /**
+     * Re-encode a batch whose location indices refer to the given names with the current dictionary.
+     */
+    private PropertyDataset remap(PropertyDataset batch, List<String> names) {
+        int[] remap = new int[names.size()];
+        for (int i = 0; i < remap.length; i++) {
+            remap[i] = dictionary.indexOf(names.get(i));
+        }
+        PropertyDataset remapped = new PropertyDataset(batch.size());
+        remapped.append(batch, remap);
+        return remapped;
+    }
+
+    private void skipExistingRows() {
+        if (appendPath == null) {
+            return;
+        }
+        try {
+            appendOffset = Files.isRegularFile(appendPath) ? Files.size(appendPath) : 0;
+        } catch (IOException e) {
+            log.warn("Cannot read append file {}: {}", appendPath, e.getMessage());
+            appendOffset = 0;
+        }
+    }
+
+    /**
+     * Complete lines appended since the last read, encoded with the current dictionary, or null if none.
+     * A file that shrank is treated as rotated and read from the start.
+     */
+    private PropertyDataset readAppendedRows() throws IOException {
+        if (!Files.isRegularFile(appendPath)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(appendPath, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < appendOffset) {
+                log.info("Append file {} was truncated or replaced; reading it from the start", appendPath);
+                appendOffset = 0;
+                layout = null;
+            }
+            if (layout == null || appendOffset == 0) {
+                long dataOffset = CsvByteParser.nextLineStart(channel, 0, size);
+                if (dataOffset > size) {
+                    return null; // header not complete yet
+                }
+                layout = CsvByteParser.readHeader(channel);
+                appendOffset = Math.max(appendOffset, dataOffset);
+            }
+            long end = CsvByteParser.lastLineEnd(channel, appendOffset, size);
+            if (end <= appendOffset) {
+                return null;
+            }
+            seed();
+            PropertyDataset batch = new PropertyDataset();
+            new CsvByteParser(dictionary).parseRange(channel, appendOffset, end, layout, batch::add);
+            appendOffset = end;
+            return batch;
+        }
+    }
+
+    private record QueuedBatch(List<PropertyRecord> records, List<String> locations) {
+    }
+}
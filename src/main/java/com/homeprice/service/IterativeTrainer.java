@@ -0,0 +1,105 @@
+package com.homeprice.service;
+
+import com.homeprice.model.ml.CoordinateDescent;
+import com.homeprice.model.ml.NormalEquations;
+import com.homeprice.model.ml.OptimizerType;
+import com.homeprice.model.ml.SgdRegression;
+import com.homeprice.model.ml.SparseMatrix;
+import com.homeprice.model.ml.SparseNormalEquations;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Iterative alternatives to solving the normal equations, selected by homeprice.training.optimizer:
+ * mini-batch SGD over the training rows (Hogwild-parallel on the training pool, early stopping on the
+ * held-out split) or lasso / elastic-net coordinate descent on the training statistics X'X. Both take
+ * L1 and L2 penalties on standardized features, so the penalties do not depend on the units of a feature.
+ */
+@Component
+public class IterativeTrainer {
+
+    private static final Logger log = LoggerFactory.getLogger(IterativeTrainer.class);
+    private static final long SGD_SEED = 42L;
+    private static final int MAX_SWEEPS = 10_000;
+
+    private final OptimizerType optimizer;
+    private final double learningRate;
+    private final double l1;
+    private final double l2;
+    private final int batchSize;
+    private final int maxEpochs;
+    private final int patience;
+
+    public IterativeTrainer(@Value("${homeprice.training.optimizer:normal-equations}") String optimizer,
+                            @Value("${homeprice.training.learning-rate:0.05}") double learningRate,
+                            @Value("${homeprice.training.l1:0}") double l1,
+                            @Value("${homeprice.training.l2:0}") double l2,
+                            @Value("${homeprice.training.batch-size:256}") int batchSize,
+                            @Value("${homeprice.training.max-epochs:50}") int maxEpochs,
+                            @Value("${homeprice.training.patience:3}") int patience) {
+        this.optimizer = OptimizerType.fromName(optimizer);
+        // Validate eagerly so a bad configuration fails at startup rather than at the first training run
+        new SgdRegression(learningRate, l1, l2, batchSize, maxEpochs, patience, SGD_SEED);
+        this.learningRate = learningRate;
+        this.l1 = l1;
+        this.l2 = l2;
+        this.batchSize = batchSize;
+        this.maxEpochs = maxEpochs;
+        this.patience = patience;
+    }
+
+    /**
+     * Normal equations only (the default).
+     */
+    public static IterativeTrainer normalEquations() {
+        return new IterativeTrainer("normal-equations", 0.05, 0, 0, 256, 50, 3);
+    }
+
+    public OptimizerType getOptimizer() {
+        return optimizer;
+    }
+
+    /**
+     * SGD weights over the training rows, stopping early on the validation rows (may be null).
+     */
+    public double[] fit(SparseMatrix train, SparseMatrix validation, ForkJoinPool pool) {
+        SgdRegression sgd = new SgdRegression(learningRate, l1, l2, batchSize, maxEpochs, patience, SGD_SEED);
+        double[] weights = sgd.fit(train, validation, pool);
+        log.info("SGD: {} columns, {} epochs (learning rate {}, l1 {}, l2 {})", train.columns(), sgd.getEpochs(),
+                learningRate, l1, l2);
+        return weights;
+    }
+
+    /**
+     * Coordinate-descent weights from dense training statistics.
+     */
+    public double[] fit(NormalEquations stats) {
+        CoordinateDescent cd = new CoordinateDescent(l1, l2, MAX_SWEEPS);
+        double[] weights = cd.solve(stats);
+        logSweeps(cd, weights);
+        return weights;
+    }
+
+    /**
+     * Coordinate-descent weights from sparse training statistics over the given number of columns.
+     */
+    public double[] fit(SparseNormalEquations stats, int columns) {
+        CoordinateDescent cd = new CoordinateDescent(l1, l2, MAX_SWEEPS);
+        double[] weights = cd.solve(stats, columns);
+        logSweeps(cd, weights);
+        return weights;
+    }
+
+    private void logSweeps(CoordinateDescent cd, double[] weights) {
+        int zeros = 0;
+        for (int j = 1; j < weights.length; j++) {
+            if (weights[j] == 0) zeros++;
+        }
+        log.info("Coordinate descent: {} columns, {} sweeps, {} zero weights (l1 {}, l2 {})", weights.length,
+                cd.getSweeps(), zeros, l1, l2);
+    }
+}
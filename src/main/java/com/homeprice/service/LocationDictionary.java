@@ -0,0 +1,114 @@
+package com.homeprice.service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Encodes location names to indices in order of first appearance. Lookups hash the raw
+ * UTF-8 bytes of a CSV field (open addressing), so a String is only created the first
+ * time a location is seen.
+ */
+public class LocationDictionary {
+
+    private final List<String> names = new ArrayList<>();
+    private byte[][] keys = new byte[16][];
+    private int[] hashes = new int[16];
+    private int[] slots = new int[32]; // location index + 1, 0 = empty
+    private int mask = 31;
+
+    /**
+     * Index of the location whose UTF-8 bytes are src[start, end), adding it if unseen.
+     */
+    public int indexOf(ByteBuffer src, int start, int end) {
+        int h = hash(src, start, end);
+        int slot = h & mask;
+        while (true) {
+            int entry = slots[slot];
+            if (entry == 0) {
+                byte[] key = new byte[end - start];
+                for (int i = 0; i < key.length; i++) {
+                    key[i] = src.get(start + i);
+                }
+                return add(key, h, slot);
+            }
+            int idx = entry - 1;
+            if (hashes[idx] == h && matches(keys[idx], src, start, end)) {
+                return idx;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Index of the given location name, adding it if unseen.
+     */
+    public int indexOf(String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        return indexOf(ByteBuffer.wrap(bytes), 0, bytes.length);
+    }
+
+    public int size() {
+        return names.size();
+    }
+
+    public String name(int index) {
+        return names.get(index);
+    }
+
+    /** Location names in encoding order. */
+    public List<String> names() {
+        return Collections.unmodifiableList(names);
+    }
+
+    private int add(byte[] key, int h, int slot) {
+        int idx = names.size();
+        if (idx == keys.length) {
+            keys = Arrays.copyOf(keys, idx * 2);
+            hashes = Arrays.copyOf(hashes, idx * 2);
+        }
+        keys[idx] = key;
+        hashes[idx] = h;
+        names.add(new String(key, StandardCharsets.UTF_8));
+        slots[slot] = idx + 1;
+        if ((idx + 1) * 2 > slots.length) {
+            rehash();
+        }
+        return idx;
+    }
+
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        mask = slots.length - 1;
+        for (int idx = 0; idx < names.size(); idx++) {
+            int slot = hashes[idx] & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = idx + 1;
+        }
+    }
+
+    private static int hash(ByteBuffer src, int start, int end) {
+        int h = 0x811C9DC5; // FNV-1a
+        for (int i = start; i < end; i++) {
+            h = (h ^ (src.get(i) & 0xFF)) * 0x01000193;
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean matches(byte[] key, ByteBuffer src, int start, int end) {
+        if (key.length != end - start) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (key[i] != src.get(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,83 @@
+package com.homeprice.service;
+
+import com.homeprice.model.domain.ComparablesIndex;
+import com.homeprice.model.ml.LinearRegression;
+import com.homeprice.model.ml.ModelMetrics;
+import com.homeprice.model.ml.NormalEquations;
+import com.homeprice.model.ml.ScoringModel;
+
+import java.util.List;
+
+/**
+ * One trained model version with everything derived from it: the location dictionary it was
+ * encoded with, its serving form (including any per-location shard models), its test metrics and (when known) the sufficient statistics it
+ * was solved from and the comparable-listings index of its training rows. Published as a single reference, so
+ * readers always see a consistent set.
+ */
+public final class ModelBundle {
+
+    private final long version;
+    private final LinearRegression model;
+    private final ScoringModel scoringModel;
+    private final ModelMetrics metrics;
+    private final NormalEquations statistics; // null if unknown
+    private final ComparablesIndex comparables; // null if not built
+    private final long createdAtMillis;
+
+    public ModelBundle(long version, LinearRegression model, ScoringModel scoringModel, ModelMetrics metrics,
+                       NormalEquations statistics, long createdAtMillis) {
+        this(version, model, scoringModel, metrics, statistics, null, createdAtMillis);
+    }
+
+    public ModelBundle(long version, LinearRegression model, ScoringModel scoringModel, ModelMetrics metrics,
+                       NormalEquations statistics, ComparablesIndex comparables, long createdAtMillis) {
+        this.version = version;
+        this.model = model;
+        this.scoringModel = scoringModel;
+        this.metrics = metrics;
+        this.statistics = statistics != null ? new NormalEquations(statistics) : null;
+        this.comparables = comparables;
+        this.createdAtMillis = createdAtMillis;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public LinearRegression getModel() {
+        return model;
+    }
+
+    public ScoringModel getScoringModel() {
+        return scoringModel;
+    }
+
+    /** Location names in encoding order (immutable). */
+    public List<String> getLocations() {
+        return scoringModel.getLocations();
+    }
+
+    public ModelMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Copy of the training statistics (X'X, X'y, y'y, n) the weights were solved from, or null if
+     * they are not known (e.g. the model was loaded from a snapshot).
+     */
+    public NormalEquations getStatistics() {
+        return statistics != null ? new NormalEquations(statistics) : null;
+    }
+
+    /**
+     * Nearest-neighbour index of the training listings, or null if the dataset was not held in memory
+     * (streaming training, snapshot) or the index is disabled.
+     */
+    public ComparablesIndex getComparables() {
+        return comparables;
+    }
+
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+}
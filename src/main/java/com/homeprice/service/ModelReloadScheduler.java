@@ -0,0 +1,182 @@
+package com.homeprice.service;
+
+import com.homeprice.model.ml.ModelMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Retrains the model in the background when the dataset changes, and promotes the new version
+ * only if its test error is acceptable. Polls the dataset file (or every *.csv in the dataset
+ * directory) for changes in size or modification time, and waits for a change to be stable for
+ * one interval so files still being written are not read. Serving is not blocked: requests keep
+ * using the published {@link ModelBundle} until the new one is swapped in.
+ */
+@Component
+public class ModelReloadScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(ModelReloadScheduler.class);
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final ModelTrainer modelTrainer;
+    private final DatasetLoader datasetLoader;
+    private final boolean enabled;
+    private final long intervalSeconds;
+    private final double maxErrorIncrease;
+    private ScheduledExecutorService executor;
+    private long trainedFingerprint;
+    private long pendingFingerprint;
+
+    public ModelReloadScheduler(ModelTrainer modelTrainer, DatasetLoader datasetLoader,
+                                @Value("${homeprice.reload.enabled:false}") boolean enabled,
+                                @Value("${homeprice.reload.interval-seconds:60}") long intervalSeconds,
+                                @Value("${homeprice.reload.max-error-increase:0.05}") double maxErrorIncrease) {
+        if (intervalSeconds <= 0) {
+            throw new IllegalArgumentException("homeprice.reload.interval-seconds must be positive");
+        }
+        this.modelTrainer = modelTrainer;
+        this.datasetLoader = datasetLoader;
+        this.enabled = enabled;
+        this.intervalSeconds = intervalSeconds;
+        this.maxErrorIncrease = maxErrorIncrease;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        trainedFingerprint = fingerprint();
+        pendingFingerprint = trainedFingerprint;
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "model-reload");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::checkForChanges, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        log.info("Watching dataset for changes every {} s", intervalSeconds);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    void checkForChanges() {
+        try {
+            long current = fingerprint();
+            if (current == trainedFingerprint) {
+                pendingFingerprint = current;
+                return;
+            }
+            if (current != pendingFingerprint) {
+                pendingFingerprint = current; // still changing; look again next interval
+                return;
+            }
+            log.info("Dataset changed; retraining in the background");
+            if (retrain() != Outcome.FAILED) {
+                trainedFingerprint = current; // a failed run is retried at the next check
+            }
+        } catch (RuntimeException e) {
+            log.error("Model reload check failed", e);
+        }
+    }
+
+    /** Result of a retraining run. */
+    enum Outcome {
+        /** A candidate was promoted. */
+        PROMOTED,
+        /** The candidate's test error was not acceptable; retrying on the same data would not help. */
+        REJECTED,
+        /** Training failed or kept losing the race to other versions; worth retrying later. */
+        FAILED
+    }
+
+    /**
+     * Train a candidate model and promote it if it passes {@link #isAcceptable}, but only over the
+     * version that was serving when training started: if another version was published meanwhile
+     * (e.g. an incremental update), the candidate is discarded and training starts again from the
+     * dataset, up to {@link #MAX_ATTEMPTS} times.
+     */
+    Outcome retrain() {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            ModelBundle expected = modelTrainer.getBundleIfPresent();
+            ModelBundle candidate;
+            try {
+                candidate = modelTrainer.train();
+            } catch (IOException e) {
+                log.error("Retraining failed; keeping the current model", e);
+                return Outcome.FAILED;
+            }
+            ModelMetrics current = expected != null ? expected.getMetrics() : null;
+            if (!isAcceptable(current, candidate.getMetrics())) {
+                log.warn("Rejected model version {}: MAE {} / RMSE {} vs current MAE {} / RMSE {}",
+                        candidate.getVersion(), format(candidate.getMetrics().getMae()),
+                        format(candidate.getMetrics().getRmse()), current != null ? format(current.getMae()) : "none",
+                        current != null ? format(current.getRmse()) : "none");
+                return Outcome.REJECTED;
+            }
+            if (modelTrainer.promote(expected, candidate)) {
+                return Outcome.PROMOTED;
+            }
+            log.info("Model version {} was replaced while version {} was training; retraining",
+                    expected != null ? expected.getVersion() : 0, candidate.getVersion());
+        }
+        log.warn("Gave up retraining after {} attempts: the model kept being replaced concurrently", MAX_ATTEMPTS);
+        return Outcome.FAILED;
+    }
+
+    /**
+     * A candidate is acceptable if its test MAE and RMSE are finite and at most
+     * maxErrorIncrease (relative) worse than the current model's.
+     */
+    boolean isAcceptable(ModelMetrics current, ModelMetrics candidate) {
+        if (!Double.isFinite(candidate.getMae()) || !Double.isFinite(candidate.getRmse())) {
+            return false;
+        }
+        if (current == null || !Double.isFinite(current.getMae()) || !Double.isFinite(current.getRmse())) {
+            return true;
+        }
+        double limit = 1 + maxErrorIncrease;
+        return candidate.getMae() <= current.getMae() * limit && candidate.getRmse() <= current.getRmse() * limit;
+    }
+
+    /**
+     * Hash of the names, sizes and modification times of the dataset files; 0 if they cannot be read.
+     */
+    private long fingerprint() {
+        try {
+            List<Path> files = datasetLoader.datasetFiles();
+            long hash = 17;
+            for (Path file : files) {
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                hash = hash * 31 + file.hashCode();
+                hash = hash * 31 + attributes.size();
+                hash = hash * 31 + attributes.lastModifiedTime().toMillis();
+            }
+            return hash;
+        } catch (IOException e) {
+            log.warn("Cannot read dataset files: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    private static String format(double value) {
+        return String.format("%.2f", value);
+    }
+}
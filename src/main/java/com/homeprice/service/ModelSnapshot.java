@@ -0,0 +1,93 @@
+package com.homeprice.service;
+
+import com.homeprice.model.ml.ModelMetrics;
+import com.homeprice.model.ml.NormalEquations;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Everything needed to serve predictions without retraining: weights, the feature schema
+ * they apply to, the location dictionary, per-location shard weights and the evaluation metrics,
+ * plus (when known) the training statistics the global weights were solved from, so incremental
+ * updates can continue from a loaded snapshot without retraining.
+ */
+public final class ModelSnapshot {
+
+    private final List<String> featureNames;
+    private final double[] weights;
+    private final List<String> locations;
+    private final double[][] shardWeights; // per location, null entries use the global weights
+    private final ModelMetrics metrics;
+    private final NormalEquations statistics; // null if unknown
+    private final long createdAtMillis;
+
+    public ModelSnapshot(List<String> featureNames, double[] weights, List<String> locations,
+                         ModelMetrics metrics, long createdAtMillis) {
+        this(featureNames, weights, locations, new double[0][], metrics, createdAtMillis);
+    }
+
+    public ModelSnapshot(List<String> featureNames, double[] weights, List<String> locations,
+                         double[][] shardWeights, ModelMetrics metrics, long createdAtMillis) {
+        this(featureNames, weights, locations, shardWeights, metrics, null, createdAtMillis);
+    }
+
+    public ModelSnapshot(List<String> featureNames, double[] weights, List<String> locations,
+                         double[][] shardWeights, ModelMetrics metrics, NormalEquations statistics,
+                         long createdAtMillis) {
+        if (statistics != null && statistics.dimension() != weights.length) {
+            throw new IllegalArgumentException("Training statistics and weights differ in dimension");
+        }
+        if (featureNames.size() != weights.length) {
+            throw new IllegalArgumentException("Feature schema and weights differ in length");
+        }
+        this.featureNames = List.copyOf(featureNames);
+        this.weights = Arrays.copyOf(weights, weights.length);
+        this.locations = List.copyOf(locations);
+        this.shardWeights = copy(shardWeights);
+        this.metrics = metrics;
+        this.statistics = statistics != null ? new NormalEquations(statistics) : null;
+        this.createdAtMillis = createdAtMillis;
+    }
+
+    public List<String> getFeatureNames() {
+        return featureNames;
+    }
+
+    public double[] getWeights() {
+        return Arrays.copyOf(weights, weights.length);
+    }
+
+    public List<String> getLocations() {
+        return locations;
+    }
+
+    /**
+     * Shard weights [intercept, squareFeet, bhk, bathrooms] per location index; null entries
+     * (and locations beyond the array) are served by the global weights.
+     */
+    public double[][] getShardWeights() {
+        return copy(shardWeights);
+    }
+
+    public ModelMetrics getMetrics() {
+        return metrics;
+    }
+
+    /** X'X, X'y, y'y and row count behind the global weights (a copy), or null if unknown. */
+    public NormalEquations getStatistics() {
+        return statistics != null ? new NormalEquations(statistics) : null;
+    }
+
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+
+    private static double[][] copy(double[][] weights) {
+        double[][] copy = new double[weights.length][];
+        for (int i = 0; i < weights.length; i++) {
+            copy[i] = weights[i] != null ? Arrays.copyOf(weights[i], weights[i].length) : null;
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,226 @@
+package com.homeprice.service;
+
+import com.homeprice.model.ml.ModelMetrics;
+import com.homeprice.model.ml.NormalEquations;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.CRC32;
+
+/**
+ * Reads and writes {@link ModelSnapshot}s in a compact versioned binary format at
+ * homeprice.snapshot.path (disabled when empty). Layout, big-endian:
+ * <pre>
+ * int magic "HPMS", int format version
+ * int featureCount, featureCount x (int length, UTF-8 name), featureCount x double weight
+ * int locationCount, locationCount x (int length, UTF-8 name)
+ * int shardCount, shardCount x (int locationIndex, 4 x double weight)   (since version 2)
+ * int statisticsDimension p (0 = none), p x p double X'X, p x double X'y, double y'y, long rows   (since version 3)
+ * double mae, double rmse, long trainSamples, long testSamples
+ * long createdAtMillis
+ * int CRC32 of all preceding bytes
+ * </pre>
+ * Snapshots are memory-mapped on load, so load time does not depend on the dataset size.
+ * Versions 1 and 2 still load, without training statistics.
+ */
+@Component
+public class ModelSnapshotStore {
+
+    static final int MAGIC = 0x48504D53; // "HPMS"
+    static final int FORMAT_VERSION = 3;
+    private static final int SHARD_WEIGHTS = 4;
+
+    private final Path path;
+
+    public ModelSnapshotStore(@Value("${homeprice.snapshot.path:}") String path) {
+        this.path = path == null || path.isBlank() ? null : Path.of(path.trim());
+    }
+
+    public boolean isEnabled() {
+        return path != null;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Load the snapshot if enabled and present. Throws IOException if the file is corrupt or
+     * was written in an unsupported format version.
+     */
+    public Optional<ModelSnapshot> load() throws IOException {
+        if (path == null || !Files.isRegularFile(path)) {
+            return Optional.empty();
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 12 || size > Integer.MAX_VALUE) {
+                throw new IOException("Invalid model snapshot size: " + size);
+            }
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            CRC32 crc = new CRC32();
+            crc.update(buf.duplicate().limit((int) size - 4));
+            if ((int) crc.getValue() != buf.getInt((int) size - 4)) {
+                throw new IOException("Model snapshot checksum mismatch: " + path);
+            }
+            if (buf.getInt() != MAGIC) {
+                throw new IOException("Not a model snapshot: " + path);
+            }
+            int version = buf.getInt();
+            if (version < 1 || version > FORMAT_VERSION) {
+                throw new IOException("Unsupported model snapshot version " + version);
+            }
+            int featureCount = buf.getInt();
+            List<String> featureNames = new ArrayList<>(featureCount);
+            for (int i = 0; i < featureCount; i++) {
+                featureNames.add(readString(buf));
+            }
+            double[] weights = new double[featureCount];
+            for (int i = 0; i < featureCount; i++) {
+                weights[i] = buf.getDouble();
+            }
+            int locationCount = buf.getInt();
+            List<String> locations = new ArrayList<>(locationCount);
+            for (int i = 0; i < locationCount; i++) {
+                locations.add(readString(buf));
+            }
+            double[][] shardWeights = new double[locationCount][];
+            int shardCount = version >= 2 ? buf.getInt() : 0;
+            for (int i = 0; i < shardCount; i++) {
+                int location = buf.getInt();
+                double[] w = new double[SHARD_WEIGHTS];
+                for (int j = 0; j < SHARD_WEIGHTS; j++) {
+                    w[j] = buf.getDouble();
+                }
+                shardWeights[location] = w;
+            }
+            NormalEquations statistics = version >= 3 ? readStatistics(buf) : null;
+            ModelMetrics metrics = new ModelMetrics(buf.getDouble(), buf.getDouble(), buf.getLong(), buf.getLong());
+            long createdAt = buf.getLong();
+            return Optional.of(new ModelSnapshot(featureNames, weights, locations, shardWeights, metrics, statistics,
+                    createdAt));
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt model snapshot: " + path, e);
+        }
+    }
+
+    /**
+     * Write the snapshot atomically (temp file, then rename). No-op if snapshots are disabled.
+     */
+    public void save(ModelSnapshot snapshot) throws IOException {
+        if (path == null) {
+            return;
+        }
+        List<byte[]> features = encode(snapshot.getFeatureNames());
+        List<byte[]> locations = encode(snapshot.getLocations());
+        double[][] shards = snapshot.getShardWeights();
+        int size = 4 + 4 + 4 + 4 + 4 + 4 + 8 + 8 + 8 + 8 + 8 + 4;
+        for (byte[] f : features) size += 4 + f.length + 8;
+        for (byte[] l : locations) size += 4 + l.length;
+        int shardCount = 0;
+        for (double[] w : shards) {
+            if (w != null) {
+                if (w.length != SHARD_WEIGHTS) {
+                    throw new IllegalArgumentException("Expected " + SHARD_WEIGHTS + " shard weights");
+                }
+                shardCount++;
+            }
+        }
+        size += shardCount * (4 + SHARD_WEIGHTS * 8);
+        NormalEquations statistics = snapshot.getStatistics();
+        int p = statistics != null ? statistics.dimension() : 0;
+        size += 4 + (p > 0 ? (p * p + p + 1) * 8 + 8 : 0);
+
+        ByteBuffer buf = ByteBuffer.allocate(size);
+        buf.putInt(MAGIC).putInt(FORMAT_VERSION);
+        buf.putInt(features.size());
+        for (byte[] f : features) buf.putInt(f.length).put(f);
+        for (double w : snapshot.getWeights()) buf.putDouble(w);
+        buf.putInt(locations.size());
+        for (byte[] l : locations) buf.putInt(l.length).put(l);
+        buf.putInt(shardCount);
+        for (int loc = 0; loc < shards.length; loc++) {
+            if (shards[loc] == null) continue;
+            buf.putInt(loc);
+            for (double w : shards[loc]) buf.putDouble(w);
+        }
+        buf.putInt(p);
+        if (statistics != null) {
+            for (double v : statistics.gram()) buf.putDouble(v);
+            for (double v : statistics.xty()) buf.putDouble(v);
+            buf.putDouble(statistics.yty()).putLong(statistics.count());
+        }
+        ModelMetrics metrics = snapshot.getMetrics();
+        buf.putDouble(metrics.getMae()).putDouble(metrics.getRmse())
+                .putLong(metrics.getTrainSamples()).putLong(metrics.getTestSamples());
+        buf.putLong(snapshot.getCreatedAtMillis());
+        CRC32 crc = new CRC32();
+        crc.update(buf.array(), 0, buf.position());
+        buf.putInt((int) crc.getValue());
+        buf.flip();
+
+        Path dir = path.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, path.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                while (buf.hasRemaining()) {
+                    channel.write(buf);
+                }
+                channel.force(true);
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static NormalEquations readStatistics(ByteBuffer buf) {
+        int p = buf.getInt();
+        if (p == 0) {
+            return null;
+        }
+        if (p < 0 || (long) p * p * 8 > buf.remaining()) {
+            throw new IllegalStateException("Invalid statistics dimension " + p);
+        }
+        double[] gram = new double[p * p];
+        for (int i = 0; i < gram.length; i++) {
+            gram[i] = buf.getDouble();
+        }
+        double[] xty = new double[p];
+        for (int i = 0; i < p; i++) {
+            xty[i] = buf.getDouble();
+        }
+        return new NormalEquations(gram, xty, buf.getDouble(), buf.getLong());
+    }
+
+    private static List<byte[]> encode(List<String> strings) {
+        List<byte[]> encoded = new ArrayList<>(strings.size());
+        for (String s : strings) {
+            encoded.add(s.getBytes(StandardCharsets.UTF_8));
+        }
+        return encoded;
+    }
+
+    private static String readString(ByteBuffer buf) {
+        int length = buf.getInt();
+        if (length < 0 || length > buf.remaining()) {
+            throw new IllegalStateException("Invalid string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
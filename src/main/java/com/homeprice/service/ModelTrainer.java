@@ -1,20 +1,55 @@
 package com.homeprice.service;
 
-import com.homeprice.model.domain.PropertyRecord;
+import com.homeprice.model.domain.ComparablesIndex;
+import com.homeprice.model.domain.LocationEncoding;
+import com.homeprice.model.domain.OutlierMode;
+import com.homeprice.model.domain.PropertyDataset;
+import com.homeprice.model.domain.PropertyFeatureEncoder;
+import com.homeprice.model.ml.CholeskySolver;
+import com.homeprice.model.ml.CrossValidation;
+import com.homeprice.model.ml.DesignMatrix;
 import com.homeprice.model.ml.LinearRegression;
+import com.homeprice.model.ml.ModelMetrics;
+import com.homeprice.model.ml.NormalEquations;
+import com.homeprice.model.ml.OptimizerType;
+import com.homeprice.model.ml.ScoringModel;
+import com.homeprice.model.ml.Solver;
+import com.homeprice.model.ml.SolverType;
+import com.homeprice.model.ml.SparseMatrix;
+import com.homeprice.model.ml.SparseNormalEquations;
+import com.homeprice.service.HomePriceMetrics.TrainingPhase;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.ToDoubleFunction;
 
 /**
  * Loads dataset, splits into train/test, trains Linear Regression, and logs MAE/RMSE.
+ * When a model snapshot is configured, startup loads it instead of training and training
+ * writes a fresh one. The serving model is an immutable {@link ModelBundle} that can be
+ * replaced at runtime (see {@link ModelReloadScheduler}) in a single atomic swap.
+ * In sharded mode each location with enough rows also gets its own model (see {@link ShardedModelFitter}).
+ * With a one-hot or hashed location encoding, a sparse model gives every location its own intercept.
+ * Weights come from the normal equations unless an iterative optimizer is configured (see {@link IterativeTrainer}).
+ * With k-fold cross-validation (homeprice.training.cv.folds), every row is held out once, the ridge penalty is
+ * chosen by cross-validated RMSE and the final model is fit on all rows (see {@link CrossValidation}).
+ * Each training phase is timed, and the serving model's test metrics are published as gauges (see {@link HomePriceMetrics}).
  */
 @Service
 public class ModelTrainer {
@@ -22,81 +57,709 @@ public class ModelTrainer {
     private static final Logger log = LoggerFactory.getLogger(ModelTrainer.class);
     private static final double TRAIN_RATIO = 0.8;
     private static final long RANDOM_SEED = 42L;
+    private static final int FEATURE_COUNT = PropertyDataset.FEATURE_COUNT;
 
     private final DatasetLoader datasetLoader;
-    private final AtomicReference<LinearRegression> modelRef = new AtomicReference<>();
-    private final AtomicReference<List<String>> locationOrderRef = new AtomicReference<>();
+    private final ModelSnapshotStore snapshotStore;
+    private final IterativeTrainer iterativeTrainer;
+    private final HomePriceMetrics metrics;
+    private final boolean streaming;
+    private final Solver solver;
+    private final ForkJoinPool trainingPool; // null = sequential fit
+    private final ShardedModelFitter shardFitter; // null = global model only
+    private final LocationEncoding locationEncoding;
+    private final int hashBuckets;
+    private final double ridge;
+    private final int cvFolds; // 0 or 1 = single train/test split
+    private final double[] cvRidges;
+    private final boolean comparables;
+    private final AtomicReference<ModelBundle> bundleRef = new AtomicReference<>();
+    private final AtomicLong versions = new AtomicLong();
 
-    public ModelTrainer(DatasetLoader datasetLoader) {
+    public ModelTrainer(DatasetLoader datasetLoader, ModelSnapshotStore snapshotStore, IterativeTrainer iterativeTrainer,
+                        HomePriceMetrics metrics,
+                        @Value("${homeprice.training.streaming:false}") boolean streaming,
+                        @Value("${homeprice.training.solver:cholesky}") String solver,
+                        @Value("${homeprice.training.ridge:0}") double ridge,
+                        @Value("${homeprice.training.parallel:false}") boolean parallel,
+                        @Value("${homeprice.training.threads:0}") int threads,
+                        @Value("${homeprice.training.sharded:false}") boolean sharded,
+                        @Value("${homeprice.training.min-shard-rows:30}") int minShardRows,
+                        @Value("${homeprice.training.location-encoding:ordinal}") String locationEncoding,
+                        @Value("${homeprice.training.hash-buckets:1024}") int hashBuckets,
+                        @Value("${homeprice.training.cv.folds:0}") int cvFolds,
+                        @Value("${homeprice.training.cv.ridge-min:0.001}") double cvRidgeMin,
+                        @Value("${homeprice.training.cv.ridge-max:1000000}") double cvRidgeMax,
+                        @Value("${homeprice.training.cv.ridge-steps:50}") int cvRidgeSteps,
+                        @Value("${homeprice.comparables.enabled:true}") boolean comparables) {
         this.datasetLoader = datasetLoader;
+        this.snapshotStore = snapshotStore;
+        this.iterativeTrainer = iterativeTrainer;
+        this.metrics = metrics;
+        this.streaming = streaming;
+        if (streaming && iterativeTrainer.getOptimizer() == OptimizerType.SGD) {
+            throw new IllegalArgumentException(
+                    "homeprice.training.optimizer=sgd needs the dataset in memory (homeprice.training.streaming=false)");
+        }
+        if (streaming && datasetLoader.getOutlierMode() != OutlierMode.NONE) {
+            log.warn("homeprice.dataset.outliers.mode={} is ignored by streaming training; rows are profiled only",
+                    datasetLoader.getOutlierMode());
+        }
+        this.solver = SolverType.fromName(solver).create(ridge);
+        this.ridge = ridge;
+        this.locationEncoding = LocationEncoding.fromName(locationEncoding);
+        this.hashBuckets = hashBuckets;
+        if (!parallel) {
+            this.trainingPool = null;
+        } else {
+            this.trainingPool = threads > 0 ? new ForkJoinPool(threads) : ForkJoinPool.commonPool();
+        }
+        this.shardFitter = sharded ? new ShardedModelFitter(this.solver, minShardRows,
+                trainingPool != null ? trainingPool : ForkJoinPool.commonPool()) : null;
+        this.cvFolds = cvFolds;
+        if (cvFolds > 1 && (sharded || this.locationEncoding != LocationEncoding.ORDINAL
+                || iterativeTrainer.getOptimizer() != OptimizerType.NORMAL_EQUATIONS)) {
+            throw new IllegalArgumentException("homeprice.training.cv.folds needs the ordinal location encoding, "
+                    + "no per-location models and the normal-equations optimizer");
+        }
+        this.cvRidges = cvFolds > 1 ? CrossValidation.ridgeGrid(cvRidgeMin, cvRidgeMax, cvRidgeSteps) : null;
+        this.comparables = comparables;
+        registerGauges(metrics.getRegistry());
+    }
+
+    /**
+     * Gauges over the serving model version; NaN until a model is available.
+     */
+    private void registerGauges(MeterRegistry registry) {
+        gauge(registry, "homeprice.model.mae", "Test-set MAE of the serving model", b -> b.getMetrics().getMae());
+        gauge(registry, "homeprice.model.rmse", "Test-set RMSE of the serving model", b -> b.getMetrics().getRmse());
+        gauge(registry, "homeprice.model.version", "Version number of the serving model", ModelBundle::getVersion);
+        gauge(registry, "homeprice.model.train.rows", "Training rows of the serving model",
+                b -> b.getMetrics().getTrainSamples());
+        gauge(registry, "homeprice.model.test.rows", "Test rows of the serving model",
+                b -> b.getMetrics().getTestSamples());
+        gauge(registry, "homeprice.model.locations", "Locations known to the serving model",
+                b -> b.getLocations().size());
+    }
+
+    private void gauge(MeterRegistry registry, String name, String description, ToDoubleFunction<ModelBundle> value) {
+        Gauge.builder(name, bundleRef, ref -> {
+            ModelBundle bundle = ref.get();
+            return bundle != null ? value.applyAsDouble(bundle) : Double.NaN;
+        }).description(description).register(registry);
     }
 
     @PostConstruct
     public void trainModel() {
+        if (loadSnapshot()) {
+            return;
+        }
         try {
-            List<PropertyRecord> records = datasetLoader.loadRecords();
-            List<String> locations = datasetLoader.getLocationOrder();
-            locationOrderRef.set(locations);
+            ModelBundle bundle = train();
+            publish(bundle);
+            saveSnapshot(bundle);
+        } catch (IOException e) {
+            log.error("Failed to load dataset or train model", e);
+        }
+    }
+
+    /**
+     * Train a new model version from the current dataset without publishing it.
+     * Training runs are serialized; serving continues from the published bundle meanwhile.
+     */
+    public synchronized ModelBundle train() throws IOException {
+        if (cvFolds > 1) {
+            return streaming ? crossValidateStreaming() : crossValidateInMemory();
+        }
+        return streaming ? trainModelStreaming() : trainModelInMemory();
+    }
+
+    /**
+     * Whether trained versions carry the X'X / X'y they were solved from: the ordinal encoding with the
+     * normal equations or coordinate descent. SGD and the sparse encodings never accumulate them.
+     */
+    public boolean keepsStatistics() {
+        return locationEncoding == LocationEncoding.ORDINAL && iterativeTrainer.getOptimizer() != OptimizerType.SGD;
+    }
+
+    /**
+     * Whether trained versions score some locations with their own coefficient rows (per-location
+     * models or a one-hot / hashed location encoding) rather than the global model.
+     */
+    public boolean hasLocationModels() {
+        return shardFitter != null || locationEncoding != LocationEncoding.ORDINAL;
+    }
 
-            if (records.size() < 5) {
-                log.warn("Dataset too small ({} records). Model may not be reliable.", records.size());
+    private ModelBundle trainModelInMemory() throws IOException {
+        long loadStart = System.nanoTime();
+        PropertyDataset dataset = datasetLoader.loadDataset();
+        metrics.recordDatasetLoad(dataset.size(), System.nanoTime() - loadStart);
+
+        if (dataset.size() < 5) {
+            log.warn("Dataset too small ({} records). Model may not be reliable.", dataset.size());
+        }
+
+        int[] shuffled = shuffledRows(dataset.size(), new Random(RANDOM_SEED));
+        int split = (int) (shuffled.length * TRAIN_RATIO);
+        int[] trainRows = Arrays.copyOfRange(shuffled, 0, split);
+        int[] testRows = Arrays.copyOfRange(shuffled, split, shuffled.length);
+        DesignMatrix train = dataset.features(trainRows);
+        DesignMatrix test = dataset.features(testRows);
+
+        // Only the path in use does any work: X'X is accumulated for the normal equations and coordinate
+        // descent, and the dense global model is only fitted for the ordinal encoding
+        boolean sgd = iterativeTrainer.getOptimizer() == OptimizerType.SGD;
+        NormalEquations stats = keepsStatistics()
+                ? metrics.trainingPhase(TrainingPhase.GRAM).record(() -> NormalEquations.of(train, trainingPool))
+                : null;
+        List<String> locations = dataset.getLocations();
+        LinearRegression model;
+        double[][] locationRows = null;
+        if (locationEncoding == LocationEncoding.ORDINAL) {
+            model = sgd
+                    ? metrics.trainingPhase(TrainingPhase.SOLVE).record(() -> LinearRegression.withWeights(
+                            iterativeTrainer.fit(SparseMatrix.of(train), SparseMatrix.of(test), trainingPool), solver))
+                    : fit(stats);
+        } else {
+            PropertyFeatureEncoder encoder = encoder(locations);
+            double[] weights;
+            if (sgd) {
+                SparseMatrix trainCsr = encoder.encode(dataset, trainRows);
+                SparseMatrix testCsr = encoder.encode(dataset, testRows);
+                weights = metrics.trainingPhase(TrainingPhase.SOLVE)
+                        .record(() -> iterativeTrainer.fit(trainCsr, testCsr, trainingPool));
+            } else {
+                SparseNormalEquations sparse = metrics.trainingPhase(TrainingPhase.GRAM).record(() -> {
+                    SparseNormalEquations accumulated = new SparseNormalEquations();
+                    accumulated.addAll(encoder.encode(dataset, trainRows));
+                    return accumulated;
+                });
+                weights = fit(sparse, encoder);
             }
+            model = globalModel(weights);
+            locationRows = encoder.locationRows(weights, locations.size());
+        }
+        if (shardFitter != null) {
+            double[][] shards = metrics.trainingPhase(TrainingPhase.SHARDS)
+                    .record(() -> shardFitter.fit(dataset, trainRows, locations.size()));
+            locationRows = overlay(locationRows, shards);
+        }
+        ScoringModel scoringModel = ScoringModel.of(model, locations, locationRows);
 
-            List<PropertyRecord> shuffled = new ArrayList<>(records);
-            Collections.shuffle(shuffled, new java.util.Random(RANDOM_SEED));
-            int split = (int) (shuffled.size() * TRAIN_RATIO);
-            List<PropertyRecord> trainList = shuffled.subList(0, split);
-            List<PropertyRecord> testList = shuffled.subList(split, shuffled.size());
-
-            double[][] XTrain = new double[trainList.size()][5];
-            double[] yTrain = new double[trainList.size()];
-            for (int i = 0; i < trainList.size(); i++) {
-                PropertyRecord r = trainList.get(i);
-                XTrain[i] = r.getFeatures();
-                yTrain[i] = r.getPriceInr();
+        long evaluateStart = System.nanoTime();
+        double[] yTest = new double[test.rows()];
+        for (int i = 0; i < yTest.length; i++) {
+            yTest[i] = test.target(i);
+        }
+        double[] predictions;
+        if (locationRows == null) {
+            predictions = model.predict(test);
+        } else {
+            predictions = new double[testRows.length];
+            for (int i = 0; i < testRows.length; i++) {
+                int r = testRows[i];
+                predictions[i] = scoringModel.predict(dataset.getSquareFeet(r), dataset.getBhk(r),
+                        dataset.getBathrooms(r), dataset.getLocationIndex(r));
+            }
+        }
+        double mae = computeMAE(yTest, predictions);
+        double rmse = computeRMSE(yTest, predictions);
+        metrics.trainingPhase(TrainingPhase.EVALUATE).record(System.nanoTime() - evaluateStart, TimeUnit.NANOSECONDS);
+        logShards(scoringModel);
+        logEvaluation(yTest.length, mae, rmse);
+        return newVersion(model, scoringModel, new ModelMetrics(mae, rmse, train.rows(), test.rows()), stats,
+                buildComparables(dataset, trainRows));
+    }
+
+    /**
+     * Train without materializing the dataset: the first pass over the CSV accumulates X'X and X'y
+     * for training rows, the second pass scores the held-out rows. Peak memory is O(p^2).
+     * Rows are assigned to train/test by a seeded hash of their position, so both passes agree.
+     * The first pass is recorded as the dataset load: parsing and accumulation are interleaved, so
+     * the Gram accumulation is included in the load time rather than timed separately.
+     */
+    private ModelBundle trainModelStreaming() throws IOException {
+        boolean ordinal = locationEncoding == LocationEncoding.ORDINAL;
+        NormalEquations stats = ordinal ? new NormalEquations(FEATURE_COUNT) : null;
+        List<NormalEquations> shardStats = new ArrayList<>();
+        SparseNormalEquations oneHotStats = ordinal ? null : new SparseNormalEquations();
+        PropertyFeatureEncoder oneHot = ordinal ? null
+                : PropertyFeatureEncoder.oneHot(Integer.MAX_VALUE - PropertyFeatureEncoder.NUMERIC_COLUMNS);
+        int[] sparseIndices = new int[PropertyFeatureEncoder.MAX_NON_ZEROS];
+        double[] sparseValues = new double[PropertyFeatureEncoder.MAX_NON_ZEROS];
+        double[] features = new double[FEATURE_COUNT];
+        double[] shardFeatures = new double[ShardedModelFitter.SHARD_FEATURES];
+        long[] row = new long[2]; // position, training rows
+        long loadStart = System.nanoTime();
+        long total = datasetLoader.streamRecords((sq, bhk, bath, locIndex, price) -> {
+            if (isTrainRow(row[0]++)) {
+                row[1]++;
+                if (stats != null) {
+                    PropertyDataset.encodeFeatures(features, sq, bhk, bath, locIndex);
+                    stats.add(features, price);
+                }
+                if (shardFitter != null) {
+                    ShardedModelFitter.accumulate(shardStats, shardFeatures, sq, bhk, bath, locIndex, price);
+                }
+                if (oneHotStats != null) {
+                    int nnz = oneHot.encode(sq, bhk, bath, locIndex, sparseIndices, sparseValues);
+                    oneHotStats.add(sparseIndices, sparseValues, nnz, price);
+                }
             }
+        });
+
+        metrics.recordDatasetLoad(total, System.nanoTime() - loadStart);
 
-            LinearRegression model = new LinearRegression();
-            model.fit(XTrain, yTrain);
-            modelRef.set(model);
+        if (total < 5) {
+            log.warn("Dataset too small ({} records). Model may not be reliable.", total);
+        }
 
-            double[][] XTest = new double[testList.size()][5];
-            double[] yTest = new double[testList.size()];
-            for (int i = 0; i < testList.size(); i++) {
-                PropertyRecord r = testList.get(i);
-                XTest[i] = r.getFeatures();
-                yTest[i] = r.getPriceInr();
+        List<String> locations = datasetLoader.getLocationOrder();
+        LinearRegression model;
+        double[][] locationRows = null;
+        if (ordinal) {
+            model = fit(stats);
+        } else {
+            PropertyFeatureEncoder encoder = encoder(locations);
+            SparseNormalEquations sparse = encoder.getEncoding() == LocationEncoding.HASHED
+                    ? metrics.trainingPhase(TrainingPhase.GRAM).record(
+                            () -> oneHotStats.project(encoder.projectionMap(), encoder.projectionScale()))
+                    : oneHotStats;
+            double[] weights = fit(sparse, encoder);
+            model = globalModel(weights);
+            locationRows = encoder.locationRows(weights, locations.size());
+        }
+        if (shardFitter != null) {
+            double[][] shards = metrics.trainingPhase(TrainingPhase.SHARDS).record(() -> shardFitter.fit(shardStats));
+            locationRows = overlay(locationRows, shards);
+        }
+        ScoringModel scoringModel = ScoringModel.of(model, locations, locationRows);
+        boolean global = locationRows == null;
+
+        long evaluateStart = System.nanoTime();
+        double[] errors = new double[3]; // count, sum |e|, sum e^2
+        row[0] = 0;
+        datasetLoader.streamRecords((sq, bhk, bath, locIndex, price) -> {
+            if (!isTrainRow(row[0]++)) {
+                double predicted;
+                if (global) {
+                    PropertyDataset.encodeFeatures(features, sq, bhk, bath, locIndex);
+                    predicted = model.predict(features);
+                } else {
+                    predicted = scoringModel.predict(sq, bhk, bath, locIndex);
+                }
+                double diff = price - predicted;
+                errors[0]++;
+                errors[1] += Math.abs(diff);
+                errors[2] += diff * diff;
+            }
+        });
+        long testCount = (long) errors[0];
+        double mae = testCount > 0 ? errors[1] / testCount : Double.NaN;
+        double rmse = testCount > 0 ? Math.sqrt(errors[2] / testCount) : Double.NaN;
+        metrics.trainingPhase(TrainingPhase.EVALUATE).record(System.nanoTime() - evaluateStart, TimeUnit.NANOSECONDS);
+        logShards(scoringModel);
+        if (testCount > 0) {
+            logEvaluation(testCount, mae, rmse);
+        }
+        return newVersion(model, scoringModel, new ModelMetrics(mae, rmse, row[1], testCount), stats);
+    }
+
+    /**
+     * k-fold cross-validation in memory: rows are dealt into folds in shuffled order, X'X and X'y are
+     * accumulated once per fold, and one more pass scores every row with the model trained without its fold.
+     */
+    private ModelBundle crossValidateInMemory() throws IOException {
+        long loadStart = System.nanoTime();
+        PropertyDataset dataset = datasetLoader.loadDataset();
+        metrics.recordDatasetLoad(dataset.size(), System.nanoTime() - loadStart);
+        if (dataset.size() < cvFolds) {
+            throw new IllegalArgumentException("Dataset has " + dataset.size() + " records, fewer than "
+                    + cvFolds + " folds");
+        }
+
+        int[] shuffled = shuffledRows(dataset.size(), new Random(RANDOM_SEED));
+        int[] foldOfRow = new int[shuffled.length];
+        for (int i = 0; i < shuffled.length; i++) {
+            foldOfRow[shuffled[i]] = i % cvFolds;
+        }
+        DesignMatrix all = dataset.features();
+        CrossValidation cv = metrics.trainingPhase(TrainingPhase.GRAM)
+                .record(() -> CrossValidation.of(all, foldOfRow, cvFolds, trainingPool));
+        CrossValidation.RidgeSearch search = metrics.trainingPhase(TrainingPhase.SOLVE)
+                .record(() -> cv.search(cvRidges));
+        LinearRegression model = fitCrossValidated(cv, search);
+
+        long evaluateStart = System.nanoTime();
+        double[] features = new double[FEATURE_COUNT];
+        double[] errors = new double[3]; // count, sum |e|, sum e^2
+        for (int r = 0; r < all.rows(); r++) {
+            all.copyRow(r, features);
+            addError(errors, all.target(r) - dot(search.foldWeights()[foldOfRow[r]], features));
+        }
+        metrics.trainingPhase(TrainingPhase.EVALUATE).record(System.nanoTime() - evaluateStart, TimeUnit.NANOSECONDS);
+        return crossValidatedVersion(model, dataset.getLocations(), cv, errors, buildComparables(dataset, null));
+    }
+
+    /**
+     * k-fold cross-validation without materializing the dataset: rows are assigned to folds by a seeded
+     * hash of their position, the first pass accumulates per-fold statistics and the second scores each
+     * row with the model trained without its fold.
+     */
+    private ModelBundle crossValidateStreaming() throws IOException {
+        NormalEquations[] foldStats = new NormalEquations[cvFolds];
+        for (int f = 0; f < cvFolds; f++) {
+            foldStats[f] = new NormalEquations(FEATURE_COUNT);
+        }
+        double[] features = new double[FEATURE_COUNT];
+        long[] row = new long[1];
+        long loadStart = System.nanoTime();
+        long total = datasetLoader.streamRecords((sq, bhk, bath, locIndex, price) -> {
+            PropertyDataset.encodeFeatures(features, sq, bhk, bath, locIndex);
+            foldStats[foldOf(row[0]++)].add(features, price);
+        });
+        metrics.recordDatasetLoad(total, System.nanoTime() - loadStart);
+        for (NormalEquations fold : foldStats) {
+            if (fold.count() == 0) {
+                throw new IllegalArgumentException("Dataset has " + total + " records; some of the "
+                        + cvFolds + " folds are empty");
+            }
+        }
+
+        CrossValidation cv = new CrossValidation(foldStats);
+        CrossValidation.RidgeSearch search = metrics.trainingPhase(TrainingPhase.SOLVE)
+                .record(() -> cv.search(cvRidges));
+        LinearRegression model = fitCrossValidated(cv, search);
+
+        long evaluateStart = System.nanoTime();
+        double[] errors = new double[3];
+        row[0] = 0;
+        datasetLoader.streamRecords((sq, bhk, bath, locIndex, price) -> {
+            PropertyDataset.encodeFeatures(features, sq, bhk, bath, locIndex);
+            addError(errors, price - dot(search.foldWeights()[foldOf(row[0]++)], features));
+        });
+        metrics.trainingPhase(TrainingPhase.EVALUATE).record(System.nanoTime() - evaluateStart, TimeUnit.NANOSECONDS);
+        return crossValidatedVersion(model, datasetLoader.getLocationOrder(), cv, errors, null);
+    }
+
+    /**
+     * Final model on all rows, with the ridge penalty chosen by cross-validation.
+     */
+    private LinearRegression fitCrossValidated(CrossValidation cv, CrossValidation.RidgeSearch search) {
+        log.info("{}-fold cross-validation: best ridge {} of {} (CV RMSE ₹ {}; ridge 0: ₹ {})", cv.folds(),
+                String.format("%.4g", search.bestRidge()), search.ridges().length,
+                String.format("%.2f", search.bestRmse()), String.format("%.2f", search.rmse()[0]));
+        return metrics.trainingPhase(TrainingPhase.SOLVE).record(() -> {
+            LinearRegression model = new LinearRegression(new CholeskySolver(search.bestRidge()));
+            model.fit(cv.total());
+            return model;
+        });
+    }
+
+    private ModelBundle crossValidatedVersion(LinearRegression model, List<String> locations, CrossValidation cv,
+                                              double[] errors, ComparablesIndex comparablesIndex) {
+        long count = (long) errors[0];
+        double mae = errors[1] / count;
+        double rmse = Math.sqrt(errors[2] / count);
+        logEvaluation(count, mae, rmse);
+        return newVersion(model, ScoringModel.of(model, locations, null),
+                new ModelMetrics(mae, rmse, cv.total().count(), count), cv.total(), comparablesIndex);
+    }
+
+    private static void addError(double[] errors, double diff) {
+        errors[0]++;
+        errors[1] += Math.abs(diff);
+        errors[2] += diff * diff;
+    }
+
+    private static double dot(double[] weights, double[] features) {
+        double sum = 0;
+        for (int j = 0; j < weights.length; j++) {
+            sum += weights[j] * features[j];
+        }
+        return sum;
+    }
+
+    /**
+     * Serve from the binary snapshot instead of training, if one is configured and valid.
+     */
+    private boolean loadSnapshot() {
+        if (!snapshotStore.isEnabled()) {
+            return false;
+        }
+        long start = System.nanoTime();
+        try {
+            Optional<ModelSnapshot> loaded = snapshotStore.load();
+            if (loaded.isEmpty()) {
+                log.info("No model snapshot at {}; training from dataset", snapshotStore.getPath());
+                return false;
+            }
+            ModelSnapshot snapshot = loaded.get();
+            if (!snapshot.getFeatureNames().equals(PropertyDataset.FEATURE_NAMES)) {
+                log.warn("Model snapshot feature schema {} does not match {}; retraining",
+                        snapshot.getFeatureNames(), PropertyDataset.FEATURE_NAMES);
+                return false;
             }
-            double[] predictions = model.predict(XTest);
-            double mae = computeMAE(yTest, predictions);
-            double rmse = computeRMSE(yTest, predictions);
-            log.info("=== Model evaluation (test set) ===");
-            log.info("Test samples: {}", testList.size());
-            log.info("MAE (Mean Absolute Error): ₹ {} ", String.format("%.2f", mae));
-            log.info("RMSE (Root Mean Squared Error): ₹ {}", String.format("%.2f", rmse));
+            LinearRegression model = LinearRegression.withWeights(snapshot.getWeights(), solver);
+            publish(new ModelBundle(versions.incrementAndGet(), model,
+                    ScoringModel.of(model, snapshot.getLocations(), snapshot.getShardWeights()),
+                    snapshot.getMetrics(), snapshot.getStatistics(), snapshot.getCreatedAtMillis()));
+            log.info("Loaded model snapshot from {} in {} ms", snapshotStore.getPath(),
+                    String.format("%.2f", (System.nanoTime() - start) / 1e6));
+            logEvaluation(snapshot.getMetrics().getTestSamples(), snapshot.getMetrics().getMae(),
+                    snapshot.getMetrics().getRmse());
+            return true;
         } catch (IOException e) {
-            log.error("Failed to load dataset or train model", e);
+            log.warn("Could not load model snapshot; training from dataset", e);
+            return false;
         }
     }
 
-    public LinearRegression getModel() {
-        LinearRegression m = modelRef.get();
-        if (m == null) {
+    /**
+     * Wrap a fitted model and its serving form as the next model version (not yet published).
+     */
+    public ModelBundle newVersion(LinearRegression model, ScoringModel scoringModel, ModelMetrics metrics,
+                                  NormalEquations statistics) {
+        return newVersion(model, scoringModel, metrics, statistics, null);
+    }
+
+    /**
+     * Next model version that also serves comparable listings from the given index (may be null).
+     */
+    public ModelBundle newVersion(LinearRegression model, ScoringModel scoringModel, ModelMetrics metrics,
+                                  NormalEquations statistics, ComparablesIndex comparablesIndex) {
+        return new ModelBundle(versions.incrementAndGet(), model, scoringModel, metrics, statistics,
+                comparablesIndex, System.currentTimeMillis());
+    }
+
+    /**
+     * Nearest-neighbour index of the training rows (all rows if null), or null if disabled.
+     */
+    private ComparablesIndex buildComparables(PropertyDataset dataset, int[] rows) {
+        if (!comparables) {
+            return null;
+        }
+        ComparablesIndex index = metrics.trainingPhase(TrainingPhase.COMPARABLES)
+                .record(() -> ComparablesIndex.build(dataset, rows, trainingPool));
+        log.info("Comparable-listings index: {} listings", index.size());
+        return index;
+    }
+
+    /**
+     * Promote a model version only if the serving version is still the one it was derived from
+     * (null: no version was published yet). Returns false, and changes nothing, if another version
+     * was published in the meantime.
+     */
+    public boolean promote(ModelBundle expected, ModelBundle bundle) {
+        if (!bundleRef.compareAndSet(expected, bundle)) {
+            return false;
+        }
+        if (expected != null) {
+            log.info("Promoted model version {} (replacing version {})", bundle.getVersion(), expected.getVersion());
+        }
+        saveSnapshot(bundle);
+        return true;
+    }
+
+    private void publish(ModelBundle bundle) {
+        ModelBundle previous = bundleRef.getAndSet(bundle);
+        if (previous != null) {
+            log.info("Promoted model version {} (replacing version {})", bundle.getVersion(), previous.getVersion());
+        }
+    }
+
+    private void saveSnapshot(ModelBundle bundle) {
+        if (!snapshotStore.isEnabled()) {
+            return;
+        }
+        try {
+            snapshotStore.save(new ModelSnapshot(PropertyDataset.FEATURE_NAMES, bundle.getModel().getWeights(),
+                    bundle.getLocations(), bundle.getScoringModel().getShardWeights(), bundle.getMetrics(),
+                    bundle.getStatistics(), bundle.getCreatedAtMillis()));
+            log.info("Wrote model snapshot to {}", snapshotStore.getPath());
+        } catch (IOException e) {
+            log.warn("Could not write model snapshot to {}", snapshotStore.getPath(), e);
+        }
+    }
+
+    /**
+     * Row permutation equivalent to Collections.shuffle on a list of the same size and seed.
+     */
+    private static int[] shuffledRows(int size, Random random) {
+        int[] rows = new int[size];
+        for (int i = 0; i < size; i++) {
+            rows[i] = i;
+        }
+        for (int i = size; i > 1; i--) {
+            int j = random.nextInt(i);
+            int tmp = rows[i - 1];
+            rows[i - 1] = rows[j];
+            rows[j] = tmp;
+        }
+        return rows;
+    }
+
+    private static boolean isTrainRow(long row) {
+        return uniform(row) < TRAIN_RATIO;
+    }
+
+    private int foldOf(long row) {
+        return (int) (uniform(row) * cvFolds);
+    }
+
+    /**
+     * Seeded hash of a row position, uniform in [0, 1).
+     */
+    private static double uniform(long row) {
+        long z = row + RANDOM_SEED * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z = z ^ (z >>> 31);
+        return (z >>> 11) * 0x1.0p-53;
+    }
+
+    private PropertyFeatureEncoder encoder(List<String> locations) {
+        return locationEncoding == LocationEncoding.HASHED
+                ? PropertyFeatureEncoder.hashed(locations, hashBuckets)
+                : PropertyFeatureEncoder.oneHot(locations.size());
+    }
+
+    /**
+     * Global model of a sparse fit: its numeric weights with no location term, which is how a location
+     * without a location column is scored. Every known location has its own row.
+     */
+    private LinearRegression globalModel(double[] sparseWeights) {
+        double[] weights = new double[FEATURE_COUNT];
+        System.arraycopy(sparseWeights, 0, weights, 0, PropertyFeatureEncoder.NUMERIC_COLUMNS);
+        return LinearRegression.withWeights(weights, solver);
+    }
+
+    /**
+     * Refit the global model from updated training statistics with the configured optimizer and solver,
+     * so an incrementally updated version is regularized like a trained one (e.g. keeps its lasso zeros).
+     */
+    public LinearRegression refit(NormalEquations stats) {
+        return fit(stats);
+    }
+
+    /**
+     * Global model from training statistics, by the normal equations or coordinate descent.
+     */
+    private LinearRegression fit(NormalEquations stats) {
+        return metrics.trainingPhase(TrainingPhase.SOLVE).record(() -> {
+            if (iterativeTrainer.getOptimizer() == OptimizerType.COORDINATE_DESCENT) {
+                return LinearRegression.withWeights(iterativeTrainer.fit(stats), solver);
+            }
+            LinearRegression model = new LinearRegression(solver);
+            model.fit(stats);
+            return model;
+        });
+    }
+
+    /**
+     * Weights of the sparse model, by conjugate gradient or coordinate descent.
+     */
+    private double[] fit(SparseNormalEquations sparse, PropertyFeatureEncoder encoder) {
+        log.info("{} location encoding: {} columns, {} nonzeros in X'X", locationEncoding, encoder.columns(),
+                sparse.nonZeros());
+        return metrics.trainingPhase(TrainingPhase.SOLVE).record(() -> {
+            if (iterativeTrainer.getOptimizer() == OptimizerType.COORDINATE_DESCENT) {
+                return iterativeTrainer.fit(sparse, encoder.columns());
+            }
+            LinearRegression sparseModel = new LinearRegression(solver);
+            sparseModel.fit(sparse, encoder.columns(), ridge);
+            return sparseModel.getWeights();
+        });
+    }
+
+    /**
+     * Location rows with per-location shard weights taking precedence where present.
+     */
+    private static double[][] overlay(double[][] rows, double[][] shards) {
+        if (rows == null) {
+            return shards;
+        }
+        for (int loc = 0; loc < rows.length && loc < shards.length; loc++) {
+            if (shards[loc] != null) {
+                rows[loc] = shards[loc];
+            }
+        }
+        return rows;
+    }
+
+    private void logShards(ScoringModel scoringModel) {
+        if (shardFitter != null && locationEncoding == LocationEncoding.ORDINAL) {
+            log.info("Per-location models: {} of {} locations (others use the global model)",
+                    scoringModel.shardCount(), scoringModel.getLocations().size());
+        } else if (locationEncoding != LocationEncoding.ORDINAL) {
+            log.info("{} locations scored with {} location weights{}", scoringModel.getLocations().size(),
+                    locationEncoding, shardFitter != null ? " (per-location models where available)" : "");
+        }
+    }
+
+    private static void logEvaluation(long testCount, double mae, double rmse) {
+        log.info("=== Model evaluation (test set) ===");
+        log.info("Test samples: {}", testCount);
+        log.info("MAE (Mean Absolute Error): ₹ {} ", String.format("%.2f", mae));
+        log.info("RMSE (Root Mean Squared Error): ₹ {}", String.format("%.2f", rmse));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (trainingPool != null && trainingPool != ForkJoinPool.commonPool()) {
+            trainingPool.shutdown();
+        }
+    }
+
+    /**
+     * The model version currently used for serving. Read it once per request and use its parts
+     * together, so a concurrent swap cannot mix two versions.
+     */
+    public ModelBundle getBundle() {
+        ModelBundle bundle = bundleRef.get();
+        if (bundle == null) {
             throw new IllegalStateException("Model not yet trained or failed to load dataset");
         }
-        return m;
+        return bundle;
+    }
+
+    /**
+     * The serving model version, or null if none was published yet (unlike {@link #getBundle()}).
+     */
+    public ModelBundle getBundleIfPresent() {
+        return bundleRef.get();
+    }
+
+    public LinearRegression getModel() {
+        return getBundle().getModel();
+    }
+
+    /**
+     * Test-set metrics of the current model, or null if no model is available.
+     */
+    public ModelMetrics getMetrics() {
+        ModelBundle bundle = bundleRef.get();
+        return bundle != null ? bundle.getMetrics() : null;
+    }
+
+    /**
+     * Immutable serving form of the current model (O(1) location lookup, per-location intercepts).
+     */
+    public ScoringModel getScoringModel() {
+        return getBundle().getScoringModel();
     }
 
+    /**
+     * Location names in encoding order. The list is immutable and shared; callers must not copy it per request.
+     */
     public List<String> getLocationOrder() {
-        List<String> locs = locationOrderRef.get();
-        return locs != null ? new ArrayList<>(locs) : List.of();
+        ModelBundle bundle = bundleRef.get();
+        return bundle != null ? bundle.getLocations() : List.of();
     }
 
     public int getLocationIndex(String location) {
-        List<String> order = locationOrderRef.get();
-        if (order == null) return 0;
-        int idx = order.indexOf(location);
-        return idx >= 0 ? idx : 0;
+        ModelBundle bundle = bundleRef.get();
+        return bundle != null ? bundle.getScoringModel().locationIndex(location) : 0;
     }
 
     private static double computeMAE(double[] actual, double[] predicted) {
@@ -0,0 +1,211 @@
+package com.homeprice.service;
+
+import com.homeprice.model.domain.PricePrediction;
+import com.homeprice.model.ml.ScoringModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optional request coalescing for single predictions. Cache misses from concurrent callers are
+ * queued; one thread takes the first, waits up to the window for more (or until max-rows are queued),
+ * and scores them all against one pinned {@link ModelBundle} in a single {@link PredictionBlock} pass.
+ * Each caller gets its result through a {@link CompletableFuture}. Cache hits are answered at once.
+ * <p>
+ * This trades up to one window of added latency per request for fewer, larger scoring passes, so it
+ * only pays off when many requests arrive within a window. When disabled, {@link #predict} is
+ * {@link PredictionService#predict(double, int, int, String)}.
+ */
+@Component
+public class PredictionBatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(PredictionBatcher.class);
+
+    private final PredictionService predictionService;
+    private final PredictionCache cache;
+    private final HomePriceMetrics metrics;
+    private final boolean enabled;
+    private final long windowNanos;
+    private final int maxRows;
+    private final LinkedBlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private volatile boolean running;
+    private Thread worker;
+
+    public PredictionBatcher(PredictionService predictionService, PredictionCache cache, HomePriceMetrics metrics,
+                             @Value("${homeprice.batching.enabled:false}") boolean enabled,
+                             @Value("${homeprice.batching.window-micros:200}") long windowMicros,
+                             @Value("${homeprice.batching.max-rows:256}") int maxRows) {
+        if (enabled && (windowMicros < 0 || maxRows < 1)) {
+            throw new IllegalArgumentException(
+                    "homeprice.batching.window-micros must be >= 0 and homeprice.batching.max-rows positive");
+        }
+        this.predictionService = predictionService;
+        this.cache = cache;
+        this.metrics = metrics;
+        this.enabled = enabled;
+        this.windowNanos = TimeUnit.MICROSECONDS.toNanos(windowMicros);
+        this.maxRows = maxRows;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::run, "prediction-batcher");
+        worker.setDaemon(true);
+        worker.start();
+        log.info("Coalescing single predictions: window {} us, up to {} rows",
+                TimeUnit.NANOSECONDS.toMicros(windowNanos), maxRows);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+        List<Pending> abandoned = new ArrayList<>();
+        queue.drainTo(abandoned);
+        for (Pending pending : abandoned) {
+            pending.future.completeExceptionally(new IllegalStateException("Prediction service is shutting down"));
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Price and formatted price, as {@link PredictionService#predict(double, int, int, String)}, waiting
+     * for the coalesced batch when batching is enabled. Failures are rethrown unwrapped.
+     */
+    public PricePrediction predict(double squareFeet, int bhk, int bathrooms, String location) {
+        if (!enabled) {
+            return predictionService.predict(squareFeet, bhk, bathrooms, location);
+        }
+        try {
+            return submit(squareFeet, bhk, bathrooms, location).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * Queue one prediction for the next batch; the future completes when the batch is scored (at once
+     * on a cache hit, or if batching is disabled).
+     *
+     * @throws IllegalStateException if no model is loaded yet
+     */
+    public CompletableFuture<PricePrediction> submit(double squareFeet, int bhk, int bathrooms, String location) {
+        if (!enabled) {
+            return CompletableFuture.completedFuture(predictionService.predict(squareFeet, bhk, bathrooms, location));
+        }
+        long start = System.nanoTime();
+        ModelBundle bundle = predictionService.getModelBundle();
+        int locationIndex = bundle.getScoringModel().locationIndex(location);
+        PricePrediction cached = cache.get(PredictionCache.key(squareFeet, bhk, bathrooms, locationIndex),
+                bundle.getVersion());
+        if (cached != null) {
+            metrics.recordPrediction(System.nanoTime() - start);
+            return CompletableFuture.completedFuture(cached);
+        }
+        Pending pending = new Pending(squareFeet, bhk, bathrooms, location, start);
+        queue.add(pending);
+        if (!running) {
+            shutdown(); // lost a race with shutdown: fail whatever is still queued
+        }
+        return pending.future;
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(maxRows);
+        PredictionBlock block = new PredictionBlock(maxRows);
+        while (running) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < maxRows) {
+                    if (queue.drainTo(batch, maxRows - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    Pending next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                score(batch, block);
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Score the batch with the current model version and complete every caller's future.
+     */
+    private void score(List<Pending> batch, PredictionBlock block) {
+        try {
+            ModelBundle bundle = predictionService.getModelBundle();
+            ScoringModel scoringModel = bundle.getScoringModel();
+            long[] keys = new long[batch.size()];
+            block.clear();
+            for (int i = 0; i < batch.size(); i++) {
+                Pending p = batch.get(i);
+                int locationIndex = scoringModel.locationIndex(p.location);
+                keys[i] = PredictionCache.key(p.squareFeet, p.bhk, p.bathrooms, locationIndex);
+                block.add(p.squareFeet, p.bhk, p.bathrooms, locationIndex);
+            }
+            predictionService.predictBlock(block, bundle);
+            metrics.recordCoalescedBatch(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                long price = block.getPriceInr(i);
+                PricePrediction prediction = new PricePrediction(price, predictionService.formatPriceInr(price));
+                cache.put(keys[i], bundle.getVersion(), prediction);
+                Pending p = batch.get(i);
+                metrics.recordPrediction(System.nanoTime() - p.startNanos);
+                p.future.complete(prediction);
+            }
+        } catch (RuntimeException e) {
+            for (Pending p : batch) {
+                p.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    /** A queued prediction and the future its caller waits on. */
+    private static final class Pending {
+
+        final double squareFeet;
+        final int bhk;
+        final int bathrooms;
+        final String location;
+        final long startNanos;
+        final CompletableFuture<PricePrediction> future = new CompletableFuture<>();
+
+        Pending(double squareFeet, int bhk, int bathrooms, String location, long startNanos) {
+            this.squareFeet = squareFeet;
+            this.bhk = bhk;
+            this.bathrooms = bathrooms;
+            this.location = location;
+            this.startNanos = startNanos;
+        }
+    }
+}
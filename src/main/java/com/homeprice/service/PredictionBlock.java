@@ -0,0 +1,90 @@
+package com.homeprice.service;
+
+import com.homeprice.model.domain.PropertyDataset;
+
+import java.util.Arrays;
+
+/**
+ * Reusable block of rows scored together: features are packed into one flat row-major buffer
+ * so a block costs a single pass through {@link com.homeprice.model.ml.ScoringModel}.
+ * Rows that failed validation keep their slot (so output order matches input) and carry an error.
+ */
+public class PredictionBlock {
+
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private final int capacity;
+    final double[] features;
+    final double[] predictions;
+    final long[] prices;
+    private final String[] errors;
+    private int size;
+
+    public PredictionBlock() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public PredictionBlock(int capacity) {
+        this.capacity = capacity;
+        this.features = new double[capacity * PropertyDataset.FEATURE_COUNT];
+        this.predictions = new double[capacity];
+        this.prices = new long[capacity];
+        this.errors = new String[capacity];
+    }
+
+    /**
+     * Append a valid row; returns its index in the block.
+     */
+    public int add(double squareFeet, int bhk, int bathrooms, int locationIndex) {
+        int row = reserve();
+        double[] f = features;
+        int base = row * PropertyDataset.FEATURE_COUNT;
+        f[base] = 1.0;
+        f[base + 1] = squareFeet;
+        f[base + 2] = bhk;
+        f[base + 3] = bathrooms;
+        f[base + 4] = locationIndex;
+        return row;
+    }
+
+    /**
+     * Append a row that will not be scored, with the reason; returns its index in the block.
+     */
+    public int addError(String error) {
+        int row = reserve();
+        errors[row] = error;
+        Arrays.fill(features, row * PropertyDataset.FEATURE_COUNT, (row + 1) * PropertyDataset.FEATURE_COUNT, 0.0);
+        return row;
+    }
+
+    private int reserve() {
+        if (size == capacity) {
+            throw new IllegalStateException("Prediction block is full");
+        }
+        int row = size++;
+        errors[row] = null;
+        return row;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isFull() {
+        return size == capacity;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /** Validation error of the row, or null if it was scored. */
+    public String getError(int row) {
+        return errors[row];
+    }
+
+    /** Predicted price of a scored row, in whole rupees. */
+    public long getPriceInr(int row) {
+        return prices[row];
+    }
+}
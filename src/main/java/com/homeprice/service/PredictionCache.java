@@ -0,0 +1,214 @@
+package com.homeprice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.homeprice.model.domain.PricePrediction;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of single predictions (price and formatted price), keyed on a packed long of the
+ * quantized inputs (see {@link #key}) and tagged with the model version that produced them, so
+ * entries of a replaced model are never served: they miss and are overwritten or evicted.
+ * <p>
+ * With the tinylfu policy (the default) this is a Caffeine cache, whose W-TinyLFU eviction only lets
+ * a new entry displace an old one if it has been requested more often recently, so one-off inputs do
+ * not flush the popular ones. Its maintenance runs on the calling threads rather than the common
+ * fork-join pool, which training may be using. The lru policy is an access-ordered map behind one
+ * lock, kept for comparison.
+ * Both are keyed by boxed Longs, so every probe allocates one small object.
+ * Hits, misses, evictions and size are published as the Micrometer cache meters (cache=predictions).
+ */
+@Component
+public class PredictionCache implements MeterBinder {
+
+    /** Square feet are cached in steps of 1/100; other values bypass the cache. */
+    static final int SQUARE_FEET_SCALE = 100;
+    /** Largest quantized square feet that fits the key's 20 bits (10485.75 sq ft). */
+    static final long MAX_SQUARE_FEET = (1L << 20) - 1;
+    /** Largest bhk or bathroom count that fits the key's 4 bits each. */
+    static final int MAX_ROOMS = 15;
+
+    public enum Policy {
+        LRU,
+        TINYLFU;
+
+        static Policy fromName(String name) {
+            try {
+                return valueOf(name.trim().replace("-", "").toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown cache policy: " + name);
+            }
+        }
+    }
+
+    private final boolean enabled;
+    private final Policy policy;
+    private final Cache<Long, Entry> tinyLfu; // TINYLFU
+    private final Map<Long, Entry> lru;      // LRU, guarded by itself
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public PredictionCache(@Value("${homeprice.cache.enabled:true}") boolean enabled,
+                           @Value("${homeprice.cache.maximum-size:10000}") int maximumSize,
+                           @Value("${homeprice.cache.policy:tinylfu}") String policy) {
+        if (enabled && maximumSize <= 0) {
+            throw new IllegalArgumentException("homeprice.cache.maximum-size must be positive");
+        }
+        this.enabled = enabled;
+        this.policy = Policy.fromName(policy);
+        if (enabled && this.policy == Policy.TINYLFU) {
+            this.tinyLfu = Caffeine.newBuilder()
+                    .maximumSize(maximumSize)
+                    .executor(Runnable::run)
+                    .evictionListener((Long key, Entry entry, RemovalCause cause) -> evictions.increment())
+                    .build();
+            this.lru = null;
+        } else if (enabled) {
+            this.tinyLfu = null;
+            this.lru = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                    if (size() <= maximumSize) {
+                        return false;
+                    }
+                    evictions.increment();
+                    return true;
+                }
+            };
+        } else {
+            this.tinyLfu = null;
+            this.lru = null;
+        }
+    }
+
+    public static PredictionCache disabled() {
+        return new PredictionCache(false, 0, "lru");
+    }
+
+    /**
+     * Packed key of (square feet in 1/100 steps, bhk, bathrooms, location index), or -1 if the
+     * inputs cannot be packed exactly: square feet finer than 1/100, negative or above
+     * {@link #MAX_SQUARE_FEET} / 100, rooms outside [0, {@link #MAX_ROOMS}], or a negative location.
+     * Such inputs are scored every time instead of colliding with another key.
+     */
+    public static long key(double squareFeet, int bhk, int bathrooms, int locationIndex) {
+        long quantized = Math.round(squareFeet * SQUARE_FEET_SCALE);
+        if (quantized < 0 || quantized > MAX_SQUARE_FEET || quantized / (double) SQUARE_FEET_SCALE != squareFeet
+                || bhk < 0 || bhk > MAX_ROOMS || bathrooms < 0 || bathrooms > MAX_ROOMS || locationIndex < 0) {
+            return -1;
+        }
+        return quantized | (long) bhk << 20 | (long) bathrooms << 24 | (long) locationIndex << 28;
+    }
+
+    /**
+     * Cached prediction for the key made by the given model version, or null.
+     */
+    public PricePrediction get(long key, long modelVersion) {
+        if (!enabled || key < 0) {
+            return null;
+        }
+        Entry entry;
+        if (tinyLfu != null) {
+            entry = tinyLfu.getIfPresent(key);
+        } else {
+            synchronized (lru) {
+                entry = lru.get(key);
+            }
+        }
+        if (entry != null && entry.modelVersion() == modelVersion) {
+            hits.increment();
+            return entry.value();
+        }
+        misses.increment();
+        return null;
+    }
+
+    public void put(long key, long modelVersion, PricePrediction value) {
+        if (!enabled || key < 0) {
+            return;
+        }
+        Entry entry = new Entry(modelVersion, value);
+        if (tinyLfu != null) {
+            tinyLfu.put(key, entry);
+        } else {
+            synchronized (lru) {
+                lru.put(key, entry);
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    /** Hits / requests since startup, or NaN before the first request. */
+    public double hitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? Double.NaN : (double) h / total;
+    }
+
+    public int size() {
+        if (tinyLfu != null) {
+            tinyLfu.cleanUp();
+            return (int) tinyLfu.estimatedSize();
+        }
+        if (lru != null) {
+            synchronized (lru) {
+                return lru.size();
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!enabled) {
+            return;
+        }
+        FunctionCounter.builder("cache.gets", this, PredictionCache::hitCount)
+                .tag("cache", "predictions").tag("result", "hit")
+                .description("Predictions served from the cache").register(registry);
+        FunctionCounter.builder("cache.gets", this, PredictionCache::missCount)
+                .tag("cache", "predictions").tag("result", "miss")
+                .description("Predictions that had to be scored").register(registry);
+        FunctionCounter.builder("cache.evictions", this, PredictionCache::evictionCount)
+                .tag("cache", "predictions").register(registry);
+        Gauge.builder("cache.size", this, PredictionCache::size)
+                .tag("cache", "predictions").register(registry);
+        Gauge.builder("homeprice.prediction.cache.hit.ratio", this, PredictionCache::hitRate)
+                .description("Fraction of single predictions served from the cache").register(registry);
+    }
+
+    /** A cached prediction and the model version that made it. */
+    private record Entry(long modelVersion, PricePrediction value) {
+    }
+}
@@ -1,9 +1,16 @@
 package com.homeprice.service;
 
+import com.homeprice.model.domain.ComparableListing;
+import com.homeprice.model.domain.ComparablesIndex;
+import com.homeprice.model.domain.ComparablesResult;
+import com.homeprice.model.domain.PricePrediction;
 import com.homeprice.model.domain.PropertyInput;
-import com.homeprice.model.ml.LinearRegression;
+import com.homeprice.model.ml.ScoringModel;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+import java.util.NoSuchElementException;
+
 /**
  * Service to predict home price from user input using the trained model.
  */
@@ -11,9 +18,78 @@ import org.springframework.stereotype.Service;
 public class PredictionService {
 
     private final ModelTrainer modelTrainer;
+    private final PredictionCache cache;
+    private final HomePriceMetrics metrics;
 
-    public PredictionService(ModelTrainer modelTrainer) {
+    public PredictionService(ModelTrainer modelTrainer, PredictionCache cache, HomePriceMetrics metrics) {
         this.modelTrainer = modelTrainer;
+        this.cache = cache;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Price and formatted price for the given property input, served from the {@link PredictionCache}
+     * when the same inputs were scored by the current model version before.
+     */
+    public PricePrediction predict(PropertyInput input) {
+        return predict(input.getSquareFeet().doubleValue(), input.getBhk(), input.getBathrooms(),
+                input.getLocation());
+    }
+
+    /**
+     * Cached variant of {@link #predictPriceInr(double, int, int, String)} plus {@link #formatPriceInr}.
+     * A hit costs one location lookup and one cache probe; the probe boxes the packed key into a Long
+     * (16 bytes, unless escape analysis removes it). A miss also allocates the prediction, its
+     * formatted price and the cache entry.
+     * Latency, hits included, is recorded as homeprice.prediction{type=single}.
+     */
+    public PricePrediction predict(double squareFeet, int bhk, int bathrooms, String location) {
+        long start = System.nanoTime();
+        PricePrediction prediction = predictCached(squareFeet, bhk, bathrooms, location);
+        metrics.recordPrediction(System.nanoTime() - start);
+        return prediction;
+    }
+
+    private PricePrediction predictCached(double squareFeet, int bhk, int bathrooms, String location) {
+        ModelBundle bundle = modelTrainer.getBundle();
+        ScoringModel scoringModel = bundle.getScoringModel();
+        int locationIndex = scoringModel.locationIndex(location);
+        long key = PredictionCache.key(squareFeet, bhk, bathrooms, locationIndex);
+        PricePrediction cached = cache.get(key, bundle.getVersion());
+        if (cached != null) {
+            return cached;
+        }
+        long price = Math.round(Math.max(0, scoringModel.predict(squareFeet, bhk, bathrooms, locationIndex)));
+        PricePrediction prediction = new PricePrediction(price, formatPriceInr(price));
+        cache.put(key, bundle.getVersion(), prediction);
+        return prediction;
+    }
+
+    /**
+     * The model's estimate plus the k training listings in the same location nearest to the input
+     * (none for an unknown location). Both come from the same model version.
+     *
+     * @throws IllegalStateException if no model is available yet
+     * @throws NoSuchElementException if the current model has no comparables index, which only in-memory
+     *                                training builds (not streaming training or a snapshot load)
+     */
+    public ComparablesResult comparables(double squareFeet, int bhk, int bathrooms, String location, int k) {
+        ModelBundle bundle = modelTrainer.getBundle();
+        ComparablesIndex index = bundle.getComparables();
+        if (index == null) {
+            throw new NoSuchElementException("Comparable listings are not available for model version "
+                    + bundle.getVersion() + ": they are built by in-memory training with "
+                    + "homeprice.comparables.enabled=true, not by streaming training or a snapshot load");
+        }
+        ScoringModel scoringModel = bundle.getScoringModel();
+        int locationIndex = scoringModel.locationIndex(location);
+        boolean known = locationIndex < scoringModel.getLocations().size()
+                && scoringModel.getLocations().get(locationIndex).equals(location);
+        List<ComparableListing> listings = known
+                ? index.nearest(squareFeet, bhk, bathrooms, locationIndex, k)
+                : List.of();
+        long price = Math.round(Math.max(0, scoringModel.predict(squareFeet, bhk, bathrooms, locationIndex)));
+        return new ComparablesResult(location, new PricePrediction(price, formatPriceInr(price)), listings);
     }
 
     /**
@@ -21,15 +97,69 @@ public class PredictionService {
      * Returns a non-negative value rounded to nearest rupee.
      */
     public long predictPriceInr(PropertyInput input) {
-        LinearRegression model = modelTrainer.getModel();
-        int locationIndex = modelTrainer.getLocationIndex(input.getLocation());
-        double sq = input.getSquareFeet().doubleValue();
-        int bhk = input.getBhk();
-        int bath = input.getBathrooms();
-        double[] features = new double[]{1.0, sq, bhk, bath, locationIndex};
-        double predicted = model.predict(features);
-        long price = Math.round(Math.max(0, predicted));
-        return price;
+        return predictPriceInr(input.getSquareFeet().doubleValue(), input.getBhk(), input.getBathrooms(),
+                input.getLocation());
+    }
+
+    /**
+     * Primitive prediction path: one hash lookup for the location and three multiply-adds against
+     * the published {@link ScoringModel}; allocates nothing.
+     */
+    public long predictPriceInr(double squareFeet, int bhk, int bathrooms, String location) {
+        double predicted = modelTrainer.getScoringModel().predict(squareFeet, bhk, bathrooms, location);
+        return Math.round(Math.max(0, predicted));
+    }
+
+    /**
+     * Validate raw input against the same constraints and messages as {@link PropertyInput}.
+     * Missing values are passed as NaN (square feet), Integer.MIN_VALUE (bhk, bathrooms) or null.
+     * Returns the first error message, or null if the input is valid.
+     */
+    public static String validationError(double squareFeet, int bhk, int bathrooms, String location) {
+        if (Double.isNaN(squareFeet)) return "Square feet is required";
+        if (squareFeet < 100) return "Square feet must be at least 100";
+        if (squareFeet > 10000) return "Square feet must not exceed 10,000";
+        if (bhk == Integer.MIN_VALUE) return "Number of bedrooms (BHK) is required";
+        if (bhk < 1) return "BHK must be at least 1";
+        if (bhk > 10) return "BHK must not exceed 10";
+        if (bathrooms == Integer.MIN_VALUE) return "Number of bathrooms is required";
+        if (bathrooms < 1) return "Bathrooms must be at least 1";
+        if (bathrooms > 10) return "Bathrooms must not exceed 10";
+        if (location == null || location.isBlank()) return "Location is required";
+        return null;
+    }
+
+    /**
+     * Score every row of the block in one pass over its flat feature buffer.
+     * Prices are non-negative and rounded to the nearest rupee, as in {@link #predictPriceInr}.
+     */
+    public void predictBlock(PredictionBlock block) {
+        predictBlock(block, modelTrainer.getBundle());
+    }
+
+    /**
+     * Score the block with a given model version, whose location dictionary encoded its rows.
+     */
+    public void predictBlock(PredictionBlock block, ModelBundle bundle) {
+        int rows = block.size();
+        bundle.getScoringModel().predict(block.features, rows, block.predictions);
+        for (int i = 0; i < rows; i++) {
+            block.prices[i] = Math.round(Math.max(0, block.predictions[i]));
+        }
+    }
+
+    /**
+     * The model version currently used for serving; multi-step requests should pin it once.
+     */
+    public ModelBundle getModelBundle() {
+        return modelTrainer.getBundle();
+    }
+
+    /**
+     * Encoded index of a location name, as used in the feature vector.
+     */
+    public int getLocationIndex(String location) {
+        return modelTrainer.getLocationIndex(location);
     }
 
     /**
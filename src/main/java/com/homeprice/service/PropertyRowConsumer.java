@@ -0,0 +1,10 @@
+package com.homeprice.service;
+
+/**
+ * Callback receiving one parsed dataset row at a time, with the location already encoded.
+ */
+@FunctionalInterface
+public interface PropertyRowConsumer {
+
+    void accept(double squareFeet, int bhk, int bathrooms, int locationIndex, double priceInr);
+}
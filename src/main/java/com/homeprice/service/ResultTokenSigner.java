@@ -0,0 +1,93 @@
+package com.homeprice.service;
+
+import com.homeprice.model.domain.ResultMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Signs predicted prices into URL-safe tokens ("price.signature", HMAC-SHA256) so the result page
+ * can be a plain GET that carries its own state, instead of session flash attributes. The signature
+ * only stops links showing made-up prices; the price itself is not secret.
+ * <p>
+ * Tokens verify on any instance configured with the same homeprice.ui.token-secret, so the secret is
+ * required when homeprice.ui.result-mode=token. In the other modes no tokens are issued and a random
+ * key is used.
+ */
+@Component
+public class ResultTokenSigner {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final Mac prototype;
+
+    public ResultTokenSigner(@Value("${homeprice.ui.token-secret:}") String secret,
+                             @Value("${homeprice.ui.result-mode:flash}") String resultMode) {
+        byte[] key;
+        if (secret == null || secret.isBlank()) {
+            if (ResultMode.fromName(resultMode) == ResultMode.TOKEN) {
+                throw new IllegalStateException("homeprice.ui.result-mode=token requires homeprice.ui.token-secret, "
+                        + "set to the same value on every instance");
+            }
+            key = new byte[32];
+            new SecureRandom().nextBytes(key);
+        } else {
+            key = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        try {
+            prototype = Mac.getInstance(ALGORITHM);
+            prototype.init(new SecretKeySpec(key, ALGORITHM));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+
+    public String sign(long priceInr) {
+        String payload = Long.toString(priceInr);
+        return payload + "." + signature(payload);
+    }
+
+    /**
+     * The price in a token made by {@link #sign}, or -1 if the token is malformed or its signature
+     * does not match.
+     */
+    public long verify(String token) {
+        if (token == null) {
+            return -1;
+        }
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot > 19) {
+            return -1;
+        }
+        String payload = token.substring(0, dot);
+        byte[] expected = signature(payload).getBytes(StandardCharsets.US_ASCII);
+        byte[] actual = token.substring(dot + 1).getBytes(StandardCharsets.US_ASCII);
+        if (!MessageDigest.isEqual(expected, actual)) {
+            return -1;
+        }
+        try {
+            long price = Long.parseLong(payload);
+            return price >= 0 ? price : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private String signature(String payload) {
+        Mac mac;
+        try {
+            mac = (Mac) prototype.clone(); // Mac is not thread-safe; a clone skips key setup
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("HMAC-SHA256 instance cannot be cloned", e);
+        }
+        byte[] digest = mac.doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+    }
+}
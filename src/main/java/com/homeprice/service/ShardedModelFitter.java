@@ -0,0 +1,148 @@
+package com.homeprice.service;
+
+import com.homeprice.model.domain.PropertyDataset;
+import com.homeprice.model.ml.DesignMatrix;
+import com.homeprice.model.ml.NormalEquations;
+import com.homeprice.model.ml.ScoringModel;
+import com.homeprice.model.ml.Solver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Fits one model per location on [1, squareFeet, bhk, bathrooms] (the location feature is
+ * constant within a shard). Shards are fitted concurrently on a fork-join pool, and large shards
+ * also split their X'X accumulation across the pool. Shards with fewer than minShardRows training
+ * rows, or whose normal equations cannot be solved, get no weights and fall back to the global model.
+ */
+final class ShardedModelFitter {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardedModelFitter.class);
+    static final int SHARD_FEATURES = ScoringModel.STRIDE;
+
+    private final Solver solver;
+    private final int minShardRows;
+    private final ForkJoinPool pool;
+
+    ShardedModelFitter(Solver solver, int minShardRows, ForkJoinPool pool) {
+        this.solver = solver;
+        this.minShardRows = Math.max(minShardRows, SHARD_FEATURES + 1);
+        this.pool = pool;
+    }
+
+    /**
+     * Shard weights for the given training rows of an in-memory dataset; entry i is null when
+     * location i falls back to the global model.
+     */
+    double[][] fit(PropertyDataset dataset, int[] trainRows, int locations) {
+        int[] counts = new int[locations];
+        for (int row : trainRows) {
+            counts[dataset.getLocationIndex(row)]++;
+        }
+        int[][] rowsByLocation = new int[locations][];
+        for (int loc = 0; loc < locations; loc++) {
+            rowsByLocation[loc] = new int[counts[loc]];
+        }
+        int[] fill = new int[locations];
+        for (int row : trainRows) {
+            int loc = dataset.getLocationIndex(row);
+            rowsByLocation[loc][fill[loc]++] = row;
+        }
+
+        List<ForkJoinTask<double[]>> tasks = new ArrayList<>(locations);
+        for (int loc = 0; loc < locations; loc++) {
+            int[] rows = rowsByLocation[loc];
+            int location = loc;
+            tasks.add(rows.length < minShardRows ? null : pool.submit(
+                    () -> solve(location, NormalEquations.of(new ShardView(dataset, rows), pool))));
+        }
+        return join(tasks);
+    }
+
+    /**
+     * Shard weights from per-location statistics accumulated elsewhere (e.g. while streaming).
+     */
+    double[][] fit(List<NormalEquations> shardStats) {
+        List<ForkJoinTask<double[]>> tasks = new ArrayList<>(shardStats.size());
+        for (int loc = 0; loc < shardStats.size(); loc++) {
+            NormalEquations stats = shardStats.get(loc);
+            int location = loc;
+            tasks.add(stats == null || stats.count() < minShardRows ? null : pool.submit(() -> solve(location, stats)));
+        }
+        return join(tasks);
+    }
+
+    /**
+     * Add a row to the statistics of its location, creating them on first use.
+     */
+    static void accumulate(List<NormalEquations> shardStats, double[] buffer, double squareFeet, int bhk,
+                           int bathrooms, int locationIndex, double priceInr) {
+        while (shardStats.size() <= locationIndex) {
+            shardStats.add(new NormalEquations(SHARD_FEATURES));
+        }
+        encode(buffer, squareFeet, bhk, bathrooms);
+        shardStats.get(locationIndex).add(buffer, priceInr);
+    }
+
+    private double[] solve(int location, NormalEquations stats) {
+        try {
+            return solver.solve(stats.gram(), stats.xty(), SHARD_FEATURES);
+        } catch (IllegalArgumentException e) {
+            log.debug("Location {} falls back to the global model: {}", location, e.getMessage());
+            return null;
+        }
+    }
+
+    private static double[][] join(List<ForkJoinTask<double[]>> tasks) {
+        double[][] weights = new double[tasks.size()][];
+        for (int loc = 0; loc < weights.length; loc++) {
+            ForkJoinTask<double[]> task = tasks.get(loc);
+            weights[loc] = task != null ? task.join() : null;
+        }
+        return weights;
+    }
+
+    private static void encode(double[] dest, double squareFeet, int bhk, int bathrooms) {
+        dest[0] = 1.0;
+        dest[1] = squareFeet;
+        dest[2] = bhk;
+        dest[3] = bathrooms;
+    }
+
+    /** Rows of one location, without the (constant) location column. */
+    private static final class ShardView implements DesignMatrix {
+
+        private final PropertyDataset dataset;
+        private final int[] rows;
+
+        ShardView(PropertyDataset dataset, int[] rows) {
+            this.dataset = dataset;
+            this.rows = rows;
+        }
+
+        @Override
+        public int rows() {
+            return rows.length;
+        }
+
+        @Override
+        public int columns() {
+            return SHARD_FEATURES;
+        }
+
+        @Override
+        public void copyRow(int row, double[] dest) {
+            int r = rows[row];
+            encode(dest, dataset.getSquareFeet(r), dataset.getBhk(r), dataset.getBathrooms(r));
+        }
+
+        @Override
+        public double target(int row) {
+            return dataset.getPriceInr(rows[row]);
+        }
+    }
+}
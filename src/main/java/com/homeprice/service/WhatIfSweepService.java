@@ -0,0 +1,194 @@
+package com.homeprice.service;
+
+import com.homeprice.model.domain.SweepGrid;
+import com.homeprice.model.ml.ScoringModel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Scores a {@link SweepGrid} and streams it as CSV with the dataset's columns
+ * (location,square_feet,bhk,bathrooms,price_inr), one row per point, locations outermost and
+ * square feet innermost.
+ * <p>
+ * A location's price is linear in each feature, so the grid is never scored point by point: for each
+ * (location, bhk, bathrooms) the price at the first square-feet value is computed once, and the i-th
+ * value is that plus i times the square-feet coefficient times the step, a single multiply-add.
+ * Rows are formatted into a reusable byte buffer and written as it fills.
+ */
+@Service
+public class WhatIfSweepService {
+
+    private static final byte[] HEADER = "location,square_feet,bhk,bathrooms,price_inr\n"
+            .getBytes(StandardCharsets.US_ASCII);
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MAX_ROW_BYTES = 64; // numeric part of a row: four numbers and separators
+
+    private final PredictionService predictionService;
+    private final HomePriceMetrics metrics;
+    private final long maxPoints;
+
+    public WhatIfSweepService(PredictionService predictionService, HomePriceMetrics metrics,
+                              @Value("${homeprice.sweep.max-points:1000000}") long maxPoints) {
+        if (maxPoints <= 0) {
+            throw new IllegalArgumentException("homeprice.sweep.max-points must be positive");
+        }
+        this.predictionService = predictionService;
+        this.metrics = metrics;
+        this.maxPoints = maxPoints;
+    }
+
+    /**
+     * Validate the grid, then score it with the current model version and write it to out. Nothing
+     * is written if the grid is invalid, so errors can still become a normal error response.
+     * Time and point count are recorded as homeprice.prediction{type=sweep} and homeprice.prediction.sweep.size.
+     *
+     * @return the number of points written
+     * @throws IllegalArgumentException for an invalid or too large grid, or an unknown location
+     * @throws IllegalStateException if no model is loaded yet
+     */
+    public long sweep(SweepGrid grid, OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        String error = grid.rangeError();
+        if (error == null) {
+            error = PredictionService.validationError(grid.getSquareFeetMin(), grid.getBhkMin(),
+                    grid.getBathroomsMin(), "-");
+        }
+        if (error == null) {
+            error = PredictionService.validationError(grid.getSquareFeetMax(), grid.getBhkMax(),
+                    grid.getBathroomsMax(), "-");
+        }
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
+
+        // One model version for the whole sweep
+        ScoringModel scoringModel = predictionService.getModelBundle().getScoringModel();
+        List<String> locations = grid.getLocations().isEmpty() ? scoringModel.getLocations() : grid.getLocations();
+        List<double[]> rows = new ArrayList<>(locations.size());
+        for (String location : locations) {
+            int index = scoringModel.locationIndex(location);
+            if (index >= scoringModel.getLocations().size() || !scoringModel.getLocations().get(index).equals(location)) {
+                throw new IllegalArgumentException("Unknown location: " + location);
+            }
+            rows.add(scoringModel.coefficients(index));
+        }
+        long points = grid.pointsPerLocation() * locations.size();
+        if (points > maxPoints) {
+            throw new IllegalArgumentException("Sweep has " + points + " points; the limit is " + maxPoints);
+        }
+
+        int squareFeetPoints = grid.squareFeetPoints();
+        byte[][] squareFeetText = new byte[squareFeetPoints][];
+        for (int i = 0; i < squareFeetPoints; i++) {
+            squareFeetText[i] = formatSquareFeet(grid.squareFeet(i));
+        }
+        CsvWriter writer = new CsvWriter(out);
+        writer.write(HEADER);
+        for (int l = 0; l < locations.size(); l++) {
+            byte[] locationText = csvField(locations.get(l));
+            double[] c = rows.get(l);
+            double stepDelta = c[1] * grid.getSquareFeetStep();
+            for (int bhk = grid.getBhkMin(); bhk <= grid.getBhkMax(); bhk++) {
+                for (int bathrooms = grid.getBathroomsMin(); bathrooms <= grid.getBathroomsMax(); bathrooms++) {
+                    double first = c[0] + c[1] * grid.getSquareFeetMin() + c[2] * bhk + c[3] * bathrooms;
+                    for (int i = 0; i < squareFeetPoints; i++) {
+                        long price = Math.round(Math.max(0, first + i * stepDelta));
+                        writer.row(locationText, squareFeetText[i], bhk, bathrooms, price);
+                    }
+                }
+            }
+        }
+        writer.flush();
+        metrics.recordSweep(points, System.nanoTime() - start);
+        return points;
+    }
+
+    private static byte[] formatSquareFeet(double squareFeet) {
+        String text = squareFeet == Math.rint(squareFeet)
+                ? Long.toString((long) squareFeet)
+                : Double.toString(Math.round(squareFeet * 1e6) / 1e6);
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /** A location name as a CSV field, quoted if it contains a separator or quote. */
+    private static byte[] csvField(String value) {
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0) {
+            value = '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** Buffered CSV output that formats integers straight into bytes. */
+    private static final class CsvWriter {
+
+        private final OutputStream out;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private int position;
+
+        CsvWriter(OutputStream out) {
+            this.out = out;
+        }
+
+        void write(byte[] bytes) throws IOException {
+            if (position + bytes.length > buffer.length) {
+                flushBuffer();
+                if (bytes.length > buffer.length) {
+                    out.write(bytes);
+                    return;
+                }
+            }
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        void row(byte[] location, byte[] squareFeet, int bhk, int bathrooms, long price) throws IOException {
+            write(location);
+            if (position + squareFeet.length + MAX_ROW_BYTES > buffer.length) {
+                flushBuffer();
+            }
+            buffer[position++] = ',';
+            System.arraycopy(squareFeet, 0, buffer, position, squareFeet.length);
+            position += squareFeet.length;
+            buffer[position++] = ',';
+            writeLong(bhk);
+            buffer[position++] = ',';
+            writeLong(bathrooms);
+            buffer[position++] = ',';
+            writeLong(price);
+            buffer[position++] = '\n';
+        }
+
+        private void writeLong(long value) {
+            if (value == 0) {
+                buffer[position++] = '0';
+                return;
+            }
+            int digits = 0;
+            for (long v = value; v > 0; v /= 10) {
+                digits++;
+            }
+            int end = position + digits;
+            for (int i = end - 1; i >= position; i--) {
+                buffer[i] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+            position = end;
+        }
+
+        private void flushBuffer() throws IOException {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+
+        void flush() throws IOException {
+            flushBuffer();
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.homeprice.model.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ComparablesIndexTest {
+
+    /** Rows per location; the first is above the size at which subtrees are built in parallel. */
+    private static final int[] LOCATION_ROWS = {70_000, 2_000, 5, 0};
+
+    private static PropertyDataset dataset(Random random) {
+        PropertyDataset dataset = new PropertyDataset();
+        dataset.setLocations(List.of("A", "B", "C", "Empty"));
+        for (int l = 0; l < LOCATION_ROWS.length; l++) {
+            for (int i = 0; i < LOCATION_ROWS[l]; i++) {
+                int bhk = 1 + random.nextInt(5);
+                dataset.add(300 + random.nextInt(3000), bhk, Math.max(1, bhk - random.nextInt(2)), l,
+                        1_000_000 + random.nextInt(9_000_000));
+            }
+        }
+        return dataset;
+    }
+
+    /** Sorted distances from the query to every indexed row of the location, with the index's scaling. */
+    private static double[] linearScan(PropertyDataset dataset, int[] rows, double squareFeet, int bhk,
+                                       int bathrooms, int location) {
+        int n = rows != null ? rows.length : dataset.size();
+        double[][] moments = new double[3][2];
+        for (int i = 0; i < n; i++) {
+            int r = rows != null ? rows[i] : i;
+            double[] v = {dataset.getSquareFeet(r), dataset.getBhk(r), dataset.getBathrooms(r)};
+            for (int d = 0; d < 3; d++) {
+                moments[d][0] += v[d];
+                moments[d][1] += v[d] * v[d];
+            }
+        }
+        double[] weights = new double[3];
+        for (int d = 0; d < 3; d++) {
+            double mean = moments[d][0] / n;
+            double variance = moments[d][1] / n - mean * mean;
+            weights[d] = variance > 1e-12 ? 1 / variance : 1;
+        }
+        double[] query = {squareFeet, bhk, bathrooms};
+        return IntStream.range(0, n)
+                .map(i -> rows != null ? rows[i] : i)
+                .filter(r -> dataset.getLocationIndex(r) == location)
+                .mapToDouble(r -> {
+                    double[] v = {(float) dataset.getSquareFeet(r), dataset.getBhk(r), dataset.getBathrooms(r)};
+                    double sum = 0;
+                    for (int d = 0; d < 3; d++) {
+                        sum += weights[d] * (query[d] - v[d]) * (query[d] - v[d]);
+                    }
+                    return Math.sqrt(sum);
+                })
+                .sorted()
+                .toArray();
+    }
+
+    private static void assertMatchesLinearScan(ComparablesIndex index, PropertyDataset dataset, int[] rows,
+                                                Random random) {
+        for (int q = 0; q < 200; q++) {
+            double squareFeet = 200 + random.nextInt(3200) + random.nextInt(4) * 0.25;
+            int bhk = 1 + random.nextInt(6);
+            int bathrooms = 1 + random.nextInt(5);
+            int location = random.nextInt(LOCATION_ROWS.length);
+            int k = 1 + random.nextInt(20);
+
+            double[] expected = linearScan(dataset, rows, squareFeet, bhk, bathrooms, location);
+            expected = Arrays.copyOf(expected, Math.min(k, expected.length));
+            double[] actual = index.nearest(squareFeet, bhk, bathrooms, location, k).stream()
+                    .mapToDouble(ComparableListing::getDistance).toArray();
+            assertArrayEquals(expected, actual, 1e-9, "query " + q + " in location " + location);
+        }
+    }
+
+    @Test
+    void nearestMatchesALinearScan() {
+        Random random = new Random(5);
+        PropertyDataset dataset = dataset(random);
+        ForkJoinPool pool = new ForkJoinPool(2);
+        ComparablesIndex index = ComparablesIndex.build(dataset, null, pool);
+        pool.shutdown();
+
+        assertEquals(dataset.size(), index.size());
+        for (int l = 0; l < LOCATION_ROWS.length; l++) {
+            assertEquals(LOCATION_ROWS[l], index.size(l));
+        }
+        assertMatchesLinearScan(index, dataset, null, random);
+    }
+
+    @Test
+    void indexesOnlyTheGivenRows() {
+        Random random = new Random(8);
+        PropertyDataset dataset = dataset(random);
+        int[] rows = IntStream.range(0, dataset.size()).filter(r -> r % 3 != 0).toArray();
+        ComparablesIndex index = ComparablesIndex.build(dataset, rows, null);
+
+        assertEquals(rows.length, index.size());
+        assertMatchesLinearScan(index, dataset, rows, random);
+    }
+
+    @Test
+    void returnsListingsNearestFirstAndAtMostTheLocationHas() {
+        PropertyDataset dataset = dataset(new Random(2));
+        ComparablesIndex index = ComparablesIndex.build(dataset, null, null);
+
+        List<ComparableListing> all = index.nearest(1000, 2, 2, 2, 50);
+        assertEquals(LOCATION_ROWS[2], all.size());
+        for (int i = 1; i < all.size(); i++) {
+            assertTrue(all.get(i - 1).getDistance() <= all.get(i).getDistance());
+        }
+        assertEquals(List.of(), index.nearest(1000, 2, 2, 3, 5));
+        assertEquals(List.of(), index.nearest(1000, 2, 2, 99, 5));
+        assertThrows(IllegalArgumentException.class, () -> index.nearest(1000, 2, 2, 0, 0));
+    }
+}
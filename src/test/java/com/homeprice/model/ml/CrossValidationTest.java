@@ -0,0 +1,94 @@
+package com.homeprice.model.ml;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CrossValidationTest {
+
+    private static final int ROWS = 300;
+    private static final int FOLDS = 5;
+
+    private final double[][] x = new double[ROWS][];
+    private final double[] y = new double[ROWS];
+    private final int[] foldOfRow = new int[ROWS];
+
+    CrossValidationTest() {
+        Random random = new Random(11);
+        for (int r = 0; r < ROWS; r++) {
+            double a = random.nextGaussian();
+            double b = a + random.nextGaussian() * 0.1; // nearly collinear, so the ridge matters
+            x[r] = new double[]{1, a, b};
+            y[r] = 10 + 3 * a - 2 * b + random.nextGaussian();
+            foldOfRow[r] = random.nextInt(FOLDS);
+        }
+    }
+
+    /** Held-out RMSE computed row by row: fit without each fold, score that fold's rows. */
+    private double bruteForceRmse(double ridge) {
+        double sse = 0;
+        for (int f = 0; f < FOLDS; f++) {
+            NormalEquations train = new NormalEquations(3);
+            for (int r = 0; r < ROWS; r++) {
+                if (foldOfRow[r] != f) {
+                    train.add(x[r], y[r]);
+                }
+            }
+            double[] w = new CholeskySolver(ridge).solve(train.gram(), train.xty(), 3);
+            for (int r = 0; r < ROWS; r++) {
+                if (foldOfRow[r] == f) {
+                    double diff = y[r] - (w[0] * x[r][0] + w[1] * x[r][1] + w[2] * x[r][2]);
+                    sse += diff * diff;
+                }
+            }
+        }
+        return Math.sqrt(sse / ROWS);
+    }
+
+    @Test
+    void foldStatisticsScoreLikeRefittingEachFold() {
+        CrossValidation cv = CrossValidation.of(new ArrayDesignMatrix(x, y), foldOfRow, FOLDS, null);
+        double[] ridges = {0, 1, 100, 10_000};
+        CrossValidation.RidgeSearch search = cv.search(ridges);
+        for (int k = 0; k < ridges.length; k++) {
+            assertEquals(bruteForceRmse(ridges[k]), search.rmse()[k], 1e-9, "ridge " + ridges[k]);
+        }
+        for (int k = 0; k < ridges.length; k++) {
+            assertTrue(search.rmse()[k] >= search.bestRmse());
+        }
+        assertEquals(ridges[search.best()], search.bestRidge());
+        assertEquals(FOLDS, search.foldWeights().length);
+    }
+
+    @Test
+    void totalHoldsEveryRowAndThePoolChangesNothing() {
+        NormalEquations all = new NormalEquations(3);
+        all.addAll(x, y);
+        CrossValidation serial = CrossValidation.of(new ArrayDesignMatrix(x, y), foldOfRow, FOLDS, null);
+        ForkJoinPool pool = new ForkJoinPool(2);
+        CrossValidation parallel = CrossValidation.of(new ArrayDesignMatrix(x, y), foldOfRow, FOLDS, pool);
+        pool.shutdown();
+
+        assertEquals(ROWS, serial.total().count());
+        assertArrayEquals(all.gram(), serial.total().gram(), 1e-9);
+        assertArrayEquals(all.xty(), serial.total().xty(), 1e-9);
+        assertEquals(all.yty(), serial.total().yty(), 1e-6);
+        double[] ridges = CrossValidation.ridgeGrid(0.01, 100, 5);
+        assertArrayEquals(serial.search(ridges).rmse(), parallel.search(ridges).rmse());
+    }
+
+    @Test
+    void ridgeGridStartsAtZeroAndIsLogSpaced() {
+        assertArrayEquals(new double[]{0, 0.001, 0.01, 0.1, 1}, CrossValidation.ridgeGrid(0.001, 1, 4), 1e-15);
+        assertArrayEquals(new double[]{0, 5}, CrossValidation.ridgeGrid(5, 5, 1));
+        assertThrows(IllegalArgumentException.class, () -> CrossValidation.ridgeGrid(0, 1, 3));
+        assertThrows(IllegalArgumentException.class,
+                () -> new CrossValidation(new NormalEquations[]{new NormalEquations(3)}));
+    }
+}
@@ -0,0 +1,61 @@
+package com.homeprice.model.ml;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LinearRegressionTest {
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(2);
+
+    @AfterAll
+    static void shutdown() {
+        POOL.shutdown();
+    }
+
+    private static double[][] rows(Random random, int count) {
+        double[][] X = new double[count][];
+        for (int r = 0; r < count; r++) {
+            X[r] = new double[]{1, random.nextGaussian(), random.nextGaussian()};
+        }
+        return X;
+    }
+
+    @Test
+    void parallelFitMatchesTheSequentialFit() {
+        Random random = new Random(4);
+        double[][] X = rows(random, 20_000);
+        double[] y = new double[X.length];
+        for (int r = 0; r < X.length; r++) {
+            y[r] = 3 + 2 * X[r][1] - X[r][2] + random.nextGaussian();
+        }
+        LinearRegression sequential = new LinearRegression();
+        sequential.fit(X, y);
+        LinearRegression parallel = new LinearRegression();
+        parallel.fit(X, y, POOL);
+        assertArrayEquals(sequential.getWeights(), parallel.getWeights(), 1e-9);
+    }
+
+    @Test
+    void parallelFitRejectsRaggedRows() {
+        Random random = new Random(5);
+        double[] y = new double[10_000];
+        for (int length : new int[]{2, 4}) {
+            double[][] X = rows(random, y.length);
+            X[7_777] = new double[length];
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                    () -> new LinearRegression().fit(X, y, POOL));
+            assertTrue(e.getMessage().contains("row 7777"), e.getMessage());
+            assertThrows(IllegalArgumentException.class, () -> new LinearRegression().fit(X, y));
+        }
+        double[][] X = rows(random, y.length);
+        X[3] = null;
+        assertThrows(IllegalArgumentException.class, () -> new LinearRegression().fit(X, y, POOL));
+    }
+}
@@ -0,0 +1,112 @@
+package com.homeprice.model.ml;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QuantileSketchTest {
+
+    private static final double ACCURACY = 0.005;
+    private static final double[] QUANTILES = {0.001, 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99, 0.999};
+
+    /** Log-normal prices, spanning several orders of magnitude like the dataset's. */
+    private static double[] prices(Random random, int n) {
+        double[] values = new double[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = Math.exp(15 + 1.5 * random.nextGaussian());
+        }
+        return values;
+    }
+
+    private static void assertWithinAccuracy(double[] sorted, QuantileSketch sketch) {
+        for (double q : QUANTILES) {
+            double exact = sorted[(int) Math.floor(q * (sorted.length - 1))];
+            double estimate = sketch.quantile(q);
+            assertTrue(Math.abs(estimate - exact) <= ACCURACY * exact * (1 + 1e-9),
+                    "q=" + q + ": " + estimate + " vs " + exact);
+        }
+        assertEquals(sorted[0], sketch.quantile(0));
+        assertEquals(sorted[sorted.length - 1], sketch.quantile(1));
+    }
+
+    @Test
+    void quantilesAreWithinTheRelativeAccuracy() {
+        double[] values = prices(new Random(1), 100_000);
+        QuantileSketch sketch = new QuantileSketch(ACCURACY);
+        for (double v : values) {
+            sketch.add(v);
+        }
+        Arrays.sort(values);
+        assertEquals(values.length, sketch.size());
+        assertEquals(values[0], sketch.min());
+        assertEquals(values[values.length - 1], sketch.max());
+        assertWithinAccuracy(values, sketch);
+    }
+
+    @Test
+    void mergedPartsGiveTheSameQuantilesAsOneSketch() {
+        double[] values = prices(new Random(2), 50_000);
+        QuantileSketch whole = new QuantileSketch(ACCURACY);
+        for (double v : values) {
+            whole.add(v);
+        }
+        // Uneven, value-ordered parts, so the parts cover different bucket ranges and must grow when merged
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int[] cuts = {0, 10, 20_000, 20_001, 49_000, sorted.length};
+        QuantileSketch[] parts = new QuantileSketch[cuts.length - 1];
+        for (int p = 0; p < parts.length; p++) {
+            parts[p] = new QuantileSketch(ACCURACY);
+            for (int i = cuts[p]; i < cuts[p + 1]; i++) {
+                parts[p].add(sorted[i]);
+            }
+        }
+        QuantileSketch forward = new QuantileSketch(ACCURACY);
+        QuantileSketch backward = new QuantileSketch(ACCURACY);
+        for (int p = 0; p < parts.length; p++) {
+            forward.merge(parts[p]);
+            backward.merge(parts[parts.length - 1 - p]);
+        }
+        forward.merge(new QuantileSketch(ACCURACY));
+
+        for (QuantileSketch merged : new QuantileSketch[]{forward, backward}) {
+            assertEquals(whole.size(), merged.size());
+            assertEquals(whole.min(), merged.min());
+            assertEquals(whole.max(), merged.max());
+            for (double q : QUANTILES) {
+                assertEquals(whole.quantile(q), merged.quantile(q), "q=" + q);
+            }
+        }
+        assertWithinAccuracy(sorted, forward);
+    }
+
+    @Test
+    void nonPositiveValuesAreEstimatedAsTheMinimum() {
+        QuantileSketch sketch = new QuantileSketch(ACCURACY);
+        sketch.add(Double.NaN);
+        sketch.add(Double.POSITIVE_INFINITY);
+        assertEquals(0, sketch.size());
+        assertTrue(Double.isNaN(sketch.quantile(0.5)));
+
+        sketch.add(-5);
+        sketch.add(0);
+        sketch.add(100);
+        sketch.add(200);
+        assertEquals(4, sketch.size());
+        assertEquals(-5, sketch.quantile(0.3));
+        assertEquals(100, sketch.quantile(0.7), 100 * ACCURACY);
+    }
+
+    @Test
+    void rejectsInvalidArguments() {
+        QuantileSketch sketch = new QuantileSketch(ACCURACY);
+        assertThrows(IllegalArgumentException.class, () -> new QuantileSketch(0));
+        assertThrows(IllegalArgumentException.class, () -> sketch.quantile(1.5));
+        assertThrows(IllegalArgumentException.class, () -> sketch.merge(new QuantileSketch(0.01)));
+    }
+}
@@ -0,0 +1,81 @@
+package com.homeprice.model.ml;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SolverTest {
+
+    /** Normal equations of random rows with an intercept column and the given true weights plus noise. */
+    private static NormalEquations system(Random random, double[] weights, int rows) {
+        int p = weights.length;
+        NormalEquations stats = new NormalEquations(p);
+        double[] x = new double[p];
+        for (int r = 0; r < rows; r++) {
+            x[0] = 1;
+            double y = weights[0];
+            for (int j = 1; j < p; j++) {
+                x[j] = random.nextGaussian() * j;
+                y += weights[j] * x[j];
+            }
+            stats.add(x, y + random.nextGaussian() * 0.01);
+        }
+        return stats;
+    }
+
+    private static double[] solve(Solver solver, NormalEquations stats) {
+        return solver.solve(stats.gram(), stats.xty(), stats.dimension());
+    }
+
+    @Test
+    void choleskyAndQrAgreeWithGaussJordan() {
+        Random random = new Random(42);
+        for (int p : new int[]{1, 2, 5, 12}) {
+            double[] weights = new double[p];
+            for (int j = 0; j < p; j++) {
+                weights[j] = random.nextGaussian() * 10;
+            }
+            NormalEquations stats = system(random, weights, 200);
+            double[] expected = solve(new GaussJordanSolver(), stats);
+            assertArrayEquals(expected, solve(new CholeskySolver(), stats), 1e-9, "cholesky, p=" + p);
+            assertArrayEquals(expected, solve(new QrSolver(), stats), 1e-9, "qr, p=" + p);
+            assertArrayEquals(weights, expected, 0.01, "recovered weights, p=" + p);
+        }
+    }
+
+    @Test
+    void ridgeShrinksEveryWeightButTheIntercept() {
+        NormalEquations stats = system(new Random(7), new double[]{100, 3, -2}, 100);
+        double[] plain = solve(new CholeskySolver(), stats);
+        double[] ridge = solve(new CholeskySolver(1e4), stats);
+        for (int j = 1; j < plain.length; j++) {
+            assertEquals(Math.signum(plain[j]), Math.signum(ridge[j]));
+            assertTrue(Math.abs(ridge[j]) < Math.abs(plain[j]), "weight " + j);
+        }
+    }
+
+    @Test
+    void qrGivesADependentColumnZeroWeightWhereCholeskyFails() {
+        // Column 2 duplicates column 1
+        NormalEquations stats = new NormalEquations(3);
+        Random random = new Random(1);
+        for (int r = 0; r < 50; r++) {
+            double x = random.nextGaussian();
+            stats.add(new double[]{1, x, x}, 5 + 4 * x);
+        }
+        assertThrows(IllegalArgumentException.class, () -> solve(new CholeskySolver(), stats));
+
+        double[] w = solve(new QrSolver(), stats);
+        assertEquals(5, w[0], 1e-9);
+        assertEquals(4, w[1] + w[2], 1e-9);
+        assertEquals(0, Math.min(Math.abs(w[1]), Math.abs(w[2])));
+
+        double[] ridge = solve(new CholeskySolver(1e-6), stats);
+        assertEquals(4, ridge[1] + ridge[2], 1e-6);
+    }
+}
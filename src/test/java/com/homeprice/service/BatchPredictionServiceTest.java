@@ -0,0 +1,105 @@
+package com.homeprice.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchPredictionServiceTest {
+
+    private static final String VALID = "{\"squareFeet\":1200,\"bhk\":2,\"bathrooms\":2,\"location\":\"Pune\"}";
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static ModelTrainer trainer;
+    private static BatchPredictionService service;
+
+    @BeforeAll
+    static void train(@TempDir Path dir) throws IOException {
+        StringBuilder csv = new StringBuilder("square_feet,bhk,bathrooms,location,price_inr\n");
+        for (int i = 0; i < 200; i++) {
+            csv.append(500 + 13 * i).append(',').append(1 + i % 4).append(',').append(1 + i % 3).append(',')
+                    .append(i % 2 == 0 ? "Pune" : "Mumbai").append(',').append(5000L * (500 + 13 * i) + 7919L * (i % 11))
+                    .append('\n');
+        }
+        Path file = Files.writeString(dir.resolve("dataset.csv"), csv);
+        trainer = new ModelTrainer(new DatasetLoader(file.toString(), 1, false, "none", 0, 1),
+                new ModelSnapshotStore(""), IterativeTrainer.normalEquations(), HomePriceMetrics.none(), false,
+                "cholesky", 0.0, false, 0, false, 30, "ordinal", 1024, 0, 0.001, 1e6, 50, false);
+        trainer.trainModel();
+        PredictionService predictionService = new PredictionService(trainer, PredictionCache.disabled(),
+                HomePriceMetrics.none());
+        service = new BatchPredictionService(predictionService, MAPPER, HomePriceMetrics.none());
+    }
+
+    @AfterAll
+    static void shutdown() {
+        trainer.shutdown();
+    }
+
+    private static List<JsonNode> predict(String body, boolean ndjson) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = service.predict(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), out, ndjson);
+        List<JsonNode> results = new ArrayList<>();
+        if (ndjson) {
+            for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+                if (!line.isBlank()) {
+                    results.add(MAPPER.readTree(line));
+                }
+            }
+        } else {
+            MAPPER.readTree(out.toByteArray()).forEach(results::add);
+        }
+        assertEquals(rows, results.size(), "one output per input row");
+        return results;
+    }
+
+    private static String error(JsonNode result) {
+        return result.path("error").asText(null);
+    }
+
+    @Test
+    void nestedValuesOfKnownFieldsAreSkippedWhole() throws IOException {
+        String body = "[{\"squareFeet\":{\"a\":1,\"b\":[2,{\"c\":3}]},\"bhk\":2,\"bathrooms\":2,\"location\":\"Pune\"},"
+                + "{\"squareFeet\":1200,\"bhk\":[1,2],\"bathrooms\":2,\"location\":\"Pune\"},"
+                + "{\"squareFeet\":1200,\"bhk\":2,\"bathrooms\":{\"n\":{}},\"location\":\"Pune\"},"
+                + "{\"squareFeet\":1200,\"bhk\":2,\"bathrooms\":2,\"location\":[\"Pune\",{\"x\":\"y\"}]},"
+                + "{\"extra\":{\"squareFeet\":1},\"squareFeet\":1200,\"bhk\":2,\"bathrooms\":2,\"location\":\"Pune\"},"
+                + VALID + "]";
+        List<JsonNode> results = predict(body, false);
+
+        assertEquals(6, results.size());
+        assertEquals("Square feet must be a number", error(results.get(0)));
+        assertEquals("BHK must be a whole number", error(results.get(1)));
+        assertEquals("Bathrooms must be a whole number", error(results.get(2)));
+        assertEquals("Location must be a string", error(results.get(3)));
+        assertTrue(results.get(4).has("priceInr"));
+        assertEquals(results.get(4).get("priceInr"), results.get(5).get("priceInr"));
+    }
+
+    @Test
+    void integersOutsideTheIntRangeFailOnlyTheirRow() throws IOException {
+        String body = "{\"squareFeet\":1200,\"bhk\":99999999999,\"bathrooms\":2,\"location\":\"Pune\"}\n"
+                + "{\"squareFeet\":1200,\"bhk\":2,\"bathrooms\":-99999999999999999999999,\"location\":\"Pune\"}\n"
+                + VALID + "\n";
+        List<JsonNode> results = predict(body, true);
+
+        assertEquals(3, results.size());
+        assertEquals("BHK must not exceed 10", error(results.get(0)));
+        assertEquals("Bathrooms must be at least 1", error(results.get(1)));
+        assertTrue(results.get(2).has("priceInr"));
+    }
+}
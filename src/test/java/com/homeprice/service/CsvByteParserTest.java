@@ -0,0 +1,136 @@
+package com.homeprice.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CsvByteParserTest {
+
+    private static final String HEADER = "square_feet,bhk,bathrooms,location,price_inr\n";
+
+    @TempDir
+    Path dir;
+
+    private record Row(double squareFeet, int bhk, int bathrooms, String location, double priceInr) {
+    }
+
+    private static List<Row> parse(String csv) throws IOException {
+        LocationDictionary dictionary = new LocationDictionary();
+        List<Row> rows = new ArrayList<>();
+        new CsvByteParser(dictionary).parse(ByteBuffer.wrap(csv.getBytes(StandardCharsets.UTF_8)),
+                (sq, bhk, bath, loc, price) -> rows.add(new Row(sq, bhk, bath, dictionary.name(loc), price)));
+        return rows;
+    }
+
+    private static double parseSquareFeet(String text) throws IOException {
+        return parse(HEADER + text + ",2,2,Pune,1\n").get(0).squareFeet();
+    }
+
+    private static int parseBhk(String text) throws IOException {
+        return parse(HEADER + "1000," + text + ",2,Pune,1\n").get(0).bhk();
+    }
+
+    @Test
+    void readsColumnsInHeaderOrder() throws IOException {
+        List<Row> rows = parse("location,price_inr,extra,bhk,bathrooms,square_feet\nPune,5000000,x,2,1,850.5\n");
+        assertEquals(List.of(new Row(850.5, 2, 1, "Pune", 5_000_000)), rows);
+        assertThrows(IOException.class, () -> parse("square_feet,bhk,location,price_inr\n1,2,Pune,3\n"));
+    }
+
+    @Test
+    void quotesKeepCommasAndAreDropped() throws IOException {
+        List<Row> rows = parse(HEADER + "\"1200\",2,\"2\",\"Andheri, Mumbai\",\"6500000.50\"\n");
+        assertEquals(List.of(new Row(1200, 2, 2, "Andheri, Mumbai", 6_500_000.5)), rows);
+    }
+
+    @Test
+    void trimsLinesAndFieldsAndSkipsBlankOrShortRows() throws IOException {
+        String csv = HEADER
+                + "  1200 , 2 ,2,  Pune  ,  5000000  \r\n"
+                + "\n"
+                + "   \r\n"
+                + "900,1,1\n"
+                + "\" 700 \",1,1,\" Pune \",3000000";
+        assertEquals(List.of(new Row(1200, 2, 2, "Pune", 5_000_000), new Row(700, 1, 1, "Pune", 3_000_000)),
+                parse(csv));
+    }
+
+    @Test
+    void doublesMatchDoubleParseDouble() throws IOException {
+        String[] fastPath = {"0", "-0", "0.1", "+3.25", "1200.75", ".5", "5.", "1e22", "1.5E-3", "123456789012345678",
+                "9007199254740991", "0.000000000000000000001"};
+        String[] slowPath = {"1234567890123456789", "4503599627370495.5", "9007199254740993", "1e23",
+                "2.2250738585072014E-308", "1e-400"};
+        for (String[] cases : new String[][]{fastPath, slowPath}) {
+            for (String text : cases) {
+                assertEquals(Double.doubleToLongBits(Double.parseDouble(text)),
+                        Double.doubleToLongBits(parseSquareFeet(text)), text);
+            }
+        }
+        Random random = new Random(3);
+        for (int i = 0; i < 1000; i++) {
+            String text = String.format("%.2f", random.nextDouble() * 10_000);
+            assertEquals(Double.parseDouble(text), parseSquareFeet(text), text);
+        }
+        assertThrows(NumberFormatException.class, () -> parseSquareFeet("12a"));
+    }
+
+    @Test
+    void integersAreLimitedToTenDigitsAndTheIntRange() throws IOException {
+        assertEquals(2, parseBhk("0000000002"));
+        assertEquals(-5, parseBhk("-5"));
+        assertEquals(Integer.MAX_VALUE, parseBhk("2147483647"));
+        assertEquals(Integer.MIN_VALUE, parseBhk("-2147483648"));
+        assertThrows(NumberFormatException.class, () -> parseBhk("2147483648"));
+        assertThrows(NumberFormatException.class, () -> parseBhk("00000000002"));
+        assertThrows(NumberFormatException.class, () -> parseBhk("2.0"));
+        assertThrows(NumberFormatException.class, () -> parseBhk(""));
+    }
+
+    @Test
+    void windowsAreCutAtNewlines() throws IOException {
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int i = 0; i < 500; i++) {
+            csv.append(500 + i).append(".5,").append(i % 5 + 1).append(",2,Location ").append(i % 7)
+                    .append(',').append(1_000_000L + i * 1000L).append('\n');
+        }
+        csv.append("999,3,3,Last,1"); // no final newline
+        Path file = Files.writeString(dir.resolve("rows.csv"), csv);
+        List<Row> expected = parse(csv.toString());
+
+        for (int window : new int[]{40, 64, 100, 4096}) {
+            LocationDictionary dictionary = new LocationDictionary();
+            List<Row> rows = new ArrayList<>();
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                long parsed = new CsvByteParser(dictionary, window).parse(channel,
+                        (sq, bhk, bath, loc, price) -> rows.add(new Row(sq, bhk, bath, dictionary.name(loc), price)));
+                assertEquals(501, parsed, "window " + window);
+            }
+            assertEquals(expected, rows, "window " + window);
+        }
+    }
+
+    @Test
+    void aLineLongerThanTheWindowFails() throws IOException {
+        Path file = Files.writeString(dir.resolve("long.csv"),
+                HEADER + "1000,2,2," + "x".repeat(100) + ",1\n1000,2,2,Pune,1\n");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            assertThrows(IOException.class,
+                    () -> new CsvByteParser(new LocationDictionary(), 64).parse(channel, (sq, bhk, bath, loc, price) -> {
+                    }));
+        }
+    }
+}
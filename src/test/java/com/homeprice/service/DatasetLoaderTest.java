@@ -0,0 +1,86 @@
+package com.homeprice.service;
+
+import com.homeprice.model.domain.PropertyDataset;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DatasetLoaderTest {
+
+    private static final double ZERO_AREA_PRICE = 99_000_000;
+
+    @TempDir
+    Path dir;
+
+    /** 100 rows at 4000 - 5990 INR per sq ft, then one row with no area. */
+    private Path writeCsv() throws IOException {
+        StringBuilder csv = new StringBuilder("square_feet,bhk,bathrooms,location,price_inr\n");
+        for (int i = 0; i < 100; i++) {
+            csv.append(1000).append(",2,2,Pune,").append(1000L * (4000 + 20 * i)).append('\n');
+        }
+        csv.append("0,2,2,Pune,").append((long) ZERO_AREA_PRICE).append('\n');
+        return Files.writeString(dir.resolve("dataset.csv"), csv);
+    }
+
+    private static int zeroAreaRow(PropertyDataset dataset) {
+        for (int r = 0; r < dataset.size(); r++) {
+            if (dataset.getSquareFeet(r) <= 0) {
+                return r;
+            }
+        }
+        return -1;
+    }
+
+    @Test
+    void filterDropsRowsWithoutArea() throws IOException {
+        DatasetLoader loader = new DatasetLoader(writeCsv().toString(), 1, false, "filter", 0.1, 0.9);
+        PropertyDataset dataset = loader.loadDataset();
+
+        assertEquals(-1, zeroAreaRow(dataset));
+        assertEquals(101 - dataset.size(), loader.getProfile().getOutliers());
+        assertTrue(dataset.size() > 70, "the band keeps most rows");
+    }
+
+    @Test
+    void winsorizeKeepsRowsWithoutAreaButCountsThem() throws IOException {
+        DatasetLoader loader = new DatasetLoader(writeCsv().toString(), 1, false, "winsorize", 0.1, 0.9);
+        PropertyDataset dataset = loader.loadDataset();
+
+        assertEquals(101, dataset.size());
+        int zero = zeroAreaRow(dataset);
+        assertTrue(zero >= 0);
+        assertEquals(ZERO_AREA_PRICE, dataset.getPriceInr(zero));
+        long clamped = 0;
+        for (int r = 0; r < dataset.size(); r++) {
+            if (r != zero && dataset.getPriceInr(r) != 1000.0 * (4000 + 20 * r)) {
+                clamped++;
+            }
+        }
+        assertTrue(clamped > 0);
+        assertEquals(clamped + 1, loader.getProfile().getOutliers());
+    }
+
+    @Test
+    void reloadPublishesANewLocationListInsteadOfChangingTheOldOne() throws IOException {
+        Path csv = Files.writeString(dir.resolve("dataset.csv"),
+                "square_feet,bhk,bathrooms,location,price_inr\n1000,2,2,Pune,5000000\n1200,3,2,Mumbai,9000000\n");
+        DatasetLoader loader = new DatasetLoader(csv.toString(), 1, false, "none", 0, 1);
+        loader.loadDataset();
+        List<String> first = loader.getLocationOrder();
+        assertEquals(List.of("Pune", "Mumbai"), first);
+        assertThrows(UnsupportedOperationException.class, () -> first.add("Delhi"));
+
+        Files.writeString(csv, "square_feet,bhk,bathrooms,location,price_inr\n900,2,1,Delhi,4000000\n");
+        loader.loadDataset();
+        assertEquals(List.of("Pune", "Mumbai"), first);
+        assertEquals(List.of("Delhi"), loader.getLocationOrder());
+    }
+}
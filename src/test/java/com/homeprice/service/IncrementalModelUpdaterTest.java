@@ -0,0 +1,179 @@
+package com.homeprice.service;
+
+import com.homeprice.model.domain.PropertyRecord;
+import com.homeprice.model.ml.ModelMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IncrementalModelUpdaterTest {
+
+    private static final String[] LOCATIONS = {"Pune", "Mumbai", "Delhi"};
+
+    @TempDir
+    Path dir;
+
+    private ModelTrainer trainer;
+    private IncrementalModelUpdater updater;
+
+    @AfterEach
+    void shutdown() {
+        if (updater != null) {
+            updater.shutdown();
+        }
+        if (trainer != null) {
+            trainer.shutdown();
+        }
+    }
+
+    /** Prices that depend on square feet only; bhk, bathrooms and location are noise. */
+    private static double price(Random random, double squareFeet) {
+        return 5000 * squareFeet + random.nextGaussian() * 10_000;
+    }
+
+    private Path writeCsv(Random random, int rows) throws IOException {
+        StringBuilder csv = new StringBuilder("square_feet,bhk,bathrooms,location,price_inr\n");
+        for (int i = 0; i < rows; i++) {
+            int squareFeet = 500 + random.nextInt(2500);
+            csv.append(squareFeet).append(',').append(1 + random.nextInt(4)).append(',').append(1 + random.nextInt(3))
+                    .append(',').append(LOCATIONS[random.nextInt(LOCATIONS.length)]).append(',')
+                    .append(Math.round(price(random, squareFeet))).append('\n');
+        }
+        return Files.writeString(dir.resolve("dataset.csv"), csv);
+    }
+
+    private ModelTrainer trainer(Path csv, IterativeTrainer iterativeTrainer) {
+        return new ModelTrainer(new DatasetLoader(csv.toString(), 1, false, "none", 0, 1), new ModelSnapshotStore(""),
+                iterativeTrainer, HomePriceMetrics.none(), false, "cholesky", 0.0, false, 0, false, 30,
+                "ordinal", 1024, 0, 0.001, 1e6, 50, false);
+    }
+
+    /**
+     * Serves a version without training statistics, as loaded from an old snapshot, and loses every
+     * promotion race, as if full retrains kept landing while it trains to seed incremental updates.
+     */
+    private static final class RacingTrainer extends ModelTrainer {
+
+        private final AtomicInteger runs = new AtomicInteger();
+        private volatile ModelBundle serving;
+
+        RacingTrainer(Path csv) {
+            super(new DatasetLoader(csv.toString(), 1, false, "none", 0, 1), new ModelSnapshotStore(""),
+                    IterativeTrainer.normalEquations(), HomePriceMetrics.none(), false, "cholesky", 0.0, false, 0,
+                    false, 30, "ordinal", 1024, 0, 0.001, 1e6, 50, false);
+        }
+
+        void serveWithoutStatistics() {
+            ModelBundle trained = super.getBundle();
+            serving = new ModelBundle(trained.getVersion(), trained.getModel(), trained.getScoringModel(),
+                    trained.getMetrics(), null, trained.getCreatedAtMillis());
+            runs.set(0);
+        }
+
+        @Override
+        public ModelBundle getBundle() {
+            return serving != null ? serving : super.getBundle();
+        }
+
+        @Override
+        public ModelBundle train() throws IOException {
+            runs.incrementAndGet();
+            return super.train();
+        }
+
+        @Override
+        public boolean promote(ModelBundle expected, ModelBundle bundle) {
+            return false;
+        }
+    }
+
+    private static List<PropertyRecord> batch(Random random, int rows, double priceFactor) {
+        List<PropertyRecord> batch = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            int squareFeet = 500 + random.nextInt(2500);
+            batch.add(new PropertyRecord(squareFeet, 1 + random.nextInt(4), 1 + random.nextInt(3),
+                    random.nextInt(LOCATIONS.length), priceFactor * price(random, squareFeet)));
+        }
+        return batch;
+    }
+
+    private ModelBundle awaitNewVersion(ModelBundle previous) throws InterruptedException {
+        for (int i = 0; i < 200 && trainer.getBundle() == previous; i++) {
+            Thread.sleep(25);
+        }
+        assertNotEquals(previous.getVersion(), trainer.getBundle().getVersion(), "no incremental version promoted");
+        return trainer.getBundle();
+    }
+
+    @Test
+    void lassoZerosSurviveAnIncrementalBatch() throws Exception {
+        Random random = new Random(9);
+        trainer = trainer(writeCsv(random, 2000),
+                new IterativeTrainer("coordinate-descent", 0.05, 0.05, 0, 256, 50, 3));
+        trainer.trainModel();
+        ModelBundle trained = trainer.getBundle();
+        double[] weights = trained.getModel().getWeights();
+        assertTrue(weights[1] > 0, "square feet weight");
+        assertEquals(List.of(0.0, 0.0, 0.0), List.of(weights[2], weights[3], weights[4]));
+
+        updater = new IncrementalModelUpdater(trainer, true, "", 60, 1.0);
+        updater.start();
+        updater.submit(batch(random, 200, 1));
+
+        double[] updated = awaitNewVersion(trained).getModel().getWeights();
+        assertTrue(updated[1] > 0, "square feet weight");
+        assertEquals(List.of(0.0, 0.0, 0.0), List.of(updated[2], updated[3], updated[4]));
+        assertEquals(trained.getStatistics().count() + 200, trainer.getBundle().getStatistics().count());
+    }
+
+    @Test
+    void updatedVersionsKeepTheHeldOutMetrics() throws Exception {
+        Random random = new Random(10);
+        trainer = trainer(writeCsv(random, 2000), IterativeTrainer.normalEquations());
+        trainer.trainModel();
+        ModelBundle trained = trainer.getBundle();
+
+        updater = new IncrementalModelUpdater(trainer, true, "", 60, 1.0);
+        updater.start();
+        updater.submit(batch(random, 50, 3)); // prices far off the model: a large prequential error
+
+        ModelMetrics heldOut = trained.getMetrics();
+        ModelMetrics updated = awaitNewVersion(trained).getMetrics();
+        assertEquals(heldOut.getMae(), updated.getMae());
+        assertEquals(heldOut.getRmse(), updated.getRmse());
+        assertEquals(heldOut.getTestSamples(), updated.getTestSamples());
+        assertEquals(heldOut.getTrainSamples() + 50, updated.getTrainSamples());
+    }
+
+    @Test
+    void seedingGivesUpAfterLosingThePromotionRaceRepeatedly() throws Exception {
+        RacingTrainer racing = new RacingTrainer(writeCsv(new Random(11), 500));
+        trainer = racing;
+        racing.trainModel();
+        racing.serveWithoutStatistics();
+
+        updater = new IncrementalModelUpdater(racing, true, "", 60, 1.0);
+        updater.start();
+        updater.submit(batch(new Random(12), 10, 1));
+
+        for (int i = 0; i < 200 && racing.runs.get() < 3; i++) {
+            Thread.sleep(25);
+        }
+        Thread.sleep(500);
+        assertEquals(3, racing.runs.get());
+        assertNull(racing.getBundle().getStatistics());
+    }
+}
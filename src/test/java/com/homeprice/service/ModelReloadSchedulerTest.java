@@ -0,0 +1,124 @@
+package com.homeprice.service;
+
+import com.homeprice.model.ml.ModelMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ModelReloadSchedulerTest {
+
+    private static final String HEADER = "square_feet,bhk,bathrooms,location,price_inr\n";
+
+    @TempDir
+    Path dir;
+
+    private ModelTrainer trainer;
+    private ModelReloadScheduler scheduler;
+
+    @AfterEach
+    void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+        if (trainer != null) {
+            trainer.shutdown();
+        }
+    }
+
+    /** Trainer whose first training runs fail, as if the dataset could not be read for a moment. */
+    private static final class FlakyTrainer extends ModelTrainer {
+
+        private int failures;
+        private int runs;
+
+        FlakyTrainer(DatasetLoader loader, boolean streaming, int failures) {
+            super(loader, new ModelSnapshotStore(""), IterativeTrainer.normalEquations(), HomePriceMetrics.none(),
+                    streaming, "cholesky", 1.0, false, 0, false, 30, "ordinal", 1024, 0, 0.001, 1e6, 50, false);
+            this.failures = failures;
+        }
+
+        @Override
+        public synchronized ModelBundle train() throws IOException {
+            runs++;
+            if (failures > 0) {
+                failures--;
+                throw new IOException("Dataset temporarily unavailable");
+            }
+            return super.train();
+        }
+    }
+
+    private static String rows(int count) {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            csv.append(500 + 37 * i).append(',').append(1 + i % 4).append(',').append(1 + i % 3).append(',')
+                    .append(i % 2 == 0 ? "Pune" : "Mumbai").append(',').append(4000 * (500 + 37 * i) + 1000 * i)
+                    .append('\n');
+        }
+        return csv.toString();
+    }
+
+    private DatasetLoader loader(Path csv) {
+        return new DatasetLoader(csv.toString(), 1, false, "none", 0, 1);
+    }
+
+    @Test
+    void rejectsANonFiniteCandidateWhenNoModelIsPublished() throws IOException {
+        // The first four rows all fall in the streaming training split, so the test metrics are NaN
+        Path csv = Files.writeString(dir.resolve("tiny.csv"), HEADER + rows(4));
+        FlakyTrainer flaky = new FlakyTrainer(loader(csv), true, 0);
+        trainer = flaky;
+        scheduler = new ModelReloadScheduler(trainer, loader(csv), false, 60, 0.05);
+
+        assertEquals(ModelReloadScheduler.Outcome.REJECTED, scheduler.retrain());
+        assertNull(trainer.getBundleIfPresent());
+    }
+
+    @Test
+    void aFailedRetrainIsRetriedWithoutAnotherDatasetChange() throws IOException {
+        Path csv = Files.writeString(dir.resolve("dataset.csv"), HEADER + rows(200));
+        FlakyTrainer flaky = new FlakyTrainer(loader(csv), false, 0);
+        trainer = flaky;
+        trainer.trainModel();
+        long trainedVersion = trainer.getBundle().getVersion();
+        scheduler = new ModelReloadScheduler(trainer, loader(csv), true, 3600, 1.0);
+        scheduler.start();
+
+        Files.writeString(csv, rows(50), StandardOpenOption.APPEND);
+        flaky.failures = 1;
+        scheduler.checkForChanges(); // change seen, waiting for it to settle
+        assertEquals(1, flaky.runs);
+        scheduler.checkForChanges(); // retrain fails
+        assertEquals(2, flaky.runs);
+        assertEquals(trainedVersion, trainer.getBundle().getVersion());
+
+        scheduler.checkForChanges(); // retried on the unchanged file
+        assertEquals(3, flaky.runs);
+        assertNotNull(trainer.getBundleIfPresent());
+        assertTrue(trainer.getBundle().getVersion() > trainedVersion);
+
+        scheduler.checkForChanges(); // promoted: nothing left to do
+        assertEquals(3, flaky.runs);
+    }
+
+    @Test
+    void acceptsOnlyFiniteCandidatesWithinTheAllowedIncrease() {
+        scheduler = new ModelReloadScheduler(null, null, false, 60, 0.05);
+        ModelMetrics current = new ModelMetrics(100, 200, 80, 20);
+        assertTrue(scheduler.isAcceptable(null, new ModelMetrics(1, 1, 1, 1)));
+        assertTrue(scheduler.isAcceptable(current, new ModelMetrics(105, 210, 80, 20)));
+        assertFalse(scheduler.isAcceptable(current, new ModelMetrics(106, 200, 80, 20)));
+        assertFalse(scheduler.isAcceptable(null, new ModelMetrics(Double.NaN, Double.NaN, 4, 0)));
+    }
+}
@@ -0,0 +1,83 @@
+package com.homeprice.service;
+
+import com.homeprice.model.ml.CholeskySolver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ModelTrainerTest {
+
+    @TempDir
+    Path dir;
+
+    private final List<ModelTrainer> trainers = new ArrayList<>();
+
+    @AfterEach
+    void shutdown() {
+        trainers.forEach(ModelTrainer::shutdown);
+    }
+
+    private Path writeCsv(int rows) throws IOException {
+        StringBuilder csv = new StringBuilder("square_feet,bhk,bathrooms,location,price_inr\n");
+        for (int i = 0; i < rows; i++) {
+            csv.append(500 + 13 * i).append(',').append(1 + i % 4).append(',').append(1 + i % 3).append(',')
+                    .append(i % 3 == 0 ? "Pune" : "Mumbai").append(',').append(5000L * (500 + 13 * i) + 7919L * (i % 11))
+                    .append('\n');
+        }
+        return Files.writeString(dir.resolve("dataset.csv"), csv);
+    }
+
+    private ModelTrainer trainer(Path csv, Path snapshot, double ridge) {
+        ModelTrainer trainer = new ModelTrainer(new DatasetLoader(csv.toString(), 1, false, "none", 0, 1),
+                new ModelSnapshotStore(snapshot.toString()), IterativeTrainer.normalEquations(),
+                HomePriceMetrics.none(), false, "cholesky", ridge, false, 0, false, 30, "ordinal", 1024, 0, 0.001,
+                1e6, 50, true);
+        trainers.add(trainer);
+        trainer.trainModel();
+        return trainer;
+    }
+
+    @Test
+    void snapshotRestoresTheConfiguredSolver() throws IOException {
+        Path csv = writeCsv(300);
+        Path snapshot = dir.resolve("model.hpms");
+        ModelTrainer trained = trainer(csv, snapshot, 50);
+        ModelTrainer restored = trainer(csv, snapshot, 50);
+
+        assertArrayEquals(trained.getModel().getWeights(), restored.getModel().getWeights());
+        CholeskySolver solver = assertInstanceOf(CholeskySolver.class, restored.getModel().getSolver());
+        assertEquals(50, solver.getRidge());
+        assertArrayEquals(trained.refit(trained.getBundle().getStatistics()).getWeights(),
+                restored.refit(restored.getBundle().getStatistics()).getWeights(), 1e-6);
+    }
+
+    @Test
+    void comparablesOfASnapshotModelAreReportedAsUnavailable() throws IOException {
+        Path csv = writeCsv(300);
+        Path snapshot = dir.resolve("model.hpms");
+        ModelTrainer trained = trainer(csv, snapshot, 0);
+        ModelTrainer restored = trainer(csv, snapshot, 0);
+        PredictionCache cache = PredictionCache.disabled();
+
+        assertEquals(5, new PredictionService(trained, cache, HomePriceMetrics.none())
+                .comparables(1200, 2, 2, "Pune", 5).getComparables().size());
+        PredictionService service = new PredictionService(restored, cache, HomePriceMetrics.none());
+        NoSuchElementException e = assertThrows(NoSuchElementException.class,
+                () -> service.comparables(1200, 2, 2, "Pune", 5));
+        assertTrue(e.getMessage().contains("snapshot"));
+        assertTrue(service.predict(1200, 2, 2, "Pune").getPriceInr() > 0);
+    }
+}
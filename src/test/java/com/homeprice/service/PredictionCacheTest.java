@@ -0,0 +1,116 @@
+package com.homeprice.service;
+
+import com.homeprice.model.domain.PricePrediction;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PredictionCacheTest {
+
+    private static PricePrediction prediction(long price) {
+        return new PricePrediction(price, "₹ " + price);
+    }
+
+    @Test
+    void keyPacksEveryFieldInItsOwnBits() {
+        long key = PredictionCache.key(1234.56, 3, 2, 7);
+        assertEquals(123456L | 3L << 20 | 2L << 24 | 7L << 28, key);
+        assertNotEquals(PredictionCache.key(1, 15, 0, 0), PredictionCache.key(1, 0, 15, 0));
+        assertNotEquals(PredictionCache.key(1, 0, 15, 0), PredictionCache.key(1, 0, 0, 1));
+        assertTrue(PredictionCache.key(1, 1, 1, Integer.MAX_VALUE) > 0);
+    }
+
+    @Test
+    void keyAcceptsTheLargestValuesThatFit() {
+        assertTrue(PredictionCache.key(PredictionCache.MAX_SQUARE_FEET / 100.0, 0, 0, 0) >= 0);
+        assertTrue(PredictionCache.key(10485.75, PredictionCache.MAX_ROOMS, PredictionCache.MAX_ROOMS, 0) >= 0);
+        assertTrue(PredictionCache.key(0, 0, 0, 0) >= 0);
+    }
+
+    @Test
+    void keyRejectsInputsThatDoNotFit() {
+        assertEquals(-1, PredictionCache.key(10485.76, 2, 2, 0));
+        assertEquals(-1, PredictionCache.key(-0.01, 2, 2, 0));
+        assertEquals(-1, PredictionCache.key(1200.001, 2, 2, 0));
+        assertEquals(-1, PredictionCache.key(Double.NaN, 2, 2, 0));
+        assertEquals(-1, PredictionCache.key(1200, 16, 2, 0));
+        assertEquals(-1, PredictionCache.key(1200, 2, 16, 0));
+        assertEquals(-1, PredictionCache.key(1200, -1, 2, 0));
+        assertEquals(-1, PredictionCache.key(1200, 2, 2, -1));
+    }
+
+    @Test
+    void entriesOfAnotherModelVersionMiss() {
+        PredictionCache cache = new PredictionCache(true, 100, "tinylfu");
+        long key = PredictionCache.key(1200, 2, 2, 0);
+        PricePrediction value = prediction(6_514_675);
+        assertTrue(Double.isNaN(cache.hitRate()));
+        cache.put(key, 1, value);
+
+        assertSame(value, cache.get(key, 1));
+        assertNull(cache.get(key, 2));
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.missCount());
+        assertEquals(0.5, cache.hitRate());
+    }
+
+    @Test
+    void unpackableKeysAndDisabledCachesStoreNothing() {
+        PredictionCache cache = new PredictionCache(true, 100, "lru");
+        cache.put(-1, 1, prediction(1));
+        assertNull(cache.get(-1, 1));
+        assertEquals(0, cache.size());
+
+        PredictionCache disabled = PredictionCache.disabled();
+        disabled.put(1, 1, prediction(1));
+        assertNull(disabled.get(1, 1));
+        assertEquals(0, disabled.size());
+    }
+
+    @Test
+    void sizeStaysBoundedAndEvictionsAreCounted() {
+        for (String policy : new String[]{"lru", "tinylfu"}) {
+            PredictionCache cache = new PredictionCache(true, 100, policy);
+            for (int i = 0; i < 1000; i++) {
+                cache.put(PredictionCache.key(i, 2, 2, 0), 1, prediction(i));
+            }
+            assertTrue(cache.size() <= 100, policy);
+            assertEquals(1000 - cache.size(), cache.evictionCount(), policy);
+        }
+    }
+
+    @Test
+    void tinyLfuKeepsAPopularEntryThroughAScanOfOneOffInputs() {
+        PredictionCache tinyLfu = new PredictionCache(true, 100, "tinylfu");
+        PredictionCache lru = new PredictionCache(true, 100, "lru");
+        long popular = PredictionCache.key(1200, 2, 2, 0);
+        for (PredictionCache cache : new PredictionCache[]{tinyLfu, lru}) {
+            for (int i = 0; i < 100; i++) {
+                cache.put(PredictionCache.key(i, 1, 1, 0), 1, prediction(i)); // warm: full before the scan
+            }
+            cache.put(popular, 1, prediction(1));
+            for (int i = 0; i < 20; i++) {
+                cache.get(popular, 1);
+            }
+            for (int i = 0; i < 1000; i++) {
+                long key = PredictionCache.key(2000 + i, 3, 3, 1);
+                cache.get(key, 1);
+                cache.put(key, 1, prediction(i));
+            }
+        }
+        assertNotNull(tinyLfu.get(popular, 1));
+        assertNull(lru.get(popular, 1));
+    }
+
+    @Test
+    void unknownPolicyIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new PredictionCache(true, 100, "fifo"));
+    }
+}